@@ -0,0 +1,42 @@
+package ch.epfl.javass.jass;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs every JMH benchmark of the packed card engine and of MctsPlayer with
+ * the GC profiler, so that each one reports its operations per second and
+ * its allocation rate (gc.alloc.rate.norm, in bytes per operation).
+ * 
+ * Arguments: the usual JMH options, e.g. a regular expression selecting some
+ * of the benchmarks, or -wi 1 -i 3 for a quick run.
+ */
+public final class BenchmarkSuite {
+    private BenchmarkSuite() {}
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLine);
+        if (commandLine.getIncludes().isEmpty()) {
+            for (Class<?> benchmark : BENCHMARKS)
+                options.include(benchmark.getSimpleName());
+        }
+        options.addProfiler(GCProfiler.class);
+        new Runner(options.build()).run();
+    }
+
+    private static final Class<?>[] BENCHMARKS = {
+            PackedCardSetBenchmark.class,
+            PackedTrickBenchmark.class,
+            MeldBenchmark.class,
+            TurnStateBenchmark.class,
+            RolloutBenchmark.class,
+            EndgameSolverBenchmark.class,
+            MctsPlayerBenchmark.class,
+    };
+}
@@ -0,0 +1,86 @@
+package ch.epfl.javass.jass;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.Map;
+
+import ch.epfl.javass.jass.Card.Color;
+
+/**
+ * Measures the time taken to checkpoint games in progress to a file, every
+ * snapshot being at the offset given by the index of its game, and to
+ * restore them.
+ * 
+ * Arguments (all optional): games, file.
+ */
+public final class CheckpointBenchmark {
+    private CheckpointBenchmark() {}
+
+    /* a player playing its first playable card */
+    private static final Player PLAYER = new Player() {
+        @Override
+        public Card cardToPlay(TurnState state, CardSet hand) {
+            return state.trick().playableCards(hand).get(0);
+        }
+
+        @Override
+        public Color chooseTrump(CardSet hand) {
+            return Color.HEART;
+        }
+    };
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        Path file = args.length > 1 ? Path.of(args[1]) : Files.createTempFile("games", ".ckpt");
+
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        Map<PlayerId, String> names = new EnumMap<>(PlayerId.class);
+        for (PlayerId p : PlayerId.ALL) {
+            players.put(p, PLAYER);
+            names.put(p, p.name());
+        }
+        JassGame[] games = new JassGame[count];
+        for (int g = 0; g < count; ++g) {
+            games[g] = new JassGame(g, players, names);
+            for (int t = 0; t < g % 50; ++t)
+                games[g].advanceToEndOfNextTrick();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(count * JassGame.SNAPSHOT_SIZE);
+        for (int round = 0; round < 5; ++round) {
+            long start = System.nanoTime();
+            buffer.clear();
+            for (JassGame game : games)
+                game.snapshot(buffer);
+            buffer.flip();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+                channel.force(false);
+            }
+            long written = System.nanoTime();
+
+            buffer.clear();
+            try (FileChannel channel = FileChannel.open(file)) {
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0)
+                    ;
+            }
+            buffer.flip();
+            for (int g = 0; g < count; ++g)
+                games[g] = JassGame.restore(buffer, players, names);
+            long restored = System.nanoTime();
+
+            System.out.printf("%d games (%d bytes) : checkpoint %.2f ms (with fsync), restore %.2f ms%n",
+                    count, count * JassGame.SNAPSHOT_SIZE,
+                    (written - start) / 1e6, (restored - written) / 1e6);
+        }
+        if (args.length <= 1)
+            Files.delete(file);
+    }
+}
@@ -0,0 +1,68 @@
+package ch.epfl.javass.jass;
+
+/**
+ * Compares an MctsPlayer stopping its searches once its card is settled with
+ * a plain MctsPlayer, on points won and on time per decision, for the same
+ * number of iterations per decision, and prints the share of the
+ * iterations saved on a few turns.
+ * 
+ * Arguments (all optional): deals, iterations.
+ */
+public final class EarlyStoppingBenchmark {
+    private EarlyStoppingBenchmark() {}
+
+    public static void main(String[] args) {
+        int deals = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+
+        long[] counts = new long[3];
+        MctsMatch.Side[] sides = MctsMatch.play(
+                (id, seed) -> new CountingPlayer(
+                        new MctsPlayer(id, seed, iterations).withEarlyStopping(), counts),
+                (id, seed) -> new MctsPlayer(id, seed, iterations),
+                deals, 2019);
+        MctsMatch.print("early stopping", "all iterations", sides, deals);
+        System.out.printf("%d searches, %.1f%% of them stopped early, %.1f%% of the iterations saved%n",
+                counts[0], 100.0 * counts[1] / counts[0],
+                100.0 * counts[2] / ((long) iterations * counts[0]));
+    }
+
+    /* counts the searches of the player, the ones stopped early and the
+     * iterations they saved */
+    private static final class CountingPlayer implements Player {
+        private final MctsPlayer player;
+        private final long[] counts;
+
+        CountingPlayer(MctsPlayer player, long[] counts) {
+            this.player = player;
+            this.counts = counts;
+        }
+
+        @Override
+        public Card cardToPlay(TurnState state, CardSet hand) {
+            Card card = player.cardToPlay(state, hand);
+            if (player.lastSearchIterations() + player.lastSavedIterations() > 0) {
+                ++counts[0];
+                if (player.lastSavedIterations() > 0)
+                    ++counts[1];
+                counts[2] += player.lastSavedIterations();
+            }
+            return card;
+        }
+
+        @Override
+        public Card.Color chooseTrump(CardSet hand) {
+            return player.chooseTrump(hand);
+        }
+
+        @Override
+        public void setTrump(Card.Color trump) {
+            player.setTrump(trump);
+        }
+
+        @Override
+        public void updateTrick(Trick newTrick) {
+            player.updateTrick(newTrick);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package ch.epfl.javass.jass;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.epfl.javass.jass.Card.Color;
+
+/**
+ * Exact solution of the last tricks of random turns by EndgameSolver, at the
+ * beginning of the given number of remaining tricks, all the hands being
+ * known (positions solved per second), with a random completion of the same
+ * positions for comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EndgameSolverBenchmark {
+    private final static int CASES = 64;
+
+    @Param({ "2", "3", "4" })
+    public int tricks;
+
+    private final long[] scores = new long[CASES];
+    private final int[] trickStates = new int[CASES];
+    private final long[][] hands = new long[CASES][PlayerId.COUNT];
+    private final long[] scratch = new long[PlayerId.COUNT];
+    private final EndgameSolver solver = new EndgameSolver(1 << 20);
+    private final SplittableRandom rng = new SplittableRandom(2019);
+
+    @Setup
+    public void setUp() {
+        SplittableRandom rng = new SplittableRandom(2019);
+        for (int i = 0; i < CASES; ++i) {
+            /* the first tricks are played randomly on a random deal */
+            long deck = PackedCardSet.ALL_CARDS;
+            for (int c = 0; c < Jass.TOTAL_CARDS; ++c) {
+                int card = PackedCardSet.randomMember(deck, rng);
+                deck = PackedCardSet.remove(deck, card);
+                hands[i][c % PlayerId.COUNT] = PackedCardSet.add(hands[i][c % PlayerId.COUNT], card);
+            }
+            long score = PackedScore.INITIAL;
+            int trick = PackedTrick.firstEmpty(Color.ALL.get(rng.nextInt(Color.COUNT)),
+                    PlayerId.ALL.get(rng.nextInt(PlayerId.COUNT)));
+            for (int c = 0; c < (Jass.TRICKS_PER_TURN - tricks) * PlayerId.COUNT; ++c) {
+                int p = PackedTrick.player(trick, PackedTrick.size(trick)).ordinal();
+                int card = PackedCardSet.randomMember(PackedTrick.playableCards(trick, hands[i][p]), rng);
+                hands[i][p] = PackedCardSet.remove(hands[i][p], card);
+                trick = PackedTrick.withAddedCard(trick, card);
+                if (PackedTrick.isFull(trick)) {
+                    score = PackedScore.withAdditionalTrick(score,
+                            PackedTrick.winningPlayer(trick).team(), PackedTrick.points(trick));
+                    trick = PackedTrick.nextEmpty(trick);
+                }
+            }
+            scores[i] = score;
+            trickStates[i] = trick;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CASES)
+    public long solve() {
+        long r = 0;
+        for (int i = 0; i < CASES; ++i)
+            r ^= solver.solve(scores[i], trickStates[i], hands[i]);
+        return r;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CASES)
+    public long randomTurn() {
+        long r = 0;
+        for (int i = 0; i < CASES; ++i) {
+            System.arraycopy(hands[i], 0, scratch, 0, PlayerId.COUNT);
+            r ^= MctsRollout.randomTurnScore(scores[i], trickStates[i], scratch, rng);
+        }
+        return r;
+    }
+}
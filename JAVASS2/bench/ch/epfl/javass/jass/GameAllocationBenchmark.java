@@ -0,0 +1,82 @@
+package ch.epfl.javass.jass;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+
+import ch.epfl.javass.jass.Card.Color;
+
+/**
+ * Plays whole games with players using only the object API, like the
+ * graphical interface and the network server (reading every card of their
+ * hand and of the trick they are told, and the score), and measures the
+ * bytes allocated per game by the thread playing them.
+ * 
+ * Arguments (all optional): games.
+ */
+public final class GameAllocationBenchmark {
+    private GameAllocationBenchmark() {}
+
+    /* a player reading all it is told, and playing its first playable card */
+    private static final class ReadingPlayer implements Player {
+        private int read;
+
+        @Override
+        public Card cardToPlay(TurnState state, CardSet hand) {
+            return state.trick().playableCards(hand).get(0);
+        }
+
+        @Override
+        public Color chooseTrump(CardSet hand) {
+            return hand.get(0).color();
+        }
+
+        @Override
+        public void updateHand(CardSet newHand) {
+            for (int i = 0; i < newHand.size(); ++i)
+                read += newHand.get(i).packed();
+        }
+
+        @Override
+        public void updateTrick(Trick newTrick) {
+            for (int i = 0; i < newTrick.size(); ++i)
+                read += newTrick.card(i).packed();
+        }
+
+        @Override
+        public void updateScore(Score score) {
+            read += score.totalPoints(TeamId.TEAM_1);
+        }
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        Map<PlayerId, String> names = new EnumMap<>(PlayerId.class);
+        for (PlayerId p : PlayerId.ALL) {
+            players.put(p, new ReadingPlayer());
+            names.put(p, p.name());
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        for (int round = 0; round < 5; ++round) {
+            long cards = 0;
+            long allocated = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            for (int g = 0; g < count; ++g) {
+                JassGame game = new JassGame(g, players, names);
+                while (!game.isGameOver()) {
+                    game.advanceToEndOfNextTrick();
+                    cards += PlayerId.COUNT;
+                }
+            }
+            long time = System.nanoTime() - start;
+            allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+            System.out.printf("%d games : %.1f KB allocated per game, %.0f bytes per card, %.3f ms per game%n",
+                    count, allocated / 1024.0 / count, (double) allocated / cards, time / 1e6 / count);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ch.epfl.javass.jass;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.Map;
+
+import ch.epfl.javass.jass.Card.Color;
+
+/**
+ * Hosts many tables whose players take some time to play (like humans or
+ * remote players), and measures the threads and the heap used per table
+ * while they wait, on virtual threads if the JVM has them.
+ * 
+ * Arguments (all optional): tables, seconds per card.
+ */
+public final class GameHostLoadTest {
+    private GameHostLoadTest() {}
+
+    private static final Player FIRST_CARD_PLAYER = new Player() {
+        @Override
+        public Card cardToPlay(TurnState state, CardSet hand) {
+            return state.trick().playableCards(hand).get(0);
+        }
+
+        @Override
+        public Color chooseTrump(CardSet hand) {
+            return Color.CLUB;
+        }
+    };
+
+    public static void main(String[] args) throws InterruptedException {
+        int tables = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        double secondsPerCard = args.length > 1 ? Double.parseDouble(args[1]) : 0.5;
+
+        Map<PlayerId, String> names = new EnumMap<>(PlayerId.class);
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        for (PlayerId p : PlayerId.ALL) {
+            names.put(p, p.name());
+            players.put(p, new PacedPlayer(FIRST_CARD_PLAYER, secondsPerCard));
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        int threadsBefore = threads.getThreadCount();
+
+        GameHost host = new GameHost();
+        long start = System.nanoTime();
+        for (int t = 0; t < tables; ++t)
+            host.host(new JassGame(t, players, names));
+        long started = System.nanoTime();
+        /* every table is waiting for a card */
+        Thread.sleep((long) (secondsPerCard * 1000 / 2));
+
+        System.gc();
+        long heap = runtime.totalMemory() - runtime.freeMemory() - heapBefore;
+        int platformThreads = threads.getThreadCount() - threadsBefore;
+        System.out.printf("%s threads, %d tables started in %.1f ms (%d in progress)%n",
+                GameHost.supportsVirtualThreads() ? "virtual" : "platform", tables,
+                (started - start) / 1e6, host.tables());
+        System.out.printf("platform threads: %d (%.3f per table)%n", platformThreads,
+                (double) platformThreads / tables);
+        System.out.printf("heap: %.1f MB (%.1f KB per table, the stacks of the"
+                + " platform threads not included)%n", heap / 1e6, heap / 1e3 / tables);
+
+        host.close();
+    }
+}
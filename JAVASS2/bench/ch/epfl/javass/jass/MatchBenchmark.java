@@ -0,0 +1,82 @@
+package ch.epfl.javass.jass;
+
+import java.util.function.BiFunction;
+
+/**
+ * Compares an MctsPlayer having one of its options (one of the MATCHES, given
+ * by its name) with a plain MctsPlayer, on points won and on time per
+ * decision, for the same number of iterations per decision.
+ *
+ * Arguments: the name of the match, then (all optional) deals, iterations and
+ * the parameter of the option.
+ */
+public final class MatchBenchmark {
+    private MatchBenchmark() {}
+
+    /** An option of MctsPlayer, compared with a plain player. */
+    private static final class Match {
+        private final String name;
+        private final String optionName;
+        private final String plainName;
+        private final long defaultParameter;
+        private final BiFunction<MctsPlayer, Long, MctsPlayer> option;
+
+        /**
+         * Creates the match of the given name, giving the option to a plain
+         * player with the parameter of the command line or the given default
+         * one, and printing the two sides with the given names.
+         */
+        Match(String name, String optionName, String plainName,
+                long defaultParameter, BiFunction<MctsPlayer, Long, MctsPlayer> option) {
+            this.name = name;
+            this.optionName = optionName;
+            this.plainName = plainName;
+            this.defaultParameter = defaultParameter;
+            this.option = option;
+        }
+    }
+
+    /* the options played against a plain player, by name (their parameter
+     * is given after the iterations) */
+    private static final Match[] MATCHES = {
+            new Match("tree-reuse", "tree reuse", "new tree per card", 0,
+                    (p, x) -> p.withTreeReuse()),
+            new Match("determinization", "determinized", "any unplayed card", 0,
+                    (p, x) -> p.withDeterminization()),
+            new Match("transpositions", "transpositions", "plain tree", 16,
+                    (p, megabytes) -> p.withTranspositions(megabytes << 20)),
+            new Match("endgame", "endgame solver", "random turns", 12,
+                    (p, cards) -> p.withEndgameSolver(cards.intValue())),
+            new Match("card-grouping", "card grouping", "a child per card", 0,
+                    (p, x) -> p.withCardGrouping()),
+    };
+
+    public static void main(String[] args) {
+        Match match = args.length > 0 ? match(args[0]) : null;
+        if (match == null) {
+            System.err.print("Use: java ch.epfl.javass.jass.MatchBenchmark <match>"
+                    + " [deals] [iterations] [parameter], the match being one of:");
+            for (Match m : MATCHES)
+                System.err.print(" " + m.name);
+            System.err.println();
+            System.exit(1);
+        }
+        int deals = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        long parameter = args.length > 3 ? Long.parseLong(args[3]) : match.defaultParameter;
+
+        MctsMatch.Side[] sides = MctsMatch.play(
+                (id, seed) -> match.option.apply(new MctsPlayer(id, seed, iterations), parameter),
+                (id, seed) -> new MctsPlayer(id, seed, iterations),
+                deals, 2019);
+        MctsMatch.print(match.optionName, match.plainName, sides, deals);
+    }
+
+    private static Match match(String name) {
+        for (Match match : MATCHES) {
+            if (match.name.equals(name))
+                return match;
+        }
+        return null;
+    }
+}
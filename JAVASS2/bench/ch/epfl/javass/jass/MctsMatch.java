@@ -0,0 +1,99 @@
+package ch.epfl.javass.jass;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.function.BiFunction;
+
+import ch.epfl.javass.jass.Card.Color;
+
+/**
+ * Plays turns between two kinds of players, each deal being played twice with
+ * the teams swapped, and measures the points won and the time spent deciding.
+ */
+public final class MctsMatch {
+    private MctsMatch() {}
+
+    /** Points and decision times of one side of a match. */
+    public static final class Side {
+        private long points;
+        private long decisions;
+        private long decisionNanos;
+
+        public double pointsPerTurn(int turns) {
+            return (double) points / turns;
+        }
+
+        public double millisPerDecision() {
+            return decisionNanos / 1e6 / decisions;
+        }
+    }
+
+    /**
+     * Plays 2 * deals turns between the players created by the two given
+     * factories (called with the identity of the player and a seed) and
+     * returns the two sides, in the same order as the factories.
+     */
+    public static Side[] play(BiFunction<PlayerId, Long, Player> sideA,
+            BiFunction<PlayerId, Long, Player> sideB, int deals, long seed) {
+        Side[] sides = { new Side(), new Side() };
+        SplittableRandom rng = new SplittableRandom(seed);
+        for (int d = 0; d < deals; ++d) {
+            long dealSeed = rng.nextLong();
+            for (int swap = 0; swap < 2; ++swap) {
+                playTurn(swap == 0 ? sideA : sideB, swap == 0 ? sideB : sideA,
+                        dealSeed, swap == 0 ? sides : new Side[] { sides[1], sides[0] });
+            }
+        }
+        return sides;
+    }
+
+    /** Prints the result of a match. */
+    public static void print(String nameA, String nameB, Side[] sides, int deals) {
+        int turns = 2 * deals;
+        System.out.printf("%-28s %8.2f points/turn %10.3f ms/decision%n", nameA,
+                sides[0].pointsPerTurn(turns), sides[0].millisPerDecision());
+        System.out.printf("%-28s %8.2f points/turn %10.3f ms/decision%n", nameB,
+                sides[1].pointsPerTurn(turns), sides[1].millisPerDecision());
+    }
+
+    private static void playTurn(BiFunction<PlayerId, Long, Player> team1,
+            BiFunction<PlayerId, Long, Player> team2, long dealSeed, Side[] sides) {
+        Random dealRng = new Random(dealSeed);
+        List<Card> deck = new ArrayList<>();
+        for (int i = 0; i < Jass.TOTAL_CARDS; ++i)
+            deck.add(CardSet.ALL_CARDS.get(i));
+        Collections.shuffle(deck, dealRng);
+
+        Player[] players = new Player[PlayerId.COUNT];
+        CardSet[] hands = new CardSet[PlayerId.COUNT];
+        for (PlayerId id : PlayerId.ALL) {
+            int i = id.ordinal();
+            players[i] = (id.team() == TeamId.TEAM_1 ? team1 : team2).apply(id, dealRng.nextLong());
+            hands[i] = CardSet.of(deck.subList(i * Jass.HAND_SIZE, (i + 1) * Jass.HAND_SIZE));
+        }
+
+        TurnState state = TurnState.initial(Color.ALL.get(dealRng.nextInt(Color.COUNT)),
+                Score.INITIAL, PlayerId.ALL.get(dealRng.nextInt(PlayerId.COUNT)));
+        for (Player player : players)
+            player.setTrump(state.trick().trump());
+        while (!state.isTerminal()) {
+            int p = state.nextPlayer().ordinal();
+            Side side = sides[PlayerId.ALL.get(p).team().ordinal()];
+            long t0 = System.nanoTime();
+            Card c = players[p].cardToPlay(state, hands[p]);
+            side.decisionNanos += System.nanoTime() - t0;
+            ++side.decisions;
+            hands[p] = hands[p].remove(c);
+            state = state.withNewCardPlayed(c);
+            for (Player player : players)
+                player.updateTrick(state.trick());
+            if (state.trick().isFull())
+                state = state.withTrickCollected();
+        }
+        for (TeamId t : TeamId.ALL)
+            sides[t.ordinal()].points += state.score().turnPoints(t);
+    }
+}
@@ -0,0 +1,50 @@
+package ch.epfl.javass.jass;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.epfl.javass.jass.Card.Color;
+
+/**
+ * A whole MctsPlayer.cardToPlay at the first card of a turn, for a few
+ * numbers of iterations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MctsPlayerBenchmark {
+    @Param({ "1000", "10000" })
+    public int iterations;
+
+    private MctsPlayer player;
+    private TurnState state;
+    private CardSet hand;
+
+    @Setup
+    public void setUp() {
+        player = new MctsPlayer(PlayerId.PLAYER_1, 2019, iterations);
+        state = TurnState.initial(Color.SPADE, Score.INITIAL, PlayerId.PLAYER_1);
+        hand = CardSet.EMPTY;
+        for (int i = 0; i < Jass.HAND_SIZE; ++i)
+            hand = hand.add(CardSet.ALL_CARDS.get(4 * i));
+    }
+
+    @Benchmark
+    public Card cardToPlay() {
+        return player.cardToPlay(state, hand);
+    }
+}
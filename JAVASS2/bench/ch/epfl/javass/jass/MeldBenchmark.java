@@ -0,0 +1,109 @@
+package ch.epfl.javass.jass;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Best meld set of random hands of 9 cards: PackedMeldSet.best, MeldSet.best
+ * (which wraps it) and their former implementation sorting MeldSet.allIn,
+ * built on the power set of the melds of the hand with a HashSet of cards
+ * per meld to check that they are disjoint (kept below).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeldBenchmark {
+    private final static int CASES = 1024;
+
+    private final long[] hands = new long[CASES];
+    private final CardSet[] cardSets = new CardSet[CASES];
+
+    @Setup
+    public void setUp() {
+        SplittableRandom rng = new SplittableRandom(2019);
+        for (int i = 0; i < CASES; ++i) {
+            long unplayed = PackedCardSet.ALL_CARDS;
+            long hand = PackedCardSet.EMPTY;
+            for (int c = 0; c < Jass.HAND_SIZE; ++c) {
+                int card = PackedCardSet.get(unplayed, rng.nextInt(PackedCardSet.size(unplayed)));
+                unplayed = PackedCardSet.remove(unplayed, card);
+                hand = PackedCardSet.add(hand, card);
+            }
+            hands[i] = hand;
+            cardSets[i] = CardSet.ofPacked(hand);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CASES)
+    public long packedBest() {
+        long r = 0;
+        for (int i = 0; i < CASES; ++i)
+            r ^= PackedMeldSet.best(hands[i]);
+        return r;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CASES)
+    public int best() {
+        int r = 0;
+        for (int i = 0; i < CASES; ++i)
+            r += MeldSet.best(cardSets[i]).points();
+        return r;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CASES)
+    public int formerBest() {
+        int r = 0;
+        for (int i = 0; i < CASES; ++i)
+            r += formerBest(cardSets[i]);
+        return r;
+    }
+
+    /* returns the points of the former best meld set */
+    static int formerBest(CardSet hand) {
+        List<Integer> points = new ArrayList<>();
+        for (Set<Meld> melds : Sets.powerSet(Meld.allIn(hand))) {
+            if (formerMutuallyDisjoint(melds)) {
+                int p = 0;
+                for (Meld m : melds)
+                    p += m.points();
+                points.add(p);
+            }
+        }
+        points.sort((p1, p2) -> Integer.compare(p2, p1));
+        return points.get(0);
+    }
+
+    private static boolean formerMutuallyDisjoint(Set<Meld> melds) {
+        List<Set<Card>> allSetsOfCards = new ArrayList<>();
+        for (Meld m : melds) {
+            Set<Card> cardsInM = new HashSet<>();
+            for (int i = 0; i < m.cards().size(); ++i) {
+                cardsInM.add(m.cards().get(i));
+            }
+            allSetsOfCards.add(cardsInM);
+        }
+        return Sets.mutuallyDisjoint(allSetsOfCards);
+    }
+}
@@ -0,0 +1,116 @@
+package ch.epfl.javass.jass;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.epfl.javass.jass.Card.Color;
+
+/**
+ * PackedCardSet.size, get, randomMember, subsetOfColor and union on random
+ * sets; get and randomMember are compared with the former get clearing the
+ * lowest bit index times.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PackedCardSetBenchmark {
+    private final static int CASES = 1024;
+
+    private final long[] sets = new long[CASES];
+    private final int[] indexes = new int[CASES];
+    private SplittableRandom rng;
+
+    @Setup
+    public void setUp() {
+        rng = new SplittableRandom(2019);
+        for (int i = 0; i < CASES; ++i) {
+            long set = rng.nextLong() & PackedCardSet.ALL_CARDS;
+            sets[i] = (set == PackedCardSet.EMPTY ? PackedCardSet.ALL_CARDS : set);
+            indexes[i] = rng.nextInt(PackedCardSet.size(sets[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CASES)
+    public int size() {
+        int r = 0;
+        for (int i = 0; i < CASES; ++i)
+            r += PackedCardSet.size(sets[i]);
+        return r;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CASES)
+    public long subsetOfColor() {
+        long r = 0;
+        for (int i = 0; i < CASES; ++i)
+            r ^= PackedCardSet.subsetOfColor(sets[i], Color.ALL.get(i % Color.COUNT));
+        return r;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CASES)
+    public long union() {
+        long r = 0;
+        for (int i = 1; i < CASES; ++i)
+            r ^= PackedCardSet.union(sets[i - 1], sets[i]);
+        return r;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CASES)
+    public int get() {
+        int r = 0;
+        for (int i = 0; i < CASES; ++i)
+            r += PackedCardSet.get(sets[i], indexes[i]);
+        return r;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CASES)
+    public int formerGet() {
+        int r = 0;
+        for (int i = 0; i < CASES; ++i)
+            r += formerGet(sets[i], indexes[i]);
+        return r;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CASES)
+    public int randomMember() {
+        int r = 0;
+        for (int i = 0; i < CASES; ++i)
+            r += PackedCardSet.randomMember(sets[i], rng);
+        return r;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CASES)
+    public int formerRandomMember() {
+        int r = 0;
+        for (int i = 0; i < CASES; ++i)
+            r += formerGet(sets[i], rng.nextInt(PackedCardSet.size(sets[i])));
+        return r;
+    }
+
+    private static int formerGet(long pkCardSet, int index) {
+        for (int i = 0; i < index; ++i)
+            pkCardSet ^= Long.lowestOneBit(pkCardSet);
+        return Long.numberOfTrailingZeros(pkCardSet);
+    }
+}
@@ -0,0 +1,141 @@
+package ch.epfl.javass.jass;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.epfl.javass.jass.Card.Color;
+
+/**
+ * PackedTrick.playableCards, PackedTrick.points and PackedTrick.winningPlayer
+ * on random tricks and hands; playableCards and winningPlayer are compared
+ * with their former implementation looping over the trick with
+ * PackedCard.isBetter (kept below).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PackedTrickBenchmark {
+    private final static int CASES = 1024;
+
+    private final int[] tricks = new int[CASES];
+    private final long[] hands = new long[CASES];
+
+    @Setup
+    public void setUp() {
+        SplittableRandom rng = new SplittableRandom(2019);
+        for (int i = 0; i < CASES; ++i) {
+            long unplayed = PackedCardSet.ALL_CARDS;
+            int trick = PackedTrick.firstEmpty(Color.ALL.get(rng.nextInt(Color.COUNT)),
+                    PlayerId.ALL.get(rng.nextInt(PlayerId.COUNT)));
+            for (int c = rng.nextInt(PlayerId.COUNT - 1) + 1; c > 0; --c) {
+                int card = PackedCardSet.get(unplayed, rng.nextInt(PackedCardSet.size(unplayed)));
+                unplayed = PackedCardSet.remove(unplayed, card);
+                trick = PackedTrick.withAddedCard(trick, card);
+            }
+            long hand = PackedCardSet.EMPTY;
+            for (int c = 0; c < Jass.HAND_SIZE; ++c) {
+                int card = PackedCardSet.get(unplayed, rng.nextInt(PackedCardSet.size(unplayed)));
+                unplayed = PackedCardSet.remove(unplayed, card);
+                hand = PackedCardSet.add(hand, card);
+            }
+            tricks[i] = trick;
+            hands[i] = hand;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CASES)
+    public long playableCards() {
+        long r = 0;
+        for (int i = 0; i < CASES; ++i)
+            r ^= PackedTrick.playableCards(tricks[i], hands[i]);
+        return r;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CASES)
+    public long formerPlayableCards() {
+        long r = 0;
+        for (int i = 0; i < CASES; ++i)
+            r ^= formerPlayableCards(tricks[i], hands[i]);
+        return r;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CASES)
+    public int points() {
+        int r = 0;
+        for (int i = 0; i < CASES; ++i)
+            r += PackedTrick.points(tricks[i]);
+        return r;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CASES)
+    public int winningPlayer() {
+        int r = 0;
+        for (int i = 0; i < CASES; ++i)
+            r += PackedTrick.winningPlayer(tricks[i]).ordinal();
+        return r;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CASES)
+    public int formerWinningPlayer() {
+        int r = 0;
+        for (int i = 0; i < CASES; ++i)
+            r += PackedTrick.player(tricks[i], formerWinningIndexCard(tricks[i])).ordinal();
+        return r;
+    }
+
+    static long formerPlayableCards(int pkTrick, long pkHand) {
+        if (PackedTrick.isEmpty(pkTrick)) return pkHand;
+        Color trump = PackedTrick.trump(pkTrick);
+        long cardsFollowing = PackedCardSet.subsetOfColor(pkHand, PackedTrick.baseColor(pkTrick));
+        if (cardsFollowing == 0L)
+            return PackedCardSet.union(PackedCardSet.difference(pkHand,
+                    PackedCardSet.subsetOfColor(pkHand, trump)), formerPossibleCuts(pkTrick, pkHand));
+        if (PackedTrick.baseColor(pkTrick).equals(trump)
+                && cardsFollowing == PackedCardSet.singleton(PackedCard.pack(trump, Card.Rank.JACK)))
+            return pkHand;
+        return PackedCardSet.union(cardsFollowing, formerPossibleCuts(pkTrick, pkHand));
+    }
+
+    private static int formerWinningIndexCard(int pkTrick) {
+        int winningIndex = 0;
+        for (int i = 1; i < PackedTrick.size(pkTrick); ++i) {
+            if (PackedTrick.isValid(PackedTrick.card(pkTrick, i))
+                    && PackedCard.isBetter(PackedTrick.trump(pkTrick),
+                            PackedTrick.card(pkTrick, i), PackedTrick.card(pkTrick, winningIndex)))
+                winningIndex = i;
+        }
+        return winningIndex;
+    }
+
+    private static long formerPossibleCuts(int pkTrick, long pkHand) {
+        Color trump = PackedTrick.trump(pkTrick);
+        int bestPkCard = PackedTrick.card(pkTrick, formerWinningIndexCard(pkTrick));
+        if (PackedCard.color(bestPkCard).equals(trump)) {
+            long possibilities = PackedCardSet.intersection(pkHand, PackedCardSet.trumpAbove(bestPkCard));
+            if (possibilities == 0 && pkHand == PackedCardSet.subsetOfColor(pkHand, trump))
+                return PackedCardSet.subsetOfColor(pkHand, trump);
+            return possibilities;
+        }
+        return PackedCardSet.subsetOfColor(pkHand, trump);
+    }
+}
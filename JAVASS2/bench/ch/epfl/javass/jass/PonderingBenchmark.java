@@ -0,0 +1,93 @@
+package ch.epfl.javass.jass;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import ch.epfl.javass.jass.Card.Color;
+
+/**
+ * Plays the same deals with a pondering MctsPlayer and with an MctsPlayer
+ * only reusing its tree, seated with three MctsPlayers which take some time
+ * to play (like humans, see PacedPlayer), and prints the points won per turn
+ * by its team, its time per decision and the iterations it searched per
+ * decision (the others being pondered).
+ * 
+ * Arguments (all optional): deals, iterations, seconds per card of the
+ * other players.
+ */
+public final class PonderingBenchmark {
+    private PonderingBenchmark() {}
+
+    public static void main(String[] args) {
+        int deals = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        double pause = args.length > 2 ? Double.parseDouble(args[2]) : 0.1;
+
+        for (boolean pondering : new boolean[] { true, false }) {
+            MctsPlayer[] measured = new MctsPlayer[1];
+            long points = 0, decisions = 0, nanos = 0, searched = 0;
+            Random rng = new Random(2019);
+            for (int d = 0; d < deals; ++d) {
+                long[] result = playTurn(rng.nextLong(), iterations, pause, pondering, measured);
+                points += result[0];
+                decisions += result[1];
+                nanos += result[2];
+                searched += result[3];
+            }
+            System.out.printf("%-28s %8.2f points/turn %10.3f ms/decision %10.0f iterations/decision%n",
+                    pondering ? "pondering" : "tree reuse", (double) points / deals,
+                    nanos / 1e6 / decisions, (double) searched / decisions);
+        }
+    }
+
+    /*
+     * plays a turn of the given deal, the measured player being the first
+     * one, and returns the points of its team, its number of decisions, their
+     * time and their iterations
+     */
+    private static long[] playTurn(long dealSeed, int iterations, double pause,
+            boolean pondering, MctsPlayer[] measured) {
+        Random dealRng = new Random(dealSeed);
+        List<Card> deck = new ArrayList<>();
+        for (int i = 0; i < Jass.TOTAL_CARDS; ++i)
+            deck.add(CardSet.ALL_CARDS.get(i));
+        Collections.shuffle(deck, dealRng);
+
+        Player[] players = new Player[PlayerId.COUNT];
+        CardSet[] hands = new CardSet[PlayerId.COUNT];
+        for (PlayerId id : PlayerId.ALL) {
+            int i = id.ordinal();
+            MctsPlayer player = new MctsPlayer(id, dealRng.nextLong(), iterations).withTreeReuse();
+            if (i == 0)
+                player = measured[0] = pondering ? player.withPondering() : player;
+            players[i] = i == 0 ? player : new PacedPlayer(player, pause);
+            hands[i] = CardSet.of(deck.subList(i * Jass.HAND_SIZE, (i + 1) * Jass.HAND_SIZE));
+        }
+
+        long[] result = new long[4];
+        TurnState state = TurnState.initial(Color.ALL.get(dealRng.nextInt(Color.COUNT)),
+                Score.INITIAL, PlayerId.ALL.get(dealRng.nextInt(PlayerId.COUNT)));
+        for (Player player : players)
+            player.setTrump(state.trick().trump());
+        while (!state.isTerminal()) {
+            int p = state.nextPlayer().ordinal();
+            long t0 = System.nanoTime();
+            Card c = players[p].cardToPlay(state, hands[p]);
+            if (p == 0) {
+                result[2] += System.nanoTime() - t0;
+                ++result[1];
+                result[3] += measured[0].lastSearchIterations();
+            }
+            hands[p] = hands[p].remove(c);
+            state = state.withNewCardPlayed(c);
+            for (Player player : players)
+                player.updateTrick(state.trick());
+            if (state.trick().isFull())
+                state = state.withTrickCollected();
+        }
+        result[0] = state.score().turnPoints(TeamId.TEAM_1);
+        return result;
+    }
+}
@@ -0,0 +1,75 @@
+package ch.epfl.javass.jass;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.epfl.javass.jass.Card.Color;
+
+/**
+ * Random completions of a whole turn, with the packed rollout of MctsRollout
+ * (choosing the cards uniformly or with the heuristic SAVE_TRUMPS policy)
+ * and with the former rollout creating a TurnState per card. Run with
+ * "-prof gc" to see the allocation rate of both.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RolloutBenchmark {
+    private final static PlayerId OWN_ID = PlayerId.PLAYER_2;
+
+    private TurnState state;
+    private long hand;
+    private SplittableRandom rng;
+
+    @Setup
+    public void setUp() {
+        state = TurnState.initial(Color.HEART, Score.INITIAL, PlayerId.PLAYER_1);
+        hand = CardSet.ALL_CARDS.subsetOfColor(Color.SPADE).packed();
+        rng = new SplittableRandom(2019);
+    }
+
+    @Benchmark
+    public long packedRollout() {
+        return MctsRollout.randomTurnScore(state.packedScore(), state.packedUnplayedCards(),
+                state.packedTrick(), hand, OWN_ID, rng);
+    }
+
+    @Benchmark
+    public long heuristicRollout() {
+        return MctsRollout.turnScore(state.packedScore(), state.packedUnplayedCards(),
+                state.packedTrick(), hand, OWN_ID, RolloutPolicy.SAVE_TRUMPS, rng);
+    }
+
+    @Benchmark
+    public long turnStateRollout() {
+        TurnState s = state;
+        while (!s.isTerminal()) {
+            s = s.withNewCardPlayedAndTrickCollected(Card.ofPacked(
+                    PackedCardSet.get(playableCards(s, hand),
+                            rng.nextInt(PackedCardSet.size(playableCards(s, hand))))));
+        }
+        return s.packedScore();
+    }
+
+    private static long playableCards(TurnState state, long hand) {
+        return (state.nextPlayer().equals(OWN_ID)
+                ? PackedTrick.playableCards(state.packedTrick(),
+                        PackedCardSet.intersection(hand, state.packedUnplayedCards()))
+                : PackedTrick.playableCards(state.packedTrick(),
+                        PackedCardSet.difference(state.packedUnplayedCards(), hand)));
+    }
+}
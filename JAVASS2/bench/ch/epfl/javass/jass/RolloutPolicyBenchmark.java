@@ -0,0 +1,36 @@
+package ch.epfl.javass.jass;
+
+import java.time.Duration;
+
+/**
+ * Compares MctsPlayers playing their random turns with each heuristic
+ * rollout policy with a plain MctsPlayer, on points won, for the same time
+ * per decision (the heuristic turns being slower, they make fewer
+ * iterations).
+ * 
+ * Arguments (all optional): deals, milliseconds per decision.
+ */
+public final class RolloutPolicyBenchmark {
+    private RolloutPolicyBenchmark() {}
+
+    private static final int MAX_ITERATIONS = 10_000_000;
+
+    public static void main(String[] args) {
+        int deals = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+        Duration budget = Duration.ofMillis(args.length > 1 ? Integer.parseInt(args[1]) : 20);
+
+        String[] names = { "win or discard", "smear", "save trumps" };
+        RolloutPolicy[] policies = { RolloutPolicy.WIN_OR_DISCARD, RolloutPolicy.SMEAR,
+                RolloutPolicy.SAVE_TRUMPS };
+        for (int i = 0; i < policies.length; ++i) {
+            RolloutPolicy policy = policies[i];
+            MctsMatch.Side[] sides = MctsMatch.play(
+                    (id, seed) -> new MctsPlayer(id, seed, MAX_ITERATIONS)
+                            .withRolloutPolicy(policy).withTimeBudget(budget),
+                    (id, seed) -> new MctsPlayer(id, seed, MAX_ITERATIONS)
+                            .withTimeBudget(budget),
+                    deals, 2019);
+            MctsMatch.print(names[i], "random turns", sides, deals);
+        }
+    }
+}
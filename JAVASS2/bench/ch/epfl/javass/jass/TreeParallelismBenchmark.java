@@ -0,0 +1,31 @@
+package ch.epfl.javass.jass;
+
+import java.time.Duration;
+
+/**
+ * Compares the tree-parallel search of MctsPlayer with its sequential search,
+ * on points won, for the same time per decision (the parallel search making
+ * more iterations in that time).
+ * 
+ * Arguments (all optional): deals, milliseconds per decision, threads.
+ */
+public final class TreeParallelismBenchmark {
+    private TreeParallelismBenchmark() {}
+
+    private static final int MAX_ITERATIONS = 10_000_000;
+
+    public static void main(String[] args) {
+        int deals = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        Duration budget = Duration.ofMillis(args.length > 1 ? Integer.parseInt(args[1]) : 20);
+        int threads = args.length > 2 ? Integer.parseInt(args[2])
+                : Runtime.getRuntime().availableProcessors();
+
+        MctsMatch.Side[] sides = MctsMatch.play(
+                (id, seed) -> new MctsPlayer(id, seed, MAX_ITERATIONS)
+                        .withTreeParallelism(threads).withTimeBudget(budget),
+                (id, seed) -> new MctsPlayer(id, seed, MAX_ITERATIONS)
+                        .withTimeBudget(budget),
+                deals, 2019);
+        MctsMatch.print("tree-parallel (" + threads + " threads)", "sequential", sides, deals);
+    }
+}
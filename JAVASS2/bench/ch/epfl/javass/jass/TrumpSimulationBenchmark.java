@@ -0,0 +1,50 @@
+package ch.epfl.javass.jass;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Prints the estimates of the simulated trumps of a few random hands, then
+ * plays whole games between MctsPlayers choosing the trump (and whether to
+ * chibrer) by simulation and MctsPlayers choosing it on the ranks of their
+ * cards, with the same number of iterations per card.
+ * 
+ * Arguments (all optional): deals, iterations, milliseconds per simulation,
+ * threads per player.
+ */
+public final class TrumpSimulationBenchmark {
+    private TrumpSimulationBenchmark() {}
+
+    public static void main(String[] args) {
+        int deals = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        Duration budget = Duration.ofMillis(args.length > 2 ? Long.parseLong(args[2]) : 50);
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+
+        Random rng = new Random(2019);
+        List<Card> deck = new ArrayList<>();
+        for (int i = 0; i < Jass.TOTAL_CARDS; ++i)
+            deck.add(CardSet.ALL_CARDS.get(i));
+        for (int h = 0; h < 3; ++h) {
+            Collections.shuffle(deck, rng);
+            CardSet hand = CardSet.of(deck.subList(0, Jass.HAND_SIZE));
+            MctsPlayer player = new MctsPlayer(PlayerId.PLAYER_1, h, 100_000)
+                    .withRootParallelism(threads).withTrumpSimulation(budget);
+            player.updateHand(hand);
+            long start = System.nanoTime();
+            boolean chibre = player.choseToChibrer();
+            System.out.printf("%s : %s%n  %s in %.1f ms%n", hand, player.lastTrumpEstimates(),
+                    chibre ? "chibre" : player.chooseTrump(hand), (System.nanoTime() - start) / 1e6);
+        }
+
+        Tournament.Result result = new Tournament(
+                (id, seed) -> new MctsPlayer(id, seed, iterations)
+                        .withRootParallelism(threads).withTrumpSimulation(budget),
+                (id, seed) -> new MctsPlayer(id, seed, iterations).withRootParallelism(threads),
+                1).play(deals, 2019);
+        System.out.println("simulated trump against ranked trump : " + result);
+    }
+}
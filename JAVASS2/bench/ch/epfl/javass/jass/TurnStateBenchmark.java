@@ -0,0 +1,81 @@
+package ch.epfl.javass.jass;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.epfl.javass.jass.Card.Color;
+
+/**
+ * PackedScore.withAdditionalTrick and TurnState.withNewCardPlayedAndTrickCollected
+ * on random states of a turn, each with a card its next player can play.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TurnStateBenchmark {
+    private final static int CASES = 1024;
+
+    private final TurnState[] states = new TurnState[CASES];
+    private final Card[] cards = new Card[CASES];
+    private final long[] scores = new long[CASES];
+    private final TeamId[] teams = new TeamId[CASES];
+    private final int[] points = new int[CASES];
+
+    @Setup
+    public void setUp() {
+        SplittableRandom rng = new SplittableRandom(2019);
+        for (int i = 0; i < CASES; ++i) {
+            TurnState state = TurnState.initial(Color.ALL.get(rng.nextInt(Color.COUNT)),
+                    Score.INITIAL, PlayerId.ALL.get(rng.nextInt(PlayerId.COUNT)));
+            for (int c = rng.nextInt(Jass.TOTAL_CARDS); c > 0; --c)
+                state = state.withNewCardPlayedAndTrickCollected(randomCard(state, rng));
+            states[i] = state;
+            cards[i] = randomCard(state, rng);
+
+            int tricks1 = rng.nextInt(Jass.TRICKS_PER_TURN);
+            int tricks2 = rng.nextInt(Jass.TRICKS_PER_TURN - tricks1);
+            scores[i] = PackedScore.pack(tricks1, rng.nextInt(80), rng.nextInt(1000),
+                    tricks2, rng.nextInt(80), rng.nextInt(1000));
+            teams[i] = TeamId.ALL.get(rng.nextInt(TeamId.COUNT));
+            points[i] = rng.nextInt(40);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CASES)
+    public long withAdditionalTrick() {
+        long r = 0;
+        for (int i = 0; i < CASES; ++i)
+            r ^= PackedScore.withAdditionalTrick(scores[i], teams[i], points[i]);
+        return r;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CASES)
+    public long withNewCardPlayedAndTrickCollected() {
+        long r = 0;
+        for (int i = 0; i < CASES; ++i)
+            r ^= states[i].withNewCardPlayedAndTrickCollected(cards[i]).packedUnplayedCards();
+        return r;
+    }
+
+    private static Card randomCard(TurnState state, SplittableRandom rng) {
+        long playable = PackedTrick.playableCards(state.packedTrick(), state.packedUnplayedCards());
+        return Card.ofPacked(PackedCardSet.randomMember(playable, rng));
+    }
+}
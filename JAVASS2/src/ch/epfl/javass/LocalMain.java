@@ -12,6 +12,7 @@ import java.util.Map;
 import java.util.Random;
 
 import ch.epfl.javass.gui.GraphicalPlayerAdapter;
+import ch.epfl.javass.jass.GameHost;
 import ch.epfl.javass.jass.Jass;
 import ch.epfl.javass.jass.JassGame;
 import ch.epfl.javass.jass.MctsPlayer;
@@ -146,22 +147,19 @@ public final class LocalMain extends Application {
                     }
         }
 
-        Thread gameThread = new Thread(() -> {
-            /*
-             * the first seed in the tab is reserved for the instantiation of
-             * JassGame !
-             */
-            JassGame g = new JassGame(seeds[0], players, playerNames);
-            while (!g.isGameOver()) {
-                try {
-                    Thread.sleep(WAIT_TIME_END_TRICK_IN_MILLIS);
-                } catch (Exception e) {
-                }
-                g.advanceToEndOfNextTrick();
-            }
-        });
-        gameThread.setDaemon(true);
-        gameThread.start();
+        /*
+         * the first seed in the tab is reserved for the instantiation of
+         * JassGame ! The game is played on a daemon thread (a virtual one if
+         * the JVM has them) which waits after each trick, and a failure of
+         * the game or of a player stops the application
+         */
+        JassGame g = new JassGame(seeds[0], players, playerNames);
+        new GameHost().host(g, WAIT_TIME_END_TRICK_IN_MILLIS)
+                .exceptionally(failure -> {
+                    failure.printStackTrace();
+                    System.exit(1);
+                    return null;
+                });
     }
 
     /**************************************************************************/
@@ -0,0 +1,48 @@
+/**
+ * @author tancrede guillou (287334)
+ * @author ouriel sebbagh (287796)
+ */
+
+package ch.epfl.javass;
+
+import ch.epfl.javass.jass.MctsPlayer;
+import ch.epfl.javass.jass.Tournament;
+
+/** class which plays a tournament between two simulated teams, without graphical interface **/
+public final class TournamentMain {
+
+    private static final long DEFAULT_SEED = 0;
+
+    private TournamentMain() {}
+
+    /**
+     * main which plays the tournament and prints its results
+     * 
+     * @param args
+     *            <donnes> <iterations1> <iterations2> [<graine>] [<threads>] :
+     *            the number of deals (each one being played twice, the teams
+     *            being swapped), the number of iterations of the MCTS
+     *            algorithm of each team, the seed of the tournament and the
+     *            number of games played at the same time (by default, the
+     *            number of processors)
+     */
+    public static void main(String[] args) {
+        if (args.length < 3 || args.length > 5) {
+            System.err.println("Use on the console: java ch.epfl.javass.TournamentMain"
+                    + " <deals> <iterations1> <iterations2> [<seed>] [<threads>]");
+            System.exit(1);
+        }
+        int deals = Integer.parseInt(args[0]);
+        int iterations1 = Integer.parseInt(args[1]);
+        int iterations2 = Integer.parseInt(args[2]);
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_SEED;
+        int threads = args.length > 4 ? Integer.parseInt(args[4])
+                : Runtime.getRuntime().availableProcessors();
+
+        Tournament tournament = new Tournament(
+                (id, playerSeed) -> new MctsPlayer(id, playerSeed, iterations1),
+                (id, playerSeed) -> new MctsPlayer(id, playerSeed, iterations2),
+                threads);
+        System.out.println(tournament.play(deals, seed));
+    }
+}
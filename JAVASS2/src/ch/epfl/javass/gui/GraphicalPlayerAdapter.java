@@ -2,7 +2,13 @@ package ch.epfl.javass.gui;
 
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 import ch.epfl.javass.jass.Card;
 import ch.epfl.javass.jass.CardSet;
@@ -34,6 +40,10 @@ public final class GraphicalPlayerAdapter implements Player {
 
     private GraphicalPlayer graphicalPlayer;
     private Player hintPlayer;
+    /* searches the hints in the background, on a single daemon thread, so
+     * that a search only begins once the previous one is over; the hint
+     * player is not thread-safe, so it is only ever called on this thread */
+    private final ExecutorService hintExecutor;
     private final ArrayBlockingQueue<Card> cardQueue;
     private final ArrayBlockingQueue<Color> trumpQueue;
     private final ArrayBlockingQueue<MeldSet> meldSetQueue;
@@ -46,6 +56,9 @@ public final class GraphicalPlayerAdapter implements Player {
     // selected values for the hint player
     private final static int HINT_ITERATIONS = 1_000;
     private final static int HINT_SEED = 10;
+    /* the hint is improved by rounds of HINT_ITERATIONS iterations, at most
+     * this number of times */
+    private final static int HINT_ROUNDS = 50;
 
     /*
      * we define how much time each method wait before putting the default value
@@ -72,6 +85,12 @@ public final class GraphicalPlayerAdapter implements Player {
         trumpQueue = new ArrayBlockingQueue<>(1);
         meldSetQueue = new ArrayBlockingQueue<>(1);
         booleanQueue = new ArrayBlockingQueue<>(1);
+        hintExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "hint");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
     }
 
     /*/
@@ -82,11 +101,12 @@ public final class GraphicalPlayerAdapter implements Player {
     public Card cardToPlay(TurnState state, CardSet hand) {
 
         try {
-            Card hintPlayerCard = hintPlayer.cardToPlay(state, hand);
+            /* the hand is playable at once, the hint comes later */
             Platform.runLater(() -> {
                 handBean.setPlayableCards(state.trick().playableCards(hand));
-                handBean.setHintPlayerCard(hintPlayerCard);
             });
+            AtomicBoolean hintCancelled = new AtomicBoolean(false);
+            CompletableFuture<Card> hint = searchHint(state, hand, hintCancelled);
 
             /*
              * Here we decide that if the player don't select a card within the
@@ -94,7 +114,9 @@ public final class GraphicalPlayerAdapter implements Player {
              */
             Card cardToPlay = cardQueue.poll(MAX_TIME_FOR_PLAYING_A_CARD_IN_S,
                     TimeUnit.SECONDS);
-            if (cardToPlay == null) cardToPlay = hintPlayerCard;
+            /* the search ends with its current round, whose hint is not shown */
+            hintCancelled.set(true);
+            if (cardToPlay == null) cardToPlay = hint.join();
             /*
              * we can click on other cards during the time separating our
              * selection to the next player's one, so we set all the playable
@@ -103,10 +125,13 @@ public final class GraphicalPlayerAdapter implements Player {
              */
             Platform.runLater(() -> {
                 handBean.setPlayableCards(CardSet.EMPTY);
+                handBean.setHintPlayerCard(null);
             });
             return cardToPlay;
         } catch (InterruptedException e) {
-            throw new Error(e);
+            // the thread of the game is told that it has to stop
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
         }
     }
 
@@ -144,7 +169,9 @@ public final class GraphicalPlayerAdapter implements Player {
             }
             return response;
         } catch (InterruptedException e) {
-            throw new Error(e);
+            // the thread of the game is told that it has to stop
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
         }
     }
 
@@ -163,7 +190,7 @@ public final class GraphicalPlayerAdapter implements Player {
 
             Color trump = trumpQueue.poll(MAX_TIME_FOR_CHOOSING_THE_TRUMP_IN_S,
                     TimeUnit.SECONDS);
-            if (trump == null) trump = hintPlayer.chooseTrump(hand);
+            if (trump == null) trump = askHintPlayer(p -> p.chooseTrump(hand));
 
             Platform.runLater(() -> {
                 /*
@@ -174,7 +201,9 @@ public final class GraphicalPlayerAdapter implements Player {
             });
             return trump;
         } catch (InterruptedException e) {
-            throw new Error(e);
+            // the thread of the game is told that it has to stop
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
         }
     }
 
@@ -189,7 +218,12 @@ public final class GraphicalPlayerAdapter implements Player {
         graphicalPlayer = new GraphicalPlayer(ownId, playerNames, scoreBean,
                 trickBean, handBean, cardQueue, trumpQueue, booleanQueue,
                 meldSetQueue);
-        hintPlayer = new MctsPlayer(ownId, HINT_SEED, HINT_ITERATIONS);
+        /*
+         * each round of a hint adds its iterations to the same tree, whose
+         * root follows the cards played as the hint player is told them like
+         * any other player (see updateHand, setTrump and updateTrick)
+         */
+        hintPlayer = new MctsPlayer(ownId, HINT_SEED, HINT_ITERATIONS).withTreeReuse();
         Platform.runLater(() -> {
             graphicalPlayer.createStage().show();
         });
@@ -202,6 +236,7 @@ public final class GraphicalPlayerAdapter implements Player {
      */
     @Override
     public void updateHand(CardSet newHand) {
+        hintExecutor.execute(() -> hintPlayer.updateHand(newHand));
         Platform.runLater(() -> {
             handBean.setHand(newHand);
         });
@@ -213,6 +248,7 @@ public final class GraphicalPlayerAdapter implements Player {
      */
     @Override
     public void setTrump(Color trump) {
+        hintExecutor.execute(() -> hintPlayer.setTrump(trump));
         Platform.runLater(() -> {
             trickBean.setTrump(trump);
         });
@@ -224,6 +260,7 @@ public final class GraphicalPlayerAdapter implements Player {
      */
     @Override
     public void updateTrick(Trick newTrick) {
+        hintExecutor.execute(() -> hintPlayer.updateTrick(newTrick));
         Platform.runLater(() -> {
             trickBean.setTrick(newTrick);
         });
@@ -269,7 +306,7 @@ public final class GraphicalPlayerAdapter implements Player {
                     MAX_TIME_FOR_MAKING_ANNOUNCEMENT_IN_S, TimeUnit.SECONDS);
 
             if (announcePossible == null) {
-                meldSet = hintPlayer.selectMeldSet(hand);
+                meldSet = askHintPlayer(p -> p.selectMeldSet(hand));
             } else {
                 if (!announcePossible) {
                     Thread.sleep(WAIT_TIME_WHEN_NO_ANNOUNCEMENTS);
@@ -282,7 +319,9 @@ public final class GraphicalPlayerAdapter implements Player {
             });
             return meldSet;
         } catch (InterruptedException e) {
-            throw new Error(e);
+            // the thread of the game is told that it has to stop
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
         }
     }
 
@@ -302,11 +341,47 @@ public final class GraphicalPlayerAdapter implements Player {
                 scoreBean.setCanWatchMeldResults(false);
             });
         } catch (InterruptedException e) {
-            e.printStackTrace();
+            // the thread of the game is told that it has to stop
+            Thread.currentThread().interrupt();
         }
     }
     /****************************************************************************************/
 
+    /*
+     * searches the card to play in the background, as long as it is not
+     * cancelled (but at least once) and for at most HINT_ROUNDS rounds, each
+     * one improving the previous one; the hint is shown every time it
+     * changes until the search is cancelled, and the last one is the result
+     * of the search
+     */
+    private CompletableFuture<Card> searchHint(TurnState state, CardSet hand,
+            AtomicBoolean cancelled) {
+        return CompletableFuture.supplyAsync(() -> {
+            Card hint = null;
+            for (int i = 0; i < HINT_ROUNDS && (hint == null || !cancelled.get()); ++i) {
+                Card card = hintPlayer.cardToPlay(state, hand);
+                if (!card.equals(hint)) {
+                    hint = card;
+                    Platform.runLater(() -> {
+                        /* the card may have been played in the meantime */
+                        if (!cancelled.get())
+                            handBean.setHintPlayerCard(card);
+                    });
+                }
+            }
+            return hint;
+        }, hintExecutor);
+    }
+
+    /*
+     * returns the answer of the hint player to the given question, asked on
+     * the thread of the hints once the current search is over
+     */
+    private <T> T askHintPlayer(Function<Player, T> question) {
+        return CompletableFuture.supplyAsync(() -> question.apply(hintPlayer),
+                hintExecutor).join();
+    }
+
     private void setChooserParameters(boolean firstPlayer, boolean askedChoose) {
         trickBean.setChooser(firstPlayer);
         trickBean.setIsAskedToChoose(askedChoose);
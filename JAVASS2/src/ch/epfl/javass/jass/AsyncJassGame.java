@@ -0,0 +1,205 @@
+package ch.epfl.javass.jass;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author tancrede guillou (287334)
+ * @author ouriel sebbagh (287796)
+ */
+
+/**
+ * class representing a JASS game played by asynchronous players, whose rules
+ * are the ones of JassGameCore : the game is advanced as far as possible
+ * each time a player answers, by the thread completing his future, and holds
+ * no thread while it waits for him. With the same seed and players answering
+ * the same, it is the same game as JassGame, the players being told the same
+ * things in the same order
+ **/
+public final class AsyncJassGame implements Jass {
+
+    /**
+     * size in bytes of a snapshot of a game (the one of JassGame)
+     */
+    public final static int SNAPSHOT_SIZE = JassGameCore.SNAPSHOT_SIZE;
+
+    /* the answers of the players are given to the game while holding the
+     * lock of this object, so that it can be snapshotted while it is played */
+    private final JassGameCore game;
+    private final Map<PlayerId, AsyncPlayer> players;
+    private final CompletableFuture<TeamId> winningTeam = new CompletableFuture<>();
+    private boolean started = false;
+
+    /** public constructor **/
+    public AsyncJassGame(long rngSeed, Map<PlayerId, AsyncPlayer> players,
+            Map<PlayerId, String> playerNames) {
+        this(rngSeed, players, playerNames, null);
+    }
+
+    /**
+     * public constructor of a game whose events are written to the given log
+     * (which is neither flushed nor closed by the game)
+     */
+    public AsyncJassGame(long rngSeed, Map<PlayerId, AsyncPlayer> players,
+            Map<PlayerId, String> playerNames, GameLogWriter log) {
+        this(new JassGameCore(rngSeed, players, playerNames, log), players);
+    }
+
+    private AsyncJassGame(JassGameCore game, Map<PlayerId, AsyncPlayer> players) {
+        this.game = game;
+        this.players = Collections.unmodifiableMap(new EnumMap<>(players));
+    }
+
+    /**
+     * returns the game whose snapshot, written by the method snapshot (of
+     * this class or of JassGame), is at the position of the given buffer,
+     * without log (see the next method)
+     *
+     * @param buffer
+     *            the buffer containing the snapshot
+     * @param players
+     *            the players of the game
+     * @param playerNames
+     *            the names of the players
+     * @return the game in the state of the snapshot, to be started by play
+     * @throws IllegalArgumentException
+     *             if the buffer does not contain a valid snapshot
+     */
+    public static AsyncJassGame restore(ByteBuffer buffer,
+            Map<PlayerId, AsyncPlayer> players, Map<PlayerId, String> playerNames) {
+        return restore(buffer, players, playerNames, null);
+    }
+
+    /**
+     * returns the game whose snapshot, written by the method snapshot (of
+     * this class or of JassGame), is at the position of the given buffer, its
+     * next events being written to the given log (or not logged if it is
+     * null). The given players are told their identity and, if the game has
+     * begun, their hand, the trump if it is chosen, and the score and the
+     * trick if the snapshot was taken during it; the answer awaited when the
+     * snapshot was taken is asked again when the game is started by play
+     *
+     * @param buffer
+     *            the buffer containing the snapshot
+     * @param players
+     *            the players of the game
+     * @param playerNames
+     *            the names of the players
+     * @param log
+     *            the log of the events of the restored game, or null
+     * @return the game in the state of the snapshot, to be started by play
+     * @throws IllegalArgumentException
+     *             if the buffer does not contain a valid snapshot
+     */
+    public static AsyncJassGame restore(ByteBuffer buffer,
+            Map<PlayerId, AsyncPlayer> players, Map<PlayerId, String> playerNames,
+            GameLogWriter log) {
+        return new AsyncJassGame(JassGameCore.restore(buffer, players, playerNames, log),
+                players);
+    }
+
+    /**
+     * starts the game, which then goes on each time a player answers, and
+     * returns a future completed with the winning team at the end of the
+     * game, or exceptionally if a player failed to answer
+     *
+     * @return a future completed with the winning team
+     * @throws IllegalStateException
+     *             if the game was already started
+     */
+    public synchronized CompletableFuture<TeamId> play() {
+        if (started)
+            throw new IllegalStateException();
+        started = true;
+
+        try {
+            resume(request());
+        } catch (RuntimeException e) {
+            winningTeam.completeExceptionally(e);
+        }
+        return winningTeam;
+    }
+
+    /**
+     * returns the current score of the game
+     *
+     * @return the current score of the game
+     */
+    public synchronized Score score() {
+        return game.score();
+    }
+
+    /**
+     * writes a snapshot of the state of the game at the position of the given
+     * buffer, in exactly SNAPSHOT_SIZE bytes, in the format of JassGame (see
+     * JassGame#snapshot) with the answer awaited by the game; it can be taken
+     * while the game is played, the answers given meanwhile waiting for it
+     *
+     * @param buffer
+     *            the buffer receiving the snapshot
+     * @throws IllegalArgumentException
+     *             if the buffer has less than SNAPSHOT_SIZE remaining bytes
+     */
+    public synchronized void snapshot(ByteBuffer buffer) {
+        game.snapshot(buffer);
+    }
+
+    /***************************** private methods useful to clarify the code ******************************/
+
+    /*
+     * advances the game with the given answer and the ones already given,
+     * until one is awaited or the game is over (the answer being null then);
+     * the loop avoids a recursion as deep as the game when the players answer
+     * at once
+     */
+    private void resume(CompletableFuture<?> answer) {
+        synchronized (this) {
+            try {
+                while (answer != null && answer.isDone() && !answer.isCompletedExceptionally()) {
+                    game.advance(answer.join());
+                    answer = request();
+                }
+                if (answer == null) {
+                    winningTeam.complete(game.winningTeam());
+                    return;
+                }
+            } catch (RuntimeException e) {
+                winningTeam.completeExceptionally(e);
+                return;
+            }
+        }
+        answer.whenComplete((value, error) -> {
+            if (error != null)
+                winningTeam.completeExceptionally(error);
+            else
+                resume(CompletableFuture.completedFuture(value));
+        });
+    }
+
+    /*
+     * returns the future of the answer awaited by the game, after beginning
+     * it or collecting its full trick if needed, or null if the game is over
+     */
+    private CompletableFuture<?> request() {
+        if (game.pendingAnswer() == null && !game.isGameOver())
+            game.advance();
+        if (game.pendingAnswer() == null)
+            return null;
+
+        PlayerId p = game.pendingPlayer();
+        AsyncPlayer player = players.get(p);
+        switch (game.pendingAnswer()) {
+        case CHIBRE:
+            return player.choseToChibrer();
+        case TRUMP:
+            return player.chooseTrump(game.handOf(p));
+        case MELDS:
+            return player.selectMeldSet(game.handOf(p));
+        default:
+            return player.cardToPlay(game.turnState(), game.handOf(p));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package ch.epfl.javass.jass;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import ch.epfl.javass.jass.Card.Color;
+
+/**
+ * @author tancrede guillou (287334)
+ * @author ouriel sebbagh (287796)
+ */
+
+/**
+ * Interface representing a player answering asynchronously : the methods
+ * asking the player to choose return at once a future completed with his
+ * choice, so that a game waiting for him (see AsyncJassGame) does not block
+ * any thread; the methods informing the player must not block either
+ **/
+public interface AsyncPlayer {
+
+    /**
+     * returns a future completed with the card that the player wants to
+     * play, knowing the actual state of the turn and the cards in his hand
+     *
+     * @param state
+     *            the actual state of the turn
+     * @param hand
+     *            the actual hand of the player
+     * @return a future completed with the card that the player wants to play
+     */
+    CompletableFuture<Card> cardToPlay(TurnState state, CardSet hand);
+
+    /**
+     * returns a future completed with the trump chosen by the player
+     *
+     * @param hand
+     *            actual hand of the player
+     * @return a future completed with the trump chosen by the player
+     */
+    CompletableFuture<Color> chooseTrump(CardSet hand);
+
+    /**
+     * returns a future completed with the meldSet announced by the player (by
+     * default the best one of his hand)
+     *
+     * @param hand
+     *            actual hand of the player
+     * @return a future completed with the selected meldSet
+     */
+    default CompletableFuture<MeldSet> selectMeldSet(CardSet hand) {
+        return CompletableFuture.completedFuture(MeldSet.best(hand));
+    }
+
+    /**
+     * returns a future completed with true if the player wants to chibrer (by
+     * default false)
+     *
+     * @return a future completed with true if the player wants to chibrer
+     */
+    default CompletableFuture<Boolean> choseToChibrer() {
+        return CompletableFuture.completedFuture(false);
+    }
+
+    /**
+     * see Player#setPlayers
+     *
+     * @param ownId
+     * @param playerNames
+     */
+    default void setPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {}
+
+    /**
+     * see Player#updateHand
+     *
+     * @param newHand
+     */
+    default void updateHand(CardSet newHand) {}
+
+    /**
+     * see Player#setTrump
+     *
+     * @param trump
+     */
+    default void setTrump(Color trump) {}
+
+    /**
+     * see Player#updateTrick
+     *
+     * @param newTrick
+     */
+    default void updateTrick(Trick newTrick) {}
+
+    /**
+     * see Player#updateScore
+     *
+     * @param score
+     */
+    default void updateScore(Score score) {}
+
+    /**
+     * see Player#setWinningTeam
+     *
+     * @param winningTeam
+     */
+    default void setWinningTeam(TeamId winningTeam) {}
+
+    /**
+     * see Player#setWinningPlayerOfMelds
+     *
+     * @param winningPlayer
+     * @param meldset
+     */
+    default void setWinningPlayerOfMelds(PlayerId winningPlayer, MeldSet meldset) {}
+
+    /**
+     * returns an asynchronous player calling the methods of the given
+     * player directly, whose futures are thus already completed; it suits
+     * the players which do not wait for anything, like MctsPlayer
+     *
+     * @param player
+     *            the synchronous player
+     * @return the asynchronous player calling the given player
+     */
+    static AsyncPlayer of(Player player) {
+        return new AsyncPlayerAdapter(player, null);
+    }
+
+    /**
+     * returns an asynchronous player calling all the methods of the given
+     * player, in order, on the given executor; it suits the players which
+     * wait for a human or for the network, a thread of the executor being
+     * only used while they wait
+     *
+     * @param player
+     *            the synchronous player
+     * @param executor
+     *            the executor calling the methods of the player
+     * @return the asynchronous player calling the given player
+     */
+    static AsyncPlayer of(Player player, Executor executor) {
+        return new AsyncPlayerAdapter(player, executor);
+    }
+}
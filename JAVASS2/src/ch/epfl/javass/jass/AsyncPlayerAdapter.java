@@ -0,0 +1,169 @@
+package ch.epfl.javass.jass;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import ch.epfl.javass.jass.Card.Color;
+
+/**
+ * @author tancrede guillou (287334)
+ * @author ouriel sebbagh (287796)
+ */
+
+/**
+ * Class adapting a synchronous player into an asynchronous one, calling its
+ * methods either directly or one after the other on an executor
+ **/
+final class AsyncPlayerAdapter implements AsyncPlayer {
+
+    private final Player player;
+    private final Executor executor;
+    /* completed when the last method called on the executor returns or
+     * fails (a failed call does not make the next ones fail) */
+    private CompletableFuture<?> last = CompletableFuture.completedFuture(null);
+
+    /**
+     * creates an adapter of the given player
+     *
+     * @param player
+     *            the synchronous player
+     * @param executor
+     *            the executor calling the methods of the player, or null if
+     *            they are called directly
+     */
+    AsyncPlayerAdapter(Player player, Executor executor) {
+        this.player = player;
+        this.executor = executor;
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see ch.epfl.javass.jass.AsyncPlayer#cardToPlay(ch.epfl.javass.jass.TurnState, ch.epfl.javass.jass.CardSet)
+     */
+    @Override
+    public CompletableFuture<Card> cardToPlay(TurnState state, CardSet hand) {
+        return call(() -> player.cardToPlay(state, hand));
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see ch.epfl.javass.jass.AsyncPlayer#chooseTrump(ch.epfl.javass.jass.CardSet)
+     */
+    @Override
+    public CompletableFuture<Color> chooseTrump(CardSet hand) {
+        return call(() -> player.chooseTrump(hand));
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see ch.epfl.javass.jass.AsyncPlayer#selectMeldSet(ch.epfl.javass.jass.CardSet)
+     */
+    @Override
+    public CompletableFuture<MeldSet> selectMeldSet(CardSet hand) {
+        return call(() -> player.selectMeldSet(hand));
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see ch.epfl.javass.jass.AsyncPlayer#choseToChibrer()
+     */
+    @Override
+    public CompletableFuture<Boolean> choseToChibrer() {
+        return call(player::choseToChibrer);
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see ch.epfl.javass.jass.AsyncPlayer#setPlayers(ch.epfl.javass.jass.PlayerId, java.util.Map)
+     */
+    @Override
+    public void setPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+        run(() -> player.setPlayers(ownId, playerNames));
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see ch.epfl.javass.jass.AsyncPlayer#updateHand(ch.epfl.javass.jass.CardSet)
+     */
+    @Override
+    public void updateHand(CardSet newHand) {
+        run(() -> player.updateHand(newHand));
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see ch.epfl.javass.jass.AsyncPlayer#setTrump(ch.epfl.javass.jass.Card.Color)
+     */
+    @Override
+    public void setTrump(Color trump) {
+        run(() -> player.setTrump(trump));
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see ch.epfl.javass.jass.AsyncPlayer#updateTrick(ch.epfl.javass.jass.Trick)
+     */
+    @Override
+    public void updateTrick(Trick newTrick) {
+        run(() -> player.updateTrick(newTrick));
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see ch.epfl.javass.jass.AsyncPlayer#updateScore(ch.epfl.javass.jass.Score)
+     */
+    @Override
+    public void updateScore(Score score) {
+        run(() -> player.updateScore(score));
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see ch.epfl.javass.jass.AsyncPlayer#setWinningTeam(ch.epfl.javass.jass.TeamId)
+     */
+    @Override
+    public void setWinningTeam(TeamId winningTeam) {
+        run(() -> player.setWinningTeam(winningTeam));
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see ch.epfl.javass.jass.AsyncPlayer#setWinningPlayerOfMelds(ch.epfl.javass.jass.PlayerId, ch.epfl.javass.jass.MeldSet)
+     */
+    @Override
+    public void setWinningPlayerOfMelds(PlayerId winningPlayer, MeldSet meldset) {
+        run(() -> player.setWinningPlayerOfMelds(winningPlayer, meldset));
+    }
+
+    /***************************** private methods useful to clarify the code ******************************/
+
+    /*
+     * calls the given method of the player directly, or on the executor
+     * once the methods called before have returned
+     */
+    private <T> CompletableFuture<T> call(Supplier<T> method) {
+        if (executor == null) {
+            try {
+                return CompletableFuture.completedFuture(method.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        CompletableFuture<T> result = last.thenApplyAsync(ignored -> method.get(), executor);
+        last = result.handle((value, error) -> null);
+        return result;
+    }
+
+    private void run(Runnable method) {
+        if (executor == null) {
+            method.run();
+            return;
+        }
+        call(() -> {
+            method.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,244 @@
+package ch.epfl.javass.jass;
+
+import java.util.SplittableRandom;
+
+import ch.epfl.javass.jass.Card.Color;
+import ch.epfl.javass.jass.Card.Rank;
+
+/**
+ * @author tancrede guillou (287334)
+ * @author ouriel sebbagh (287796)
+ */
+
+/**
+ * Class representing what a player can deduce, during a turn, about the
+ * hands of the other players: the cards they may still have (a player who
+ * does not follow the base color of a trick has no card of this color left,
+ * except maybe the jack of trump) and the cards they are known to have (the
+ * cards of the winning melds); it deals the unplayed cards in a way
+ * consistent with these beliefs
+ **/
+final class BeliefTracker {
+
+    /* number of random deals tried before ignoring the beliefs */
+    private final static int DEAL_ATTEMPTS = 8;
+
+    private final long[] possibleCards = new long[PlayerId.COUNT];
+    private final long[] knownCards = new long[PlayerId.COUNT];
+
+    /** creates a tracker knowing nothing **/
+    BeliefTracker() {
+        newTurn();
+    }
+
+    /**
+     * forgets everything, at the beginning of a turn
+     */
+    void newTurn() {
+        for (int p = 0; p < PlayerId.COUNT; ++p) {
+            possibleCards[p] = PackedCardSet.ALL_CARDS;
+            knownCards[p] = PackedCardSet.EMPTY;
+        }
+    }
+
+    /**
+     * takes into account the last card of the given trick, played by its
+     * player
+     *
+     * @param pkTrick
+     *            the packed trick, not empty
+     */
+    void cardPlayed(int pkTrick) {
+        assert PackedTrick.isValid(pkTrick) && !PackedTrick.isEmpty(pkTrick);
+
+        int index = PackedTrick.size(pkTrick) - 1;
+        int pkCard = PackedTrick.card(pkTrick, index);
+        for (int p = 0; p < PlayerId.COUNT; ++p) {
+            possibleCards[p] = PackedCardSet.remove(possibleCards[p], pkCard);
+            knownCards[p] = PackedCardSet.remove(knownCards[p], pkCard);
+        }
+        if (index == 0)
+            return;
+
+        int p = PackedTrick.player(pkTrick, index).ordinal();
+        Color base = PackedTrick.baseColor(pkTrick);
+        Color trump = PackedTrick.trump(pkTrick);
+        Color color = PackedCard.color(pkCard);
+        if (color == base)
+            return;
+
+        if (base == trump) {
+            /* no player is obliged to play the jack of trump */
+            long trumpsButJack = PackedCardSet.remove(
+                    PackedCardSet.subsetOfColor(PackedCardSet.ALL_CARDS, trump),
+                    PackedCard.pack(trump, Rank.JACK));
+            possibleCards[p] = PackedCardSet.difference(possibleCards[p], trumpsButJack);
+        } else if (color != trump) {
+            /* a player may always cut, only a discard shows a void color */
+            possibleCards[p] = PackedCardSet.difference(possibleCards[p],
+                    PackedCardSet.subsetOfColor(PackedCardSet.ALL_CARDS, base));
+        }
+    }
+
+    /**
+     * takes into account the melds of the given player, whose cards he has
+     * (if they were not played yet)
+     *
+     * @param player
+     *            the player having announced the melds
+     * @param melds
+     *            the melds
+     */
+    void meldsAnnounced(PlayerId player, MeldSet melds) {
+        int p = player.ordinal();
+        for (CardSet cards : melds.getCardSets()) {
+            knownCards[p] = PackedCardSet.union(knownCards[p], cards.packed());
+        }
+        knownCards[p] = PackedCardSet.intersection(knownCards[p], possibleCards[p]);
+    }
+
+    /**
+     * returns the packed set of the cards the given player may have, i.e
+     * the cards of the colors he may still have, except the ones known to
+     * be in the hand of another player
+     *
+     * @param player
+     *            the player
+     * @return the cards the player may have
+     */
+    long possibleCards(PlayerId player) {
+        long cards = possibleCards[player.ordinal()];
+        for (int p = 0; p < PlayerId.COUNT; ++p) {
+            if (p != player.ordinal())
+                cards = PackedCardSet.difference(cards, knownCards[p]);
+        }
+        return cards;
+    }
+
+    /**
+     * returns the packed set of the cards the given player is known to have,
+     * or had before playing them
+     *
+     * @param player
+     *            the player
+     * @return the cards the player is known to have
+     */
+    long knownCards(PlayerId player) {
+        return knownCards[player.ordinal()];
+    }
+
+    /**
+     * deals randomly the given unplayed cards between the players, the given
+     * player getting the cards of his hand, so that each player gets as many
+     * cards as he still has in the state of the given trick and, if possible,
+     * his known cards and no card he cannot have (the beliefs are ignored if
+     * no consistent deal was found after a few attempts, which can happen
+     * in the states of the tree of the simulated player)
+     *
+     * @param pkUnplayedCards
+     *            the packed unplayed cards
+     * @param hand
+     *            the packed hand of the given player
+     * @param ownId
+     *            the identity of the player whose hand is known
+     * @param pkTrick
+     *            the packed trick, not full
+     * @param rng
+     *            the random generator used to deal
+     * @param hands
+     *            the array receiving the packed hands, indexed by the ordinal
+     *            of the players
+     */
+    void deal(long pkUnplayedCards, long hand, PlayerId ownId, int pkTrick,
+            SplittableRandom rng, long[] hands) {
+        for (int attempt = 0; attempt < DEAL_ATTEMPTS; ++attempt) {
+            if (tryToDeal(pkUnplayedCards, hand, ownId, pkTrick, rng, hands, true))
+                return;
+        }
+        boolean dealt = tryToDeal(pkUnplayedCards, hand, ownId, pkTrick, rng, hands, false);
+        assert dealt;
+    }
+
+    /***************************** private methods useful to clarify the code ******************************/
+
+    /*
+     * deals the cards, the most constrained ones first, each card going to
+     * one of the players who can have it with a probability proportional to
+     * the number of cards he still lacks; returns false if the known cards of
+     * a player are too many or if a card could not be given to anybody
+     */
+    private boolean tryToDeal(long pkUnplayedCards, long hand, PlayerId ownId,
+            int pkTrick, SplittableRandom rng, long[] hands, boolean withBeliefs) {
+        long remaining = PackedCardSet.difference(pkUnplayedCards, hand);
+        for (int p = 0; p < PlayerId.COUNT; ++p) {
+            hands[p] = (p == ownId.ordinal()
+                    ? PackedCardSet.intersection(hand, pkUnplayedCards)
+                    : withBeliefs ? PackedCardSet.intersection(knownCards[p], remaining)
+                            : PackedCardSet.EMPTY);
+        }
+        for (int p = 0; p < PlayerId.COUNT; ++p) {
+            if (missingCards(p, pkTrick, hands) < 0)
+                return false;
+            remaining = PackedCardSet.difference(remaining, hands[p]);
+        }
+
+        for (int holders = 0; holders < PlayerId.COUNT; ++holders) {
+            long cards = remaining;
+            while (cards != PackedCardSet.EMPTY) {
+                int pkCard = Long.numberOfTrailingZeros(cards);
+                cards = PackedCardSet.remove(cards, pkCard);
+                if (possibleHolders(pkCard, ownId, withBeliefs) != holders)
+                    continue;
+
+                int slots = 0;
+                for (int p = 0; p < PlayerId.COUNT; ++p) {
+                    if (canReceive(p, pkCard, ownId, pkTrick, hands, withBeliefs))
+                        slots += missingCards(p, pkTrick, hands);
+                }
+                if (slots == 0)
+                    return false;
+                int slot = rng.nextInt(slots);
+                for (int p = 0; p < PlayerId.COUNT; ++p) {
+                    if (canReceive(p, pkCard, ownId, pkTrick, hands, withBeliefs)) {
+                        slot -= missingCards(p, pkTrick, hands);
+                        if (slot < 0) {
+                            hands[p] = PackedCardSet.add(hands[p], pkCard);
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private int possibleHolders(int pkCard, PlayerId ownId, boolean withBeliefs) {
+        int holders = 0;
+        for (int p = 0; p < PlayerId.COUNT; ++p) {
+            if (p != ownId.ordinal()
+                    && (!withBeliefs || PackedCardSet.contains(possibleCards[p], pkCard)))
+                ++holders;
+        }
+        return holders;
+    }
+
+    private boolean canReceive(int p, int pkCard, PlayerId ownId, int pkTrick,
+            long[] hands, boolean withBeliefs) {
+        return p != ownId.ordinal()
+                && (!withBeliefs || PackedCardSet.contains(possibleCards[p], pkCard))
+                && missingCards(p, pkTrick, hands) > 0;
+    }
+
+    /*
+     * returns the number of cards the given player still has in the state
+     * of the given trick, minus the ones already dealt to him
+     */
+    private static int missingCards(int p, int pkTrick, long[] hands) {
+        int cards = Jass.HAND_SIZE - PackedTrick.index(pkTrick);
+        for (int i = 0; i < PackedTrick.size(pkTrick); ++i) {
+            if (PackedTrick.player(pkTrick, i).ordinal() == p)
+                --cards;
+        }
+        return cards - PackedCardSet.size(hands[p]);
+    }
+}
@@ -17,6 +17,10 @@ public final class Card {
         this.packedRepresentation = packedRepresentation;
     }
 
+    /* the 36 cards, indexed by their packed representation (null if it is
+     * invalid), so that getting a card never allocates */
+    private final static Card[] CARDS = createCards();
+
     /**
      * @param c : color of the card
      * 
@@ -25,7 +29,7 @@ public final class Card {
      * @return the card of given color and rank
      */
     public static Card of(Color c, Rank r) {
-        return new Card(PackedCard.pack(c, r));
+        return CARDS[PackedCard.pack(c, r)];
     }
 
     /**
@@ -36,7 +40,7 @@ public final class Card {
     public static Card ofPacked(int packed) throws IllegalArgumentException {
         Preconditions.checkArgument(PackedCard.isValid(packed));
 
-        return new Card(packed);
+        return CARDS[packed];
     }
 
     /**
@@ -107,6 +111,15 @@ public final class Card {
         return PackedCard.toString(packedRepresentation);
     }
 
+    private static Card[] createCards() {
+        Card[] cards = new Card[PackedCard.INVALID + 1];
+        for (int packed = 0; packed < cards.length; ++packed) {
+            if (PackedCard.isValid(packed))
+                cards[packed] = new Card(packed);
+        }
+        return cards;
+    }
+
 
     /** type Color represents the color of a given card **/
     public enum Color { 
@@ -0,0 +1,76 @@
+package ch.epfl.javass.jass;
+
+import java.util.Random;
+
+/**
+ * @author tancrede guillou (287334)
+ * @author ouriel sebbagh (287796)
+ */
+
+/**
+ * Class representing a random generator giving exactly the same numbers as
+ * java.util.Random (whose linear congruential algorithm is part of its
+ * specification), but whose 48 bits state can be read and set, so that a
+ * game can be checkpointed; it is not thread safe
+ **/
+final class CheckpointableRandom extends Random {
+
+    private static final long serialVersionUID = 1L;
+
+    private final static long MULTIPLIER = 0x5DEECE66DL;
+    private final static long ADDEND = 0xBL;
+    private final static long MASK = (1L << 48) - 1;
+
+    /* set by setSeed, called by the constructor of Random */
+    private long state;
+
+    /**
+     * creates a generator with the given seed
+     *
+     * @param seed
+     *            the seed, as given to the constructor of java.util.Random
+     */
+    CheckpointableRandom(long seed) {
+        super(seed);
+    }
+
+    /**
+     * returns the state of the generator
+     *
+     * @return the state of the generator (48 bits)
+     */
+    long state() {
+        return state;
+    }
+
+    /**
+     * sets the state of the generator, the next numbers being the ones the
+     * generator gave after its state was read
+     *
+     * @param state
+     *            a state given by the method state
+     */
+    void setState(long state) {
+        this.state = state & MASK;
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see java.util.Random#setSeed(long)
+     */
+    @Override
+    public synchronized void setSeed(long seed) {
+        super.setSeed(seed);
+        state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see java.util.Random#next(int)
+     */
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+}
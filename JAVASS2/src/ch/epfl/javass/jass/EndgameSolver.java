@@ -0,0 +1,266 @@
+package ch.epfl.javass.jass;
+
+import ch.epfl.javass.jass.Card.Color;
+import ch.epfl.javass.jass.Card.Rank;
+
+/**
+ * @author tancrede guillou (287334)
+ * @author ouriel sebbagh (287796)
+ */
+
+/**
+ * Class solving exactly the end of a turn whose hands are all known : an
+ * alpha-beta search over the packed components of the states, the first
+ * team maximizing and the second one minimizing the difference between
+ * their points; the cards of a hand which cannot lead to different futures
+ * (see PackedTrick.distinctCards) are tried only once, the most promising
+ * cards first, and the states already solved are found in a transposition
+ * table. A solver is not thread-safe, but can solve any number of
+ * positions.
+ **/
+final class EndgameSolver {
+
+    /*
+     * the outcome of a position is what its remaining tricks bring to each
+     * team, packed in an int : the points of the first team on bits 0 to 8,
+     * of the second one on bits 9 to 17, the tricks of the first team on bits
+     * 18 to 21 and of the second one on bits 22 to 25; in the table, the
+     * bits 26 and 27 tell if it is exact or a bound
+     */
+    private final static int POINTS_BITS = 9;
+    private final static int POINTS_MASK = (1 << POINTS_BITS) - 1;
+    private final static int TRICKS_START = 2 * POINTS_BITS;
+    private final static int TRICKS_BITS = 4;
+    private final static int TRICKS_MASK = (1 << TRICKS_BITS) - 1;
+    private final static int BOUND_START = TRICKS_START + 2 * TRICKS_BITS;
+    private final static int OUTCOME_MASK = (1 << BOUND_START) - 1;
+    private final static int EXACT = 0, LOWER = 1, UPPER = 2;
+
+    /* strength of each card in its color and its points, for each trump */
+    private final static int[][] STRENGTH = new int[Color.COUNT][PackedCard.INVALID + 1];
+    private final static int[][] POINTS = new int[Color.COUNT][PackedCard.INVALID + 1];
+
+    static {
+        for (Color trump : Color.ALL) {
+            for (Color color : Color.ALL) {
+                for (Rank rank : Rank.ALL) {
+                    int pkCard = PackedCard.pack(color, rank);
+                    STRENGTH[trump.ordinal()][pkCard] = (color == trump
+                            ? rank.trumpOrdinal() : rank.ordinal());
+                    POINTS[trump.ordinal()][pkCard] = PackedCard.points(trump, pkCard);
+                }
+            }
+        }
+    }
+
+    private final TranspositionTable table;
+    /* the cards to try in the states of each number of unplayed cards, the
+     * states of a search having less and less of them */
+    private final int[][] moves = new int[Jass.TOTAL_CARDS + 1][Jass.HAND_SIZE];
+    private final int[] priorities = new int[Jass.HAND_SIZE];
+    private final long[] hands = new long[PlayerId.COUNT];
+    private long nodes = 0;
+
+    /**
+     * creates a solver whose transposition table uses at most the given
+     * number of bytes
+     *
+     * @param maxBytes
+     *            the maximum number of bytes of the transposition table
+     * @throws IllegalArgumentException
+     *             if the table cannot hold a few entries
+     */
+    EndgameSolver(long maxBytes) {
+        table = new TranspositionTable(maxBytes);
+    }
+
+    /**
+     * returns the final score of the turn of the given state when every
+     * player plays the best card knowing the hands of all the players
+     *
+     * @param pkScore
+     *            the packed score of the state
+     * @param pkTrick
+     *            the packed trick of the state, not full (or invalid if the
+     *            turn is over)
+     * @param pkHands
+     *            the packed hands of the players, indexed by their ordinal,
+     *            whose union is the set of unplayed cards
+     * @return the final packed score of the turn
+     */
+    long solve(long pkScore, int pkTrick, long[] pkHands) {
+        assert PackedScore.isValid(pkScore) && pkHands.length == PlayerId.COUNT;
+        if (pkTrick == PackedTrick.INVALID)
+            return pkScore;
+
+        long unplayed = PackedCardSet.EMPTY;
+        for (int p = 0; p < PlayerId.COUNT; ++p) {
+            hands[p] = pkHands[p];
+            unplayed = PackedCardSet.union(unplayed, pkHands[p]);
+        }
+        /* the hands do not change during a search, only the unplayed cards */
+        table.clear();
+        long key = Zobrist.cards(unplayed) ^ Zobrist.trick(pkTrick);
+        for (TeamId t : TeamId.ALL) {
+            if (PackedScore.turnTricks(pkScore, t) > 0)
+                key ^= Zobrist.team(t);
+        }
+
+        int outcome = search(pkScore, unplayed, pkTrick, key,
+                -Jass.MAX_POINTS_PER_TURN - 1, Jass.MAX_POINTS_PER_TURN + 1);
+        return PackedScore.pack(
+                PackedScore.turnTricks(pkScore, TeamId.TEAM_1) + tricks(outcome, TeamId.TEAM_1),
+                PackedScore.turnPoints(pkScore, TeamId.TEAM_1) + points(outcome, TeamId.TEAM_1),
+                PackedScore.gamePoints(pkScore, TeamId.TEAM_1),
+                PackedScore.turnTricks(pkScore, TeamId.TEAM_2) + tricks(outcome, TeamId.TEAM_2),
+                PackedScore.turnPoints(pkScore, TeamId.TEAM_2) + points(outcome, TeamId.TEAM_2),
+                PackedScore.gamePoints(pkScore, TeamId.TEAM_2));
+    }
+
+    /**
+     * returns the number of states searched by the solver since its creation
+     *
+     * @return the number of states searched
+     */
+    long nodes() {
+        return nodes;
+    }
+
+    /***************************** private methods useful to clarify the code ******************************/
+
+    /*
+     * returns the outcome of the given state, exact if its difference is
+     * strictly between alpha and beta, and otherwise a bound on the same side
+     * of the window
+     */
+    private int search(long score, long unplayed, int trick, long key, int alpha, int beta) {
+        if (trick == PackedTrick.INVALID)
+            return 0;
+        ++nodes;
+
+        int entry = table.get(key);
+        if (entry != TranspositionTable.NO_VALUE) {
+            int bound = entry >>> BOUND_START;
+            int outcome = entry & OUTCOME_MASK;
+            int difference = difference(outcome);
+            if (bound == EXACT || (bound == LOWER && difference >= beta)
+                    || (bound == UPPER && difference <= alpha))
+                return outcome;
+        }
+
+        PlayerId player = PackedTrick.player(trick, PackedTrick.size(trick));
+        boolean maximizing = player.team() == TeamId.TEAM_1;
+        long playable = PackedTrick.playableCards(trick,
+                PackedCardSet.intersection(hands[player.ordinal()], unplayed));
+        int depth = PackedCardSet.size(unplayed);
+        int count = orderedMoves(trick, PackedTrick.distinctCards(trick, playable, unplayed),
+                moves[depth]);
+
+        int best = 0;
+        int bestDifference = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        int a = alpha, b = beta;
+        for (int i = 0; i < count && a < b; ++i) {
+            int pkCard = moves[depth][i];
+            long nextScore = score;
+            int nextTrick = PackedTrick.withAddedCard(trick, pkCard);
+            long nextKey = key ^ Zobrist.card(pkCard) ^ Zobrist.trick(trick);
+            if (PackedTrick.isFull(nextTrick)) {
+                TeamId winner = PackedTrick.winningPlayer(nextTrick).team();
+                if (PackedScore.turnTricks(score, winner) == 0)
+                    nextKey ^= Zobrist.team(winner);
+                nextScore = PackedScore.withAdditionalTrick(score, winner,
+                        PackedTrick.points(nextTrick));
+                nextTrick = PackedTrick.nextEmpty(nextTrick);
+            }
+            nextKey ^= Zobrist.trick(nextTrick);
+
+            int gain = gain(score, nextScore);
+            int outcome = gain + search(nextScore, PackedCardSet.remove(unplayed, pkCard),
+                    nextTrick, nextKey, a - difference(gain), b - difference(gain));
+            int difference = difference(outcome);
+            if (maximizing ? difference > bestDifference : difference < bestDifference) {
+                best = outcome;
+                bestDifference = difference;
+            }
+            if (maximizing)
+                a = Math.max(a, difference);
+            else
+                b = Math.min(b, difference);
+        }
+
+        int bound = (bestDifference <= alpha ? UPPER : bestDifference >= beta ? LOWER : EXACT);
+        table.put(key, bound << BOUND_START | best,
+                Math.min(depth, TranspositionTable.MAX_PRIORITY));
+        return best;
+    }
+
+    /*
+     * puts the given cards in the given array, the most promising ones
+     * first, and returns their number : when the trick is led, the cards
+     * with the most points; when the team mate wins the trick, the cards
+     * with the most points; otherwise the weakest cards winning the trick,
+     * and then the cards with the fewest points
+     */
+    private int orderedMoves(int trick, long cards, int[] moves) {
+        int trump = PackedTrick.trump(trick).ordinal();
+        int size = PackedTrick.size(trick);
+        int winningCard = PackedCard.INVALID;
+        boolean partnerWins = false;
+        if (size > 0) {
+            PlayerId winner = PackedTrick.winningPlayer(trick);
+            PlayerId player = PackedTrick.player(trick, size);
+            partnerWins = winner.team() == player.team();
+            winningCard = PackedTrick.winningCard(trick);
+        }
+
+        int count = 0;
+        for (long s = cards; s != PackedCardSet.EMPTY; s &= s - 1) {
+            int pkCard = Long.numberOfTrailingZeros(s);
+            int points = POINTS[trump][pkCard];
+            int strength = STRENGTH[trump][pkCard]
+                    + (PackedCard.color(pkCard).ordinal() == trump ? Rank.COUNT : 0);
+            int priority;
+            if (size == 0 || partnerWins)
+                priority = points * 2 * Rank.COUNT + strength;
+            else if (PackedCard.isBetter(Color.ALL.get(trump), pkCard, winningCard))
+                priority = (1 << 16) - strength;
+            else
+                priority = -points * 2 * Rank.COUNT - strength;
+
+            /* insertion in decreasing order of priority */
+            int i = count++;
+            while (i > 0 && priorities[i - 1] < priority) {
+                priorities[i] = priorities[i - 1];
+                moves[i] = moves[i - 1];
+                --i;
+            }
+            priorities[i] = priority;
+            moves[i] = pkCard;
+        }
+        return count;
+    }
+
+    private static int gain(long score, long nextScore) {
+        int gain = 0;
+        for (int t = 0; t < TeamId.COUNT; ++t) {
+            TeamId team = TeamId.ALL.get(t);
+            gain |= (PackedScore.turnPoints(nextScore, team) - PackedScore.turnPoints(score, team))
+                    << (t * POINTS_BITS);
+            gain |= (PackedScore.turnTricks(nextScore, team) - PackedScore.turnTricks(score, team))
+                    << (TRICKS_START + t * TRICKS_BITS);
+        }
+        return gain;
+    }
+
+    private static int points(int outcome, TeamId team) {
+        return (outcome >>> (team.ordinal() * POINTS_BITS)) & POINTS_MASK;
+    }
+
+    private static int tricks(int outcome, TeamId team) {
+        return (outcome >>> (TRICKS_START + team.ordinal() * TRICKS_BITS)) & TRICKS_MASK;
+    }
+
+    private static int difference(int outcome) {
+        return points(outcome, TeamId.TEAM_1) - points(outcome, TeamId.TEAM_2);
+    }
+}
@@ -0,0 +1,170 @@
+package ch.epfl.javass.jass;
+
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author tancrede guillou (287334)
+ * @author ouriel sebbagh (287796)
+ */
+
+/**
+ * class hosting many games (tables) at the same time, each one being played
+ * by its own thread : a virtual thread if the JVM has them (Java 21 or
+ * later), which costs a few kilobytes while the game waits for a player
+ * (a human, a remote player or a paced one), and otherwise a daemon platform
+ * thread with a small stack
+ **/
+public final class GameHost implements AutoCloseable {
+
+    /* stack size of the platform threads, a game needing a shallow stack */
+    private final static long PLATFORM_STACK_SIZE = 256 * 1024;
+
+    private final static ThreadFactory VIRTUAL_THREAD_FACTORY = virtualThreadFactory();
+
+    private final ThreadFactory threadFactory;
+    private final Set<Thread> tables = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger hostedTables = new AtomicInteger();
+
+    /**
+     * returns true if the JVM has virtual threads
+     *
+     * @return true if the JVM has virtual threads
+     */
+    public static boolean supportsVirtualThreads() {
+        return VIRTUAL_THREAD_FACTORY != null;
+    }
+
+    /**
+     * public constructor of a host playing each game on a virtual thread, or
+     * on a platform thread if the JVM has no virtual threads
+     */
+    public GameHost() {
+        this(supportsVirtualThreads() ? VIRTUAL_THREAD_FACTORY
+                : r -> {
+                    Thread thread = new Thread(null, r, "table", PLATFORM_STACK_SIZE);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * public constructor of a host playing each game on a thread of the given
+     * factory
+     *
+     * @param threadFactory
+     *            the factory of the threads of the games
+     */
+    public GameHost(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * plays the given game on a new thread, without pause
+     *
+     * @param game
+     *            the game, not started
+     * @return a future completed with the winning team at the end of the
+     *         game, exceptionally if the game failed or was stopped
+     */
+    public CompletableFuture<TeamId> host(JassGame game) {
+        return host(game, 0);
+    }
+
+    /**
+     * plays the given game on a new thread, waiting the given time after
+     * each trick so that the human players can see it
+     *
+     * @param game
+     *            the game, not started
+     * @param pauseInMillis
+     *            the time to wait after each trick, in milliseconds
+     * @return a future completed with the winning team at the end of the
+     *         game, exceptionally if the game failed or was stopped
+     */
+    public CompletableFuture<TeamId> host(JassGame game, long pauseInMillis) {
+        CompletableFuture<TeamId> winningTeam = new CompletableFuture<>();
+        Thread table = threadFactory.newThread(() -> {
+            try {
+                while (!game.isGameOver()) {
+                    if (pauseInMillis > 0)
+                        Thread.sleep(pauseInMillis);
+                    if (Thread.currentThread().isInterrupted())
+                        throw new InterruptedException();
+                    game.advanceToEndOfNextTrick();
+                }
+                winningTeam.complete(game.winningTeam());
+            } catch (InterruptedException e) {
+                winningTeam.completeExceptionally(new CancellationException());
+            } catch (Throwable t) {
+                winningTeam.completeExceptionally(t);
+            } finally {
+                tables.remove(Thread.currentThread());
+            }
+        });
+        tables.add(table);
+        hostedTables.incrementAndGet();
+        table.start();
+        return winningTeam;
+    }
+
+    /**
+     * returns the number of games in progress
+     *
+     * @return the number of games in progress
+     */
+    public int tables() {
+        return tables.size();
+    }
+
+    /**
+     * returns the number of games hosted since the creation of the host
+     *
+     * @return the number of games hosted
+     */
+    public int hostedTables() {
+        return hostedTables.get();
+    }
+
+    /**
+     * stops the games in progress, by interrupting their threads (their
+     * futures are completed with a CancellationException), and waits for
+     * their end, unless the calling thread is interrupted while waiting (it
+     * then returns at once, with the interrupt status of the thread set)
+     */
+    @Override
+    public void close() {
+        for (Thread table : tables) {
+            table.interrupt();
+        }
+        try {
+            for (Thread table : tables) {
+                table.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /***************************** private methods useful to clarify the code ******************************/
+
+    /*
+     * returns the factory of Thread.ofVirtual(), found by reflection so that
+     * the game still runs on older JVMs, or null if there is none
+     */
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            Object virtualBuilder = Thread.class.getMethod("ofVirtual").invoke(null);
+            virtualBuilder = builder.getMethod("name", String.class, long.class)
+                    .invoke(virtualBuilder, "table-", 0L);
+            return (ThreadFactory) builder.getMethod("factory").invoke(virtualBuilder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package ch.epfl.javass.jass;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import ch.epfl.javass.jass.Card.Color;
+
+/**
+ * @author tancrede guillou (287334)
+ * @author ouriel sebbagh (287796)
+ */
+
+/**
+ * class reading a log written by a GameLogWriter, through a buffer filled
+ * from a channel, and replaying its games through the methods of players, in
+ * the same order as JassGame, but without asking them anything
+ **/
+public final class GameLogReader implements AutoCloseable {
+
+    private final static int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /**
+     * opens a reader of the given file
+     *
+     * @param path
+     *            the path of the file
+     * @return a reader of the file
+     * @throws UncheckedIOException
+     *             if the file cannot be opened
+     */
+    public static GameLogReader open(Path path) {
+        try {
+            return new GameLogReader(FileChannel.open(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * public constructor of the class
+     *
+     * @param channel
+     *            the channel giving the bytes of the log, closed with the
+     *            reader
+     */
+    public GameLogReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        buffer.flip();
+    }
+
+    /**
+     * replays the next game of the log through the methods of the given
+     * players (the ones telling them what happened, i.e setPlayers,
+     * updateHand, setTrump, updateTrick, updateScore, setWinningPlayerOfMelds
+     * and setWinningTeam), or does nothing if the log is over
+     *
+     * @param players
+     *            the players
+     * @return true if a game was replayed, false if the log is over
+     * @throws UncheckedIOException
+     *             if an I/O error occurs or if the log is truncated or
+     *             corrupted
+     */
+    public boolean replayGame(Map<PlayerId, Player> players) {
+        try {
+            if (!fill(1))
+                return false;
+            if (nextByte() != GameLogWriter.GAME)
+                throw new StreamCorruptedException("game expected");
+            return replayGame(players, readNames());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see java.lang.AutoCloseable#close()
+     */
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /***************************** private methods useful to clarify the code ******************************/
+
+    private boolean replayGame(Map<PlayerId, Player> players, Map<PlayerId, String> names)
+            throws IOException {
+        for (PlayerId p : PlayerId.ALL) {
+            players.get(p).setPlayers(p, names);
+        }
+
+        Map<PlayerId, CardSet> hands = new EnumMap<>(PlayerId.class);
+        Score score = Score.INITIAL;
+        TurnState state = null;
+        while (true) {
+            int tag = nextByte();
+            if (tag < GameLogWriter.GAME) {
+                if (state == null || state.isTerminal() || !PackedCard.isValid(tag))
+                    throw new StreamCorruptedException("unexpected card " + tag);
+                Card card = Card.ofPacked(tag);
+                /* the players are told the state of a trick when it begins */
+                if (state.trick().isEmpty())
+                    updateScoreAndTrick(players, state);
+                PlayerId player = state.nextPlayer();
+                state = state.withNewCardPlayed(card);
+                hands.put(player, hands.get(player).remove(card));
+                players.get(player).updateHand(hands.get(player));
+                for (PlayerId p : PlayerId.ALL) {
+                    players.get(p).updateTrick(state.trick());
+                }
+            } else if (tag == GameLogWriter.DEAL) {
+                if (state != null) {
+                    score = state.score().nextTurn();
+                    state = null;
+                }
+                readDeal(hands);
+                for (PlayerId p : PlayerId.ALL) {
+                    players.get(p).updateHand(hands.get(p));
+                }
+            } else if (tag == GameLogWriter.TRUMP) {
+                int trump = nextByte();
+                Color color = Color.ALL.get(trump & 0b11);
+                PlayerId firstPlayer = PlayerId.ALL.get((trump >>> 2) & 0b11);
+                state = TurnState.initial(color, score, firstPlayer);
+                for (PlayerId p : PlayerId.ALL) {
+                    players.get(p).setTrump(color);
+                }
+            } else if (tag == GameLogWriter.MELDS) {
+                if (state == null)
+                    throw new StreamCorruptedException("unexpected melds");
+                PlayerId winner = PlayerId.ALL.get(nextByte() & 0b11);
+                MeldSet melds = readMelds();
+                for (PlayerId p : PlayerId.ALL) {
+                    players.get(p).setWinningPlayerOfMelds(winner, melds);
+                }
+                state = TurnState.ofPackedComponents(
+                        state.score().withMeldPoints(winner.team(), melds.points()).packed(),
+                        state.packedUnplayedCards(), state.packedTrick());
+            } else if (tag >= GameLogWriter.TRICK && tag < GameLogWriter.TRICK + PlayerId.COUNT) {
+                PlayerId winner = PlayerId.ALL.get(tag - GameLogWriter.TRICK);
+                int points = nextByte();
+                if (state == null || !state.trick().isFull()
+                        || state.trick().winningPlayer() != winner
+                        || state.trick().points() != points)
+                    throw new StreamCorruptedException("unexpected trick");
+                state = state.withTrickCollected();
+            } else if (tag == GameLogWriter.END) {
+                if (state == null)
+                    throw new StreamCorruptedException("unexpected end");
+                TeamId winningTeam = TeamId.ALL.get(nextByte() & 0b1);
+                Score finalScore = state.score().nextTurn();
+                for (PlayerId p : PlayerId.ALL) {
+                    players.get(p).updateScore(finalScore);
+                    players.get(p).setWinningTeam(winningTeam);
+                }
+                return true;
+            } else {
+                throw new StreamCorruptedException("unknown tag " + tag);
+            }
+        }
+    }
+
+    private static void updateScoreAndTrick(Map<PlayerId, Player> players, TurnState state) {
+        for (PlayerId p : PlayerId.ALL) {
+            players.get(p).updateScore(state.score());
+            players.get(p).updateTrick(state.trick());
+        }
+    }
+
+    private Map<PlayerId, String> readNames() throws IOException {
+        Map<PlayerId, String> names = new EnumMap<>(PlayerId.class);
+        for (PlayerId p : PlayerId.ALL) {
+            byte[] name = new byte[nextByte()];
+            require(name.length);
+            buffer.get(name);
+            names.put(p, new String(name, StandardCharsets.UTF_8));
+        }
+        return Collections.unmodifiableMap(names);
+    }
+
+    private void readDeal(Map<PlayerId, CardSet> hands) throws IOException {
+        long[] packedHands = new long[PlayerId.COUNT];
+        require(GameLogWriter.DEAL_BYTES);
+        for (int b = 0; b < GameLogWriter.DEAL_BYTES; ++b) {
+            int owners = Byte.toUnsignedInt(buffer.get());
+            for (int i = 4 * b; i < 4 * b + 4; ++i) {
+                int p = (owners >>> (2 * (i % 4))) & 0b11;
+                packedHands[p] = PackedCardSet.add(packedHands[p],
+                        PackedCardSet.get(PackedCardSet.ALL_CARDS, i));
+            }
+        }
+        for (PlayerId p : PlayerId.ALL) {
+            if (PackedCardSet.size(packedHands[p.ordinal()]) != Jass.HAND_SIZE)
+                throw new StreamCorruptedException("invalid deal");
+            hands.put(p, CardSet.ofPacked(packedHands[p.ordinal()]));
+        }
+    }
+
+    private MeldSet readMelds() throws IOException {
+        int count = nextByte();
+        List<Meld> melds = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            int index = nextByte();
+            if (index >= Meld.ALL.size())
+                throw new StreamCorruptedException("unknown meld " + index);
+            melds.add(Meld.ALL.get(index));
+        }
+        return MeldSet.of(melds);
+    }
+
+    private int nextByte() throws IOException {
+        require(1);
+        return Byte.toUnsignedInt(buffer.get());
+    }
+
+    private void require(int bytes) throws IOException {
+        if (!fill(bytes))
+            throw new EOFException("truncated log");
+    }
+
+    /*
+     * reads from the channel until the buffer has at least the given number
+     * of bytes, returns false if the channel ends before
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes)
+            return true;
+        buffer.compact();
+        try {
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0)
+                    return false;
+            }
+            return true;
+        } finally {
+            buffer.flip();
+        }
+    }
+}
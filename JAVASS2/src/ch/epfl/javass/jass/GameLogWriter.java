@@ -0,0 +1,241 @@
+package ch.epfl.javass.jass;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import ch.epfl.javass.Preconditions;
+import ch.epfl.javass.jass.Card.Color;
+
+/**
+ * @author tancrede guillou (287334)
+ * @author ouriel sebbagh (287796)
+ */
+
+/**
+ * class writing the events of games, given by JassGame, to an append-only
+ * binary log, through a buffer emptied into a channel when it is full; a
+ * whole turn takes about 70 bytes. A writer is not thread safe, the games
+ * logged by a writer must be played one after the other.
+ *
+ * Each event begins with a byte : a played card is its packed value (less
+ * than 64), the other events have a tag (at least 64) followed by :
+ * - GAME : the names of the 4 players, each one as its length (a byte) and
+ *   its UTF-8 bytes,
+ * - DEAL : 9 bytes giving, 2 bits per card in the order of the packed cards,
+ *   the player receiving each card,
+ * - TRUMP : a byte made of the trump (2 bits), the first player of the turn
+ *   (2 bits) and a bit set if he chose to chibrer,
+ * - MELDS : the winning player of the melds, the number of his melds and the
+ *   index of each of them in Meld.ALL (a byte each),
+ * - TRICK + the winning player : the points of the trick,
+ * - END : the winning team.
+ **/
+public final class GameLogWriter implements AutoCloseable {
+
+    final static int GAME = 0x40;
+    final static int DEAL = 0x41;
+    final static int TRUMP = 0x42;
+    final static int MELDS = 0x43;
+    final static int TRICK = 0x44;
+    final static int END = 0x48;
+
+    final static int DEAL_BYTES = Jass.TOTAL_CARDS / 4;
+    final static int MAX_NAME_BYTES = 0xFF;
+    final static int CHIBRE_BIT = 1 << 4;
+
+    private final static int BUFFER_SIZE = 1 << 16;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /**
+     * opens a writer appending to the given file, which is created if it does
+     * not exist
+     *
+     * @param path
+     *            the path of the file
+     * @return a writer appending to the file
+     * @throws UncheckedIOException
+     *             if the file cannot be opened
+     */
+    public static GameLogWriter open(Path path) {
+        try {
+            return new GameLogWriter(FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * public constructor of the class
+     *
+     * @param channel
+     *            the channel receiving the bytes of the log, closed with the
+     *            writer
+     */
+    public GameLogWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * writes the bytes of the buffer to the channel
+     *
+     * @throws UncheckedIOException
+     *             if an I/O error occurs
+     */
+    public void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see java.lang.AutoCloseable#close()
+     */
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * logs the beginning of a game between the players having the given names
+     *
+     * @param playerNames
+     *            the names of the players
+     * @throws IllegalArgumentException
+     *             if a name takes more than 255 bytes
+     */
+    void gameStarted(Map<PlayerId, String> playerNames) {
+        byte[][] names = new byte[PlayerId.COUNT][];
+        int size = 1;
+        for (PlayerId p : PlayerId.ALL) {
+            names[p.ordinal()] = playerNames.get(p).getBytes(StandardCharsets.UTF_8);
+            Preconditions.checkArgument(names[p.ordinal()].length <= MAX_NAME_BYTES);
+            size += 1 + names[p.ordinal()].length;
+        }
+        reserve(size);
+        buffer.put((byte) GAME);
+        for (byte[] name : names) {
+            buffer.put((byte) name.length).put(name);
+        }
+    }
+
+    /**
+     * logs the hands dealt at the beginning of a turn
+     *
+     * @param hands
+     *            the hands of the players
+     */
+    void cardsDealt(Map<PlayerId, CardSet> hands) {
+        byte[] owners = new byte[DEAL_BYTES];
+        for (PlayerId p : PlayerId.ALL) {
+            long hand = hands.get(p).packed();
+            for (int i = 0; i < Jass.TOTAL_CARDS; ++i) {
+                if (PackedCardSet.contains(hand, PackedCardSet.get(PackedCardSet.ALL_CARDS, i)))
+                    owners[i / 4] |= p.ordinal() << (2 * (i % 4));
+            }
+        }
+        reserve(1 + DEAL_BYTES);
+        buffer.put((byte) DEAL).put(owners);
+    }
+
+    /**
+     * logs the choice of the trump of a turn
+     *
+     * @param firstPlayer
+     *            the first player of the turn
+     * @param chibre
+     *            true if he let his partner choose
+     * @param trump
+     *            the trump
+     */
+    void trumpChosen(PlayerId firstPlayer, boolean chibre, Color trump) {
+        reserve(2);
+        buffer.put((byte) TRUMP).put((byte) (trump.ordinal()
+                | firstPlayer.ordinal() << 2 | (chibre ? CHIBRE_BIT : 0)));
+    }
+
+    /**
+     * logs the melds of the player who won them
+     *
+     * @param winner
+     *            the winning player of the melds
+     * @param melds
+     *            his melds
+     * @throws IllegalArgumentException
+     *             if one of the melds is not in Meld.ALL
+     */
+    void meldsAnnounced(PlayerId winner, MeldSet melds) {
+        List<CardSet> cards = melds.getCardSets();
+        reserve(3 + cards.size());
+        buffer.put((byte) MELDS).put((byte) winner.ordinal()).put((byte) cards.size());
+        for (CardSet meld : cards) {
+            buffer.put((byte) Meld.indexOf(meld));
+        }
+    }
+
+    /**
+     * logs a played card (its player is the next player of the trick)
+     *
+     * @param card
+     *            the played card
+     */
+    void cardPlayed(Card card) {
+        reserve(1);
+        buffer.put((byte) card.packed());
+    }
+
+    /**
+     * logs the collection of a full trick
+     *
+     * @param trick
+     *            the full trick
+     */
+    void trickCollected(Trick trick) {
+        reserve(2);
+        buffer.put((byte) (TRICK + trick.winningPlayer().ordinal())).put((byte) trick.points());
+    }
+
+    /**
+     * logs the end of a game
+     *
+     * @param winningTeam
+     *            the winning team
+     */
+    void gameEnded(TeamId winningTeam) {
+        reserve(2);
+        buffer.put((byte) END).put((byte) winningTeam.ordinal());
+    }
+
+    /***************************** private methods useful to clarify the code ******************************/
+
+    private void reserve(int bytes) {
+        if (buffer.remaining() < bytes)
+            flush();
+    }
+}
@@ -0,0 +1,118 @@
+package ch.epfl.javass.jass;
+
+import java.util.SplittableRandom;
+
+import ch.epfl.javass.jass.Card.Color;
+import ch.epfl.javass.jass.Card.Rank;
+
+/**
+ * @author tancrede guillou (287334)
+ * @author ouriel sebbagh (287796)
+ */
+
+/**
+ * Class representing the heuristic rollout policies of RolloutPolicy : the
+ * player leading a trick plays any card, the next ones try to win it as
+ * cheaply as possible or discard their cheapest card, and may give points to
+ * their team mate and keep their trumps; the cards are compared on a table
+ * of their points and strength, without any object created
+ **/
+final class HeuristicPolicy implements RolloutPolicy {
+
+    /* points a trick must already be worth for a trump to win it, when the
+     * trumps are saved */
+    private final static int TRUMP_WORTHY_POINTS = 10;
+    /* value of each packed card for each trump : its points, then its
+     * strength (the trumps being stronger than the other cards) */
+    private final static int[][] VALUE = createValue();
+
+    private final boolean smear;
+    private final boolean saveTrumps;
+
+    /**
+     * creates a heuristic policy
+     * 
+     * @param smear
+     *            true if the player gives his cards with the most points to
+     *            his team mate leading the trick
+     * @param saveTrumps
+     *            true if the player keeps his trumps for the tricks worth
+     *            some points
+     */
+    HeuristicPolicy(boolean smear, boolean saveTrumps) {
+        this.smear = smear;
+        this.saveTrumps = saveTrumps;
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see ch.epfl.javass.jass.RolloutPolicy#cardToPlay(int, long, java.util.SplittableRandom)
+     */
+    @Override
+    public int cardToPlay(int pkTrick, long pkPlayableCards, SplittableRandom rng) {
+        if (PackedTrick.isEmpty(pkTrick) || PackedCardSet.size(pkPlayableCards) == 1)
+            return PackedCardSet.randomMember(pkPlayableCards, rng);
+
+        Color trump = PackedTrick.trump(pkTrick);
+        int[] value = VALUE[trump.ordinal()];
+        long trumps = PackedCardSet.subsetOfColor(pkPlayableCards, trump);
+        long others = PackedCardSet.difference(pkPlayableCards, trumps);
+        /* the cards which may be given away */
+        long given = (saveTrumps && others != PackedCardSet.EMPTY ? others : pkPlayableCards);
+
+        PlayerId player = PackedTrick.player(pkTrick, PackedTrick.size(pkTrick));
+        if (smear && PackedTrick.winningPlayer(pkTrick).team() == player.team())
+            return highest(given, value);
+
+        int winningCard = PackedTrick.winningCard(pkTrick);
+        long winners = PackedCardSet.EMPTY;
+        for (long s = pkPlayableCards; s != PackedCardSet.EMPTY; s &= s - 1) {
+            int pkCard = Long.numberOfTrailingZeros(s);
+            if (PackedCard.isBetter(trump, pkCard, winningCard))
+                winners = PackedCardSet.add(winners, pkCard);
+        }
+        /* a cheap trick is only won without trumps */
+        if (saveTrumps && PackedTrick.points(pkTrick) < TRUMP_WORTHY_POINTS)
+            winners = PackedCardSet.difference(winners, trumps);
+
+        return lowest(winners != PackedCardSet.EMPTY ? winners : given, value);
+    }
+
+    /***************************** private methods useful to clarify the code ******************************/
+
+    private static int lowest(long pkCards, int[] value) {
+        int lowest = Long.numberOfTrailingZeros(pkCards);
+        for (long s = pkCards & (pkCards - 1); s != PackedCardSet.EMPTY; s &= s - 1) {
+            int pkCard = Long.numberOfTrailingZeros(s);
+            if (value[pkCard] < value[lowest])
+                lowest = pkCard;
+        }
+        return lowest;
+    }
+
+    private static int highest(long pkCards, int[] value) {
+        int highest = Long.numberOfTrailingZeros(pkCards);
+        for (long s = pkCards & (pkCards - 1); s != PackedCardSet.EMPTY; s &= s - 1) {
+            int pkCard = Long.numberOfTrailingZeros(s);
+            if (value[pkCard] > value[highest])
+                highest = pkCard;
+        }
+        return highest;
+    }
+
+    private static int[][] createValue() {
+        int[][] tab = new int[Color.COUNT][PackedCard.INVALID + 1];
+        for (Color trump : Color.ALL) {
+            for (Color color : Color.ALL) {
+                for (Rank rank : Rank.ALL) {
+                    int pkCard = PackedCard.pack(color, rank);
+                    int strength = (color == trump ? Rank.COUNT + rank.trumpOrdinal()
+                            : rank.ordinal());
+                    tab[trump.ordinal()][pkCard] = PackedCard.points(trump, pkCard)
+                            * 2 * Rank.COUNT + strength;
+                }
+            }
+        }
+        return tab;
+    }
+}
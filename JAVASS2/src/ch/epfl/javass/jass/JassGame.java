@@ -1,43 +1,47 @@
 package ch.epfl.javass.jass; 
 
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.EnumMap;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Random;
-import ch.epfl.javass.jass.Card.Color;
-import ch.epfl.javass.jass.Card.Rank;
 
 /**
  * @author tancrede guillou (287334)
  * @author ouriel sebbagh (287796)
  */
 
-/** class representing a JASS game **/
+/**
+ * class representing a JASS game, whose rules are the ones of JassGameCore :
+ * it asks its players the answers awaited by the game and waits for them
+ **/
 public final class JassGame implements Jass {
 
-    private final Random shuffleRng;
-    private final Map<PlayerId, Player> players;
-    private final Map<PlayerId, String> playerNames;
-    private TurnState turnState;
-    private Map<PlayerId, CardSet> playerHands;
-    private PlayerId currentFirstPlayerOfTheTurn;
-    private Color currentTrump;
-    private TeamId winningTeam;
+    /**
+     * size in bytes of a snapshot of a game
+     */
+    public final static int SNAPSHOT_SIZE = JassGameCore.SNAPSHOT_SIZE;
 
-    private Map<PlayerId, MeldSet> playerMeldSets;
+    private final JassGameCore game;
+    private final Map<PlayerId, Player> players;
 
     /** public constructor **/
     public JassGame(long rngSeed, Map<PlayerId, Player> players,
             Map<PlayerId, String> playerNames) {
-        Random rng = new Random(rngSeed);
-        this.shuffleRng = new Random(rng.nextLong());
+        this(rngSeed, players, playerNames, null);
+    }
+
+    /**
+     * public constructor of a game whose events are written to the given log
+     * (which is neither flushed nor closed by the game)
+     */
+    public JassGame(long rngSeed, Map<PlayerId, Player> players,
+            Map<PlayerId, String> playerNames, GameLogWriter log) {
+        this(new JassGameCore(rngSeed, told(players), playerNames, log), players);
+    }
+
+    private JassGame(JassGameCore game, Map<PlayerId, Player> players) {
+        this.game = game;
         this.players = Collections.unmodifiableMap(new EnumMap<>(players));
-        this.playerNames = Collections
-                .unmodifiableMap(new EnumMap<>(playerNames));
-        this.playerMeldSets = new EnumMap<>(PlayerId.class);
     }
 
     /**
@@ -46,212 +50,133 @@ public final class JassGame implements Jass {
      * @return true if the game is over
      */
     public boolean isGameOver() {
-        /* we need to check that if we call this method before advanceToEndOfNextTrick */
-        if (turnState == null) {
-            return false;
-        }
-        /* one of the teams exceeded 1000 points */
-        for (TeamId team : TeamId.ALL) {
-            if (PackedScore.totalPoints(turnState.packedScore(),
-                    team) >= WINNING_POINTS) {
-                winningTeam = team;
-                return true;
-            }
-        }
-        return false;
+        return game.isGameOver();
     }
 
     /**
-     * advance the state of the game until the end of the next trick, or do
-     * nothing if the game is over.
+     * returns the current score of the game (the initial one if the game has
+     * not begun yet)
+     * 
+     * @return the current score of the game
      */
-    public void advanceToEndOfNextTrick() {
-
-        /* If the game is over, stop ... */
-        if (!isGameOver()) {
-
-            /* If start of game, begin a new game */
-            if (turnState == null) {
-                beginANewGame();
-            } else {
-                // select the best MeldSet !
-                if (turnState.trick().index() == 0) {
-                    selectBestMeldSetAndGivePoints();
-                }
-                /*
-                 * If it is not the beginning of the game the trick must be
-                 * assumed full and must be picked up
-                 */
-                assert PackedTrick.isFull(turnState.packedTrick());
-                turnState = turnState.withTrickCollected();
-            }
-
-            if (isGameOver()) {
-                stopTheGame();
-            }
-            /* If the current turn is over, start a new turn and find the
-                     first player (whoever succeeds the first previous player) */
-            if (turnState.isTerminal()) {
-                beginANewTurn();
-            }
-
-            if (!isGameOver()) {
-                /* If the game is not over : */
-
-                /* Announce to the player the current scores and the current turn */
-                for (PlayerId p : PlayerId.ALL) {
-                    players.get(p).updateScore(turnState.score());
-                    players.get(p).updateTrick(turnState.trick());
-                }
-
-                /*
-                 * make the players play / update scores until the current trick
-                 * is over
-                 */
-                for (int i = 0; i < PlayerId.COUNT; ++i) {
-                    //collect the meldSets
-                    if (turnState.trick().index() == 0) {
-                        askMeld(turnState.nextPlayer());
-                    } 
-
-                    playACard(turnState.nextPlayer());
-                    for (PlayerId p : PlayerId.ALL) {
-                        players.get(p).updateTrick(turnState.trick());
-
-                    }
-                }
-            }
-        }
-    }
-
-    /***************************** useful methods to clarify the code *************************************/
-
-    private void shuffleAndDistributeCards() {
-        /* initializing the playerHands */
-        if (playerHands == null) {
-            playerHands = new HashMap<>();
-        } else {
-            playerHands.clear();
-        }
-
-        /* shuffle the card */
-        List<Card> deck = new ArrayList<Card>(36);
-        for (int i = 0; i < TOTAL_CARDS; ++i) {
-            deck.add(CardSet.ALL_CARDS.get(i));
-        }
-        Collections.shuffle(deck, shuffleRng);
-
-        /* distribution of 9 cards for 4 players */
-        for (PlayerId p : PlayerId.ALL) {
-            playerHands.put(p,
-                    CardSet.of(deck.subList(HAND_SIZE * p.ordinal(),
-                            HAND_SIZE * (p.ordinal() + 1))));
-            players.get(p).updateHand(playerHands.get(p));
-        }
-    }
-
-    private void setCurrentFirstPlayerOfTheGame() {
-        for (PlayerId p : playerHands.keySet()) {
-            /* seven of diamond */
-            if (playerHands.get(p)
-                    .contains(Card.of(Color.DIAMOND, Rank.SEVEN))) {
-                currentFirstPlayerOfTheTurn = p;
-            }
-        }
+    public Score score() {
+        return game.score();
     }
 
-    private void setCurrentFirstPlayerOfTheTurn() {
-        /* next player after the precedent firstPlayer ( PLAYER_2 before , now PLAYER_3...) */
-        currentFirstPlayerOfTheTurn = PlayerId.ALL.get(
-                (currentFirstPlayerOfTheTurn.ordinal() + 1) % PlayerId.COUNT);
+    /**
+     * returns the winning team, or null if the game is not over
+     * 
+     * @return the winning team, or null if the game is not over
+     */
+    public TeamId winningTeam() {
+        return game.winningTeam();
     }
 
-    private void setCurrentTrump() {
-        /*
-         * for the human players, we need to check if they chose to let their
-         * team mate choose! if so, we call the method chooseTrump for their
-         * team mate.
-         */
-        if (players.get(currentFirstPlayerOfTheTurn).choseToChibrer()) {
-            PlayerId teamMate = PlayerId.ALL
-                    .get((currentFirstPlayerOfTheTurn.ordinal() + 2)
-                            % PlayerId.COUNT);
-            currentTrump = players.get(teamMate)
-                    .chooseTrump(playerHands.get(teamMate));
-        } else {
-            currentTrump = players.get(currentFirstPlayerOfTheTurn)
-                    .chooseTrump(playerHands.get(currentFirstPlayerOfTheTurn));
-        }
-
-        for (PlayerId pId : PlayerId.ALL) {
-            players.get(pId).setTrump(currentTrump);
-        }
+    /**
+     * writes a snapshot of the state of the game (the position of its random
+     * generator, the state of the turn, the hands, the first player and the
+     * trump of the turn, and the melds not yet compared) at the position of
+     * the given buffer, in exactly SNAPSHOT_SIZE bytes; the state of the
+     * players is not part of it. It can also be restored by AsyncJassGame
+     * 
+     * @param buffer
+     *            the buffer receiving the snapshot
+     * @throws IllegalArgumentException
+     *             if the buffer has less than SNAPSHOT_SIZE remaining bytes
+     */
+    public void snapshot(ByteBuffer buffer) {
+        game.snapshot(buffer);
     }
 
-    private void beginANewGame() {
-        for (PlayerId pId : PlayerId.ALL) {
-            players.get(pId).setPlayers(pId, playerNames);
-        }
-        shuffleAndDistributeCards();
-        setCurrentFirstPlayerOfTheGame();
-        setCurrentTrump();
-        /* it's the first round, so the score will be INITIAL */
-        turnState = TurnState.initial(currentTrump, Score.INITIAL,
-                currentFirstPlayerOfTheTurn);
+    /**
+     * returns the game whose snapshot, written by the method snapshot, is at
+     * the position of the given buffer, without log (see the next method);
+     * the given players are told their identity and, if the game has begun,
+     * their hand and the trump
+     * 
+     * @param buffer
+     *            the buffer containing the snapshot
+     * @param players
+     *            the players of the game
+     * @param playerNames
+     *            the names of the players
+     * @return the game in the state of the snapshot
+     * @throws IllegalArgumentException
+     *             if the buffer does not contain a valid snapshot
+     */
+    public static JassGame restore(ByteBuffer buffer, Map<PlayerId, Player> players,
+            Map<PlayerId, String> playerNames) {
+        return restore(buffer, players, playerNames, null);
     }
 
-    private void beginANewTurn() {
-        shuffleAndDistributeCards();
-        setCurrentFirstPlayerOfTheTurn();
-        setCurrentTrump();
-        turnState = TurnState.initial(currentTrump,
-                /* we need to update the score at the end of each turn ! */
-                turnState.score().nextTurn(), currentFirstPlayerOfTheTurn);
+    /**
+     * returns the game whose snapshot, written by the method snapshot (of
+     * this class or of AsyncJassGame), is at the position of the given
+     * buffer, its next events being written to the given log (or not logged
+     * if it is null); the log of the game before the snapshot followed by
+     * the one of the restored game are the log of the whole game. The given
+     * players are told their identity and, if the game has begun, their hand
+     * and the trump
+     * 
+     * @param buffer
+     *            the buffer containing the snapshot
+     * @param players
+     *            the players of the game
+     * @param playerNames
+     *            the names of the players
+     * @param log
+     *            the log of the events of the restored game, or null
+     * @return the game in the state of the snapshot
+     * @throws IllegalArgumentException
+     *             if the buffer does not contain a valid snapshot
+     */
+    public static JassGame restore(ByteBuffer buffer, Map<PlayerId, Player> players,
+            Map<PlayerId, String> playerNames, GameLogWriter log) {
+        return new JassGame(JassGameCore.restore(buffer, told(players), playerNames, log),
+                players);
     }
 
-    private void playACard(PlayerId p) {
-        Card card = players.get(p).cardToPlay(turnState, playerHands.get(p));
-        turnState = turnState.withNewCardPlayed(card);
-        /* we remove the selected card from the hand of the player */
-        playerHands.replace(p, playerHands.get(p).remove(card));
-        players.get(p).updateHand(playerHands.get(p));
-    }
+    /**
+     * advance the state of the game until the end of the next trick, or do
+     * nothing if the game is over.
+     */
+    public void advanceToEndOfNextTrick() {
 
-    private void stopTheGame() {
-        for (PlayerId p : PlayerId.ALL) {
-            turnState = TurnState.initial(currentTrump,
-                    turnState.score().nextTurn(), currentFirstPlayerOfTheTurn);
-            players.get(p).updateScore(turnState.score());
-            players.get(p).setWinningTeam(winningTeam);
+        /* If the game is over, stop ... */
+        if (game.isGameOver())
+            return;
+
+        /* begin the game or collect the full trick, unless a restored game
+         * awaits an answer */
+        if (game.pendingAnswer() == null)
+            game.advance();
+
+        /* make the players answer until the current trick is full */
+        while (game.pendingAnswer() != null) {
+            PlayerId p = game.pendingPlayer();
+            Player player = players.get(p);
+            switch (game.pendingAnswer()) {
+            case CHIBRE:
+                game.advance(player.choseToChibrer());
+                break;
+            case TRUMP:
+                game.advance(player.chooseTrump(game.handOf(p)));
+                break;
+            case MELDS:
+                game.advance(player.selectMeldSet(game.handOf(p)));
+                break;
+            default:
+                game.advance(player.cardToPlay(game.turnState(), game.handOf(p)));
+            }
         }
     }
 
-    private void askMeld(PlayerId player) {
-        // the map is actualized when we collect the points
-        playerMeldSets.put(player, players.get(player)
-                .selectMeldSet(playerHands.get(player)));
-    }
-
-    private void selectBestMeldSetAndGivePoints() {
-        int winnerIndex = 0;
-        for (PlayerId p : PlayerId.ALL) {
-            if (playerMeldSets.get(PlayerId.ALL.get(winnerIndex))
-                    .compareTo(playerMeldSets.get(p)) < 0) {
-                winnerIndex = p.ordinal();
-            }
-        }
-        PlayerId winner = PlayerId.ALL.get(winnerIndex);
-        //we say which player won to all the players
-        PlayerId.ALL.forEach(player -> players.get(player)
-                .setWinningPlayerOfMelds(winner, playerMeldSets.get(winner)));
+    /***************************** useful methods to clarify the code *************************************/
 
-        // we directly add the points to the team which has the best MeldSet
-        turnState = TurnState.ofPackedComponents(
-                turnState.score()
-                .withMeldPoints(winner.team(),
-                        playerMeldSets.get(winner).points())
-                .packed(),
-                turnState.packedUnplayedCards(), turnState.packedTrick());
-        playerMeldSets.clear();
+    /* the players as told the events of the game by JassGameCore */
+    private static Map<PlayerId, AsyncPlayer> told(Map<PlayerId, Player> players) {
+        Map<PlayerId, AsyncPlayer> told = new EnumMap<>(PlayerId.class);
+        players.forEach((p, player) -> told.put(p, AsyncPlayer.of(player)));
+        return told;
     }
-}
\ No newline at end of file
+}
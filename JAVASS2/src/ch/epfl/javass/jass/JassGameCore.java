@@ -0,0 +1,487 @@
+package ch.epfl.javass.jass;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import ch.epfl.javass.Preconditions;
+import ch.epfl.javass.jass.Card.Color;
+import ch.epfl.javass.jass.Card.Rank;
+
+/**
+ * @author tancrede guillou (287334)
+ * @author ouriel sebbagh (287796)
+ */
+
+/**
+ * Class holding the rules of a JASS game (dealing, trump, melds, tricks and
+ * scores), played step by step : the game either waits for an answer of one
+ * of the players (see pendingAnswer), given to it by advance(answer), or
+ * waits to be begun or to collect its full trick, which advance() does.
+ * It tells the events of the game to the players and to the log, but never
+ * asks the players : JassGame asks them and waits for their answers,
+ * AsyncJassGame asks them and goes on when their futures are completed
+ **/
+final class JassGameCore implements Jass {
+
+    /* what the game may wait for */
+    enum Answer {
+        CHIBRE, TRUMP, MELDS, CARD
+    }
+
+    /* size in bytes of a snapshot of a game */
+    final static int SNAPSHOT_SIZE = 127;
+
+    /* flags of a snapshot, the awaited answer (its ordinal plus one, or 0 if
+     * none is) being given by the bits from PENDING_SHIFT */
+    private final static int BEGUN = 1;
+    private final static int MELDS_PENDING = 2;
+    private final static int CHIBRED = 4;
+    private final static int PENDING_SHIFT = 3;
+
+    private final CheckpointableRandom shuffleRng;
+    private final Map<PlayerId, AsyncPlayer> players;
+    private final Map<PlayerId, String> playerNames;
+    /* the log of the events of the game, or null if it is not logged */
+    private final GameLogWriter log;
+
+    private final Map<PlayerId, CardSet> playerHands = new EnumMap<>(PlayerId.class);
+    private final Map<PlayerId, MeldSet> playerMeldSets = new EnumMap<>(PlayerId.class);
+    private boolean begun = false;
+    /* the score at the beginning of the turn, until its trump is chosen */
+    private Score score = Score.INITIAL;
+    /* null until the trump of the turn is chosen */
+    private TurnState turnState;
+    private PlayerId currentFirstPlayerOfTheTurn;
+    private Color currentTrump;
+    private boolean chibre;
+    private Answer pendingAnswer;
+
+    /**
+     * creates a game which is not begun yet
+     *
+     * @param rngSeed
+     *            the seed of the shuffling of the cards
+     * @param players
+     *            the players, told the events of the game (the synchronous
+     *            ones through AsyncPlayer.of, which calls them directly)
+     * @param playerNames
+     *            the names of the players
+     * @param log
+     *            the log of the events of the game, or null
+     */
+    JassGameCore(long rngSeed, Map<PlayerId, AsyncPlayer> players,
+            Map<PlayerId, String> playerNames, GameLogWriter log) {
+        Random rng = new Random(rngSeed);
+        this.shuffleRng = new CheckpointableRandom(rng.nextLong());
+        this.players = Collections.unmodifiableMap(new EnumMap<>(players));
+        this.playerNames = Collections.unmodifiableMap(new EnumMap<>(playerNames));
+        this.log = log;
+    }
+
+    /**
+     * returns the answer awaited by the game, or null if none is (the game
+     * being then not begun, at the end of a trick, or over)
+     *
+     * @return the answer awaited by the game, or null
+     */
+    Answer pendingAnswer() {
+        return pendingAnswer;
+    }
+
+    /**
+     * returns the player whose answer is awaited
+     *
+     * @return the player whose answer is awaited
+     * @throws IllegalStateException
+     *             if no answer is awaited
+     */
+    PlayerId pendingPlayer() {
+        if (pendingAnswer == null)
+            throw new IllegalStateException();
+        switch (pendingAnswer) {
+        case CHIBRE:
+            return currentFirstPlayerOfTheTurn;
+        case TRUMP:
+            return chibre ? teamMate(currentFirstPlayerOfTheTurn)
+                    : currentFirstPlayerOfTheTurn;
+        default:
+            return turnState.nextPlayer();
+        }
+    }
+
+    /**
+     * returns the hand of the given player
+     *
+     * @param player
+     *            the player
+     * @return the hand of the player (null if the game is not begun)
+     */
+    CardSet handOf(PlayerId player) {
+        return playerHands.get(player);
+    }
+
+    /**
+     * returns the state of the turn, or null until its trump is chosen
+     *
+     * @return the state of the turn, or null
+     */
+    TurnState turnState() {
+        return turnState;
+    }
+
+    /**
+     * returns the current score of the game
+     *
+     * @return the current score of the game
+     */
+    Score score() {
+        return turnState == null ? score : turnState.score();
+    }
+
+    /**
+     * returns the team which exceeded WINNING_POINTS, or null if the game is
+     * not over
+     *
+     * @return the winning team, or null
+     */
+    TeamId winningTeam() {
+        Score score = score();
+        for (TeamId team : TeamId.ALL) {
+            if (score.totalPoints(team) >= WINNING_POINTS)
+                return team;
+        }
+        return null;
+    }
+
+    /**
+     * returns true if the game is over
+     *
+     * @return true if the game is over
+     */
+    boolean isGameOver() {
+        return winningTeam() != null;
+    }
+
+    /**
+     * advances the game when no answer is awaited : begins it (the players
+     * being told their identity and their hand) or collects its full trick,
+     * and begins the next trick or turn, or ends the game
+     *
+     * @throws IllegalStateException
+     *             if an answer is awaited or if the game is over
+     */
+    void advance() {
+        if (pendingAnswer != null || isGameOver())
+            throw new IllegalStateException();
+        if (begun)
+            collectTrick();
+        else
+            beginTheGame();
+    }
+
+    /**
+     * advances the game with the awaited answer (a Boolean, a Color, a
+     * MeldSet or a Card), until the next one is awaited or the trick is full
+     *
+     * @param answer
+     *            the answer of the player
+     * @throws IllegalStateException
+     *             if no answer is awaited
+     * @throws ClassCastException
+     *             if the answer is not of the awaited type
+     */
+    void advance(Object answer) {
+        if (pendingAnswer == null)
+            throw new IllegalStateException();
+        switch (pendingAnswer) {
+        case CHIBRE:
+            chibre = (Boolean) answer;
+            pendingAnswer = Answer.TRUMP;
+            break;
+        case TRUMP:
+            currentTrump = (Color) answer;
+            if (log != null)
+                log.trumpChosen(currentFirstPlayerOfTheTurn, chibre, currentTrump);
+            for (PlayerId p : PlayerId.ALL) {
+                players.get(p).setTrump(currentTrump);
+            }
+            turnState = TurnState.initial(currentTrump, score, currentFirstPlayerOfTheTurn);
+            beginTrick();
+            break;
+        case MELDS:
+            // the map is actualized when we collect the points
+            playerMeldSets.put(turnState.nextPlayer(), (MeldSet) answer);
+            pendingAnswer = Answer.CARD;
+            break;
+        default:
+            playACard((Card) answer);
+            pendingAnswer = turnState.trick().isFull() ? null : nextAnswer();
+        }
+    }
+
+    /**
+     * writes a snapshot of the state of the game (the position of its random
+     * generator, the state of the turn, the hands, the first player and the
+     * trump of the turn, the melds not yet compared and the awaited answer)
+     * at the position of the given buffer, in exactly SNAPSHOT_SIZE bytes;
+     * the state of the players is not part of it
+     *
+     * @param buffer
+     *            the buffer receiving the snapshot
+     * @throws IllegalArgumentException
+     *             if the buffer has less than SNAPSHOT_SIZE remaining bytes
+     */
+    void snapshot(ByteBuffer buffer) {
+        Preconditions.checkArgument(buffer.remaining() >= SNAPSHOT_SIZE);
+        boolean meldsPending = !playerMeldSets.isEmpty();
+        boolean trumpChosen = turnState != null;
+        buffer.putLong(shuffleRng.state());
+        buffer.put((byte) ((begun ? BEGUN : 0) | (meldsPending ? MELDS_PENDING : 0)
+                | (pendingAnswer == Answer.TRUMP && chibre ? CHIBRED : 0)
+                | (pendingAnswer == null ? 0 : pendingAnswer.ordinal() + 1) << PENDING_SHIFT));
+        buffer.put((byte) (begun ? currentFirstPlayerOfTheTurn.ordinal() : 0));
+        buffer.put((byte) (trumpChosen ? currentTrump.ordinal() : 0));
+        buffer.putLong(score().packed());
+        buffer.putLong(trumpChosen ? turnState.packedUnplayedCards() : PackedCardSet.EMPTY);
+        buffer.putInt(trumpChosen ? turnState.packedTrick() : PackedTrick.INVALID);
+        for (PlayerId p : PlayerId.ALL) {
+            buffer.putLong(begun ? playerHands.get(p).packed() : PackedCardSet.EMPTY);
+        }
+        for (PlayerId p : PlayerId.ALL) {
+            /* the melds are given by their indices in Meld.ALL */
+            long[] melds = new long[2];
+            if (playerMeldSets.containsKey(p)) {
+                for (CardSet cards : playerMeldSets.get(p).getCardSets()) {
+                    int index = Meld.indexOf(cards);
+                    melds[index / Long.SIZE] |= 1L << index;
+                }
+            }
+            buffer.putLong(melds[0]).putLong(melds[1]);
+        }
+    }
+
+    /**
+     * returns the game whose snapshot, written by the method snapshot, is at
+     * the position of the given buffer; the given players are told their
+     * identity and, if the game has begun, their hand, the trump if it is
+     * chosen, and the score and the trick if an answer is awaited during it
+     *
+     * @param buffer
+     *            the buffer containing the snapshot
+     * @param players
+     *            the players of the game
+     * @param playerNames
+     *            the names of the players
+     * @param log
+     *            the log of the events of the restored game, or null
+     * @return the game in the state of the snapshot
+     * @throws IllegalArgumentException
+     *             if the buffer does not contain a valid snapshot
+     */
+    static JassGameCore restore(ByteBuffer buffer, Map<PlayerId, AsyncPlayer> players,
+            Map<PlayerId, String> playerNames, GameLogWriter log) {
+        Preconditions.checkArgument(buffer.remaining() >= SNAPSHOT_SIZE);
+        JassGameCore game = new JassGameCore(0, players, playerNames, log);
+        game.shuffleRng.setState(buffer.getLong());
+        int flags = buffer.get();
+        int firstPlayer = buffer.get();
+        int trump = buffer.get();
+        long pkScore = buffer.getLong();
+        long pkUnplayedCards = buffer.getLong();
+        int pkTrick = buffer.getInt();
+        long[] hands = new long[PlayerId.COUNT];
+        for (int p = 0; p < PlayerId.COUNT; ++p) {
+            hands[p] = buffer.getLong();
+        }
+        long[] melds = new long[2 * PlayerId.COUNT];
+        for (int i = 0; i < melds.length; ++i) {
+            melds[i] = buffer.getLong();
+        }
+
+        for (PlayerId p : PlayerId.ALL) {
+            game.players.get(p).setPlayers(p, game.playerNames);
+        }
+        if ((flags & BEGUN) == 0)
+            return game;
+
+        int pending = flags >>> PENDING_SHIFT;
+        Preconditions.checkArgument(0 <= firstPlayer && firstPlayer < PlayerId.COUNT
+                && 0 <= trump && trump < Color.COUNT
+                && pending <= Answer.values().length && PackedScore.isValid(pkScore));
+        game.begun = true;
+        game.chibre = (flags & CHIBRED) != 0;
+        game.pendingAnswer = pending == 0 ? null : Answer.values()[pending - 1];
+        game.currentFirstPlayerOfTheTurn = PlayerId.ALL.get(firstPlayer);
+        boolean trumpChosen = game.pendingAnswer != Answer.CHIBRE
+                && game.pendingAnswer != Answer.TRUMP;
+        if (trumpChosen) {
+            game.currentTrump = Color.ALL.get(trump);
+            game.turnState = TurnState.ofPackedComponents(pkScore, pkUnplayedCards, pkTrick);
+        } else {
+            game.score = Score.ofPacked(pkScore);
+        }
+        for (PlayerId p : PlayerId.ALL) {
+            Preconditions.checkArgument(PackedCardSet.isValid(hands[p.ordinal()]));
+            game.playerHands.put(p, CardSet.ofPacked(hands[p.ordinal()]));
+            /* the melds of the players not having announced yet are replaced
+             * by their announce */
+            if ((flags & MELDS_PENDING) != 0)
+                game.playerMeldSets.put(p, meldSetOf(melds[2 * p.ordinal()],
+                        melds[2 * p.ordinal() + 1]));
+            game.players.get(p).updateHand(game.playerHands.get(p));
+            if (trumpChosen)
+                game.players.get(p).setTrump(game.currentTrump);
+        }
+        if (trumpChosen && game.pendingAnswer != null) {
+            for (PlayerId p : PlayerId.ALL) {
+                game.players.get(p).updateScore(game.turnState.score());
+                game.players.get(p).updateTrick(game.turnState.trick());
+            }
+        }
+        return game;
+    }
+
+    /***************************** private methods useful to clarify the code ******************************/
+
+    private void beginTheGame() {
+        if (log != null)
+            log.gameStarted(playerNames);
+        for (PlayerId p : PlayerId.ALL) {
+            players.get(p).setPlayers(p, playerNames);
+        }
+        shuffleAndDistributeCards();
+        for (PlayerId p : PlayerId.ALL) {
+            /* seven of diamond */
+            if (playerHands.get(p).contains(Card.of(Color.DIAMOND, Rank.SEVEN)))
+                currentFirstPlayerOfTheTurn = p;
+        }
+        begun = true;
+        pendingAnswer = Answer.CHIBRE;
+    }
+
+    /*
+     * collects the full trick and begins the next one, or the next turn, or
+     * ends the game
+     */
+    private void collectTrick() {
+        if (turnState.trick().index() == 0)
+            selectBestMeldSetAndGivePoints();
+        if (log != null)
+            log.trickCollected(turnState.trick());
+        turnState = turnState.withTrickCollected();
+
+        TeamId winningTeam = winningTeam();
+        if (winningTeam != null) {
+            stopTheGame(winningTeam);
+        } else if (!turnState.isTerminal()) {
+            beginTrick();
+        } else {
+            /* a new turn, whose first player is the one following the previous one */
+            score = turnState.score().nextTurn();
+            turnState = null;
+            shuffleAndDistributeCards();
+            currentFirstPlayerOfTheTurn = PlayerId.ALL.get(
+                    (currentFirstPlayerOfTheTurn.ordinal() + 1) % PlayerId.COUNT);
+            pendingAnswer = Answer.CHIBRE;
+        }
+    }
+
+    private void beginTrick() {
+        /* Announce to the player the current scores and the current turn */
+        for (PlayerId p : PlayerId.ALL) {
+            players.get(p).updateScore(turnState.score());
+            players.get(p).updateTrick(turnState.trick());
+        }
+        pendingAnswer = nextAnswer();
+    }
+
+    /*
+     * returns the answer needed from the next player of the trick
+     */
+    private Answer nextAnswer() {
+        /* the melds are collected during the first trick */
+        return turnState.trick().index() == 0 ? Answer.MELDS : Answer.CARD;
+    }
+
+    private void shuffleAndDistributeCards() {
+        /* shuffle the card */
+        List<Card> deck = new ArrayList<Card>(TOTAL_CARDS);
+        for (int i = 0; i < TOTAL_CARDS; ++i) {
+            deck.add(CardSet.ALL_CARDS.get(i));
+        }
+        Collections.shuffle(deck, shuffleRng);
+
+        /* distribution of 9 cards for 4 players */
+        for (PlayerId p : PlayerId.ALL) {
+            playerHands.put(p, CardSet.of(deck.subList(HAND_SIZE * p.ordinal(),
+                    HAND_SIZE * (p.ordinal() + 1))));
+            players.get(p).updateHand(playerHands.get(p));
+        }
+        if (log != null)
+            log.cardsDealt(playerHands);
+    }
+
+    private void playACard(Card card) {
+        PlayerId p = turnState.nextPlayer();
+        turnState = turnState.withNewCardPlayed(card);
+        if (log != null)
+            log.cardPlayed(card);
+        /* we remove the selected card from the hand of the player */
+        playerHands.put(p, playerHands.get(p).remove(card));
+        players.get(p).updateHand(playerHands.get(p));
+        for (PlayerId player : PlayerId.ALL) {
+            players.get(player).updateTrick(turnState.trick());
+        }
+    }
+
+    private void selectBestMeldSetAndGivePoints() {
+        PlayerId winner = PlayerId.PLAYER_1;
+        for (PlayerId p : PlayerId.ALL) {
+            if (playerMeldSets.get(winner).compareTo(playerMeldSets.get(p)) < 0)
+                winner = p;
+        }
+        MeldSet melds = playerMeldSets.get(winner);
+        if (log != null)
+            log.meldsAnnounced(winner, melds);
+        //we say which player won to all the players
+        for (PlayerId p : PlayerId.ALL) {
+            players.get(p).setWinningPlayerOfMelds(winner, melds);
+        }
+
+        // we directly add the points to the team which has the best MeldSet
+        turnState = TurnState.ofPackedComponents(
+                turnState.score().withMeldPoints(winner.team(), melds.points()).packed(),
+                turnState.packedUnplayedCards(), turnState.packedTrick());
+        playerMeldSets.clear();
+    }
+
+    private void stopTheGame(TeamId winningTeam) {
+        if (log != null)
+            log.gameEnded(winningTeam);
+        turnState = TurnState.initial(currentTrump, turnState.score().nextTurn(),
+                currentFirstPlayerOfTheTurn);
+        for (PlayerId p : PlayerId.ALL) {
+            players.get(p).updateScore(turnState.score());
+            players.get(p).setWinningTeam(winningTeam);
+        }
+        pendingAnswer = null;
+    }
+
+    private static MeldSet meldSetOf(long low, long high) {
+        List<Meld> melds = new ArrayList<>();
+        for (int i = 0; i < Meld.ALL.size(); ++i) {
+            if (((i < Long.SIZE ? low : high) >>> i & 1) != 0)
+                melds.add(Meld.ALL.get(i));
+        }
+        return MeldSet.of(melds);
+    }
+
+    private static PlayerId teamMate(PlayerId player) {
+        return PlayerId.ALL.get((player.ordinal() + 2) % PlayerId.COUNT);
+    }
+}
@@ -1,7 +1,15 @@
 package ch.epfl.javass.jass; 
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import ch.epfl.javass.Preconditions;
 import ch.epfl.javass.jass.Card.Color;
 
@@ -14,9 +22,92 @@ import ch.epfl.javass.jass.Card.Color;
 public final class MctsPlayer implements Player{
 
     private final PlayerId ownId;
+    private final long rngSeed;
     private final SplittableRandom rng;
     private final int iterations;
 
+    /* number of threads searching (1 means sequential) */
+    private int threads = 1;
+    /* true if the threads grow a single tree instead of one tree each */
+    private boolean sharedTree = false;
+    /* maximum time of a search in nanoseconds (0 means no limit) */
+    private long timeBudgetNanos = 0;
+    /* created on the first parallel search, its workers are daemon threads */
+    private ForkJoinPool pool;
+    /* number of iterations run by the last search */
+    private int lastSearchIterations = 0;
+    /* true if a search stops as soon as its card cannot change any more,
+     * and the number of iterations this spared to the last search */
+    private boolean earlyStopping = false;
+    private int lastSavedIterations = 0;
+    /* index of the child of the root on which the last search settled, or -1 */
+    private int settledChild = -1;
+    /* one tree per thread, kept from one search to the next one */
+    private MctsTree[] trees;
+    /* true if the subtree reached by the cards played is kept between searches */
+    private boolean treeReuse = false;
+    /* true if the trees of the last search can be reused by the next one */
+    private boolean reusableTrees = false;
+    /* packed cards played since the last search, in the order of the game */
+    private final int[] playedCards = new int[Jass.TOTAL_CARDS];
+    private int playedCardsCount = 0;
+    private int lastTrick = PackedTrick.INVALID;
+    /* turns of the roots kept from the previous search */
+    private int reusedTurns = 0;
+    /* true if the rollouts are played on deals consistent with the beliefs */
+    private boolean determinization = false;
+    private final BeliefTracker beliefs = new BeliefTracker();
+    /* maximum number of bytes of the transposition table of each tree (0
+     * means that the trees have no transpositions) */
+    private long transpositionBytes = 0;
+    /* maximum number of unplayed cards of the states whose turn is solved
+     * exactly instead of played randomly (0 means never), and the solver of
+     * each thread */
+    private int solverCards = 0;
+    private EndgameSolver[] solvers;
+    /* true if the equivalent cards have a single child in the trees */
+    private boolean cardGrouping = false;
+    /* the choice of the cards of the random turns */
+    private RolloutPolicy rolloutPolicy = RolloutPolicy.RANDOM;
+    /* true if the tree is grown in the background between the decisions */
+    private boolean pondering = false;
+    /* created on the first pondering of a game and shut down at its end, its
+     * single worker is a daemon thread */
+    private ExecutorService ponderExecutor;
+    private CompletableFuture<Void> ponderTask;
+    /* tells the pondering search to stop, read by the background thread */
+    private volatile boolean ponderCancelled = false;
+    /* state reached by the cards played since the last decision of the turn
+     * (null if there is none), and the hand of the player in this state */
+    private TurnState ponderState;
+    private long ponderHand = PackedCardSet.EMPTY;
+    /* maximum time of a simulation of the trumps in nanoseconds (0 means
+     * that the trump is chosen on the ranks of the cards) */
+    private long trumpBudgetNanos = 0;
+    /* last hand given by updateHand */
+    private long hand = PackedCardSet.EMPTY;
+    /* estimates of the last simulation of the trumps, and the hand they were
+     * simulated for when the player was asked to chibrer in this turn */
+    private TrumpEstimates lastTrumpEstimates;
+    private long chibreHand = PackedCardSet.EMPTY;
+
+    /* the clock is only read once every CLOCK_PERIOD iterations (a power of
+     * two, and at least the number of cards of a hand so that every child of
+     * the root is visited at least once before the search can stop) */
+    private final static int CLOCK_PERIOD = 64;
+    private final static long NO_DEADLINE = Long.MIN_VALUE;
+    /* number of bytes of the transposition table of each endgame solver */
+    private final static long SOLVER_BYTES = 1 << 20;
+    /* maximum number of nodes of a tree shared between threads, whose arrays
+     * are allocated at once for MAX_CHILDREN children per node (about 20 MB
+     * for all of them); beyond it the tree stops growing */
+    private final static int MAX_SHARED_NODES = 1 << 17;
+    /* deals the hidden cards without beliefs, it is never updated */
+    private final static BeliefTracker NO_BELIEFS = new BeliefTracker();
+    /* probability that the average points of a child of the root are
+     * further from their expectation than the radius of its bound */
+    private final static double STOPPING_RISK = 0.01;
+
     /**
      * public constructor of the class
      * @throws IllegalArgumentException if the number of iterations is inferior
@@ -27,194 +118,799 @@ public final class MctsPlayer implements Player{
         /* just for informational purpose to avoid overflow (Integer) */
         assert (iterations <= 8355967);
         this.ownId = ownId;
+        this.rngSeed = rngSeed;
         this.rng = new SplittableRandom(rngSeed);
         this.iterations = iterations;
     }
 
+    /* copy of the settings of the given player, with a fresh generator */
+    private MctsPlayer(MctsPlayer that) {
+        this(that.ownId, that.rngSeed, that.iterations);
+        this.threads = that.threads;
+        this.sharedTree = that.sharedTree;
+        this.timeBudgetNanos = that.timeBudgetNanos;
+        this.treeReuse = that.treeReuse;
+        this.determinization = that.determinization;
+        this.trumpBudgetNanos = that.trumpBudgetNanos;
+        this.transpositionBytes = that.transpositionBytes;
+        this.solverCards = that.solverCards;
+        this.cardGrouping = that.cardGrouping;
+        this.rolloutPolicy = that.rolloutPolicy;
+        this.pondering = that.pondering;
+        this.earlyStopping = that.earlyStopping;
+    }
+
+    /**
+     * returns a player identical to this one, except that it searches the
+     * given number of independent trees in parallel (root parallelism), each
+     * one with its own generator split from the player's one, and merges the
+     * statistics of their root children before choosing a card; the
+     * iterations are shared between the trees, so that the result only
+     * depends on the seed and on the number of threads
+     * 
+     * @param threads
+     *            the number of trees searched in parallel
+     * @throws IllegalArgumentException
+     *             if threads is not strictly positive
+     * @return a player identical to this one, searching with the given number
+     *         of threads
+     */
+    public MctsPlayer withRootParallelism(int threads) {
+        Preconditions.checkArgument(threads >= 1);
+        MctsPlayer player = new MctsPlayer(this);
+        player.threads = threads;
+        player.sharedTree = false;
+        return player;
+    }
+
+    /**
+     * returns a player identical to this one, except that the given number
+     * of threads grow a single shared tree (tree parallelism): the statistics
+     * of the nodes are updated atomically, the children are expanded with a
+     * compare-and-set, and a virtual loss spreads the threads over different
+     * branches; unlike root parallelism, the card played depends on the
+     * scheduling of the threads, and the tree stops growing after about
+     * 130,000 nodes (its arrays, of about 20 MB, being allocated at once
+     * before the threads share it). The option is off by default: it only pays
+     * with as many free cores as threads, and with two threads on a single
+     * core it played slightly weaker than the sequential search at the same
+     * time per decision (see TreeParallelismBenchmark)
+     * 
+     * @param threads
+     *            the number of threads growing the tree
+     * @throws IllegalArgumentException
+     *             if threads is not strictly positive
+     * @return a player identical to this one, growing its tree with the given
+     *         number of threads
+     */
+    public MctsPlayer withTreeParallelism(int threads) {
+        Preconditions.checkArgument(threads >= 1);
+        MctsPlayer player = new MctsPlayer(this);
+        player.threads = threads;
+        player.sharedTree = true;
+        return player;
+    }
+
+    /**
+     * returns a player identical to this one, except that each search stops
+     * as soon as the given time budget is spent, or when the number of
+     * iterations of the player is reached, whichever comes first; the clock is
+     * only read every few iterations, so the budget can be exceeded by the
+     * time of these iterations, and the card played depends on the speed of
+     * the machine
+     * 
+     * @param budget
+     *            the maximum time of a search
+     * @throws IllegalArgumentException
+     *             if budget is not strictly positive
+     * @return a player identical to this one, whose searches last at most the
+     *         given time
+     */
+    public MctsPlayer withTimeBudget(Duration budget) {
+        Preconditions.checkArgument(!budget.isNegative() && !budget.isZero());
+        MctsPlayer player = new MctsPlayer(this);
+        player.timeBudgetNanos = budget.toNanos();
+        return player;
+    }
+
+    /**
+     * returns a player identical to this one, except that it keeps its trees
+     * from one card to the next one of the same turn: the cards played in
+     * the meantime, given by updateTrick, lead from the old root to the node
+     * of the new state, which becomes the new root with all its statistics,
+     * and the iterations of the new search are added to them; the trees are
+     * rebuilt from scratch if this node was never created, at the beginning
+     * of each turn, and always when a single tree is shared between threads
+     * or when the trees have transpositions
+     * 
+     * @return a player identical to this one, reusing its trees
+     */
+    public MctsPlayer withTreeReuse() {
+        MctsPlayer player = new MctsPlayer(this);
+        player.treeReuse = true;
+        return player;
+    }
+
+    /**
+     * returns a player identical to this one, except that it deduces from
+     * the tricks the colors the other players no longer have (a player not
+     * following the base color has none of it left, except maybe the jack of
+     * trump) and from the winning melds some of their cards: the other
+     * players only play cards they may have in the tree, and each random turn
+     * is played on a deal of the hidden cards consistent with these beliefs,
+     * every player playing from his own hand
+     * 
+     * @return a player identical to this one, playing on consistent deals
+     */
+    public MctsPlayer withDeterminization() {
+        MctsPlayer player = new MctsPlayer(this);
+        player.determinization = true;
+        return player;
+    }
+
+    /**
+     * returns a player identical to this one, except that the children of
+     * its trees reaching the same state as an existing node, the cards of a
+     * trick being played by other players or in another order, share this
+     * node and its statistics; the nodes are found by the Zobrist key of
+     * their state in a table of at most the given number of bytes per tree,
+     * which keeps the nodes closest to the root when it is full. The trees
+     * are then rebuilt for every search, and a single tree shared between
+     * threads has no transpositions
+     * 
+     * @param maxBytes
+     *            the maximum number of bytes of the table of each tree
+     * @throws IllegalArgumentException
+     *             if the table cannot hold a few entries
+     * @return a player identical to this one, sharing the nodes of the same
+     *         state
+     */
+    public MctsPlayer withTranspositions(long maxBytes) {
+        Preconditions.checkArgument(maxBytes >= TranspositionTable.MIN_BYTES);
+        MctsPlayer player = new MctsPlayer(this);
+        player.transpositionBytes = maxBytes;
+        return player;
+    }
+
+    /**
+     * returns a player identical to this one, except that the cards which
+     * lead to the same future (the cards of a color with the same points and
+     * no other unplayed card between them, like a 7 and an 8 once the others
+     * are gone, see PackedTrick.distinctCards) are a single child in its
+     * trees, the weakest card standing for the others: the same iterations
+     * explore narrower and thus deeper trees; a tree can then only be reused
+     * if the cards played since the last search are the ones of its children
+     * 
+     * @return a player identical to this one, grouping the equivalent cards
+     */
+    public MctsPlayer withCardGrouping() {
+        MctsPlayer player = new MctsPlayer(this);
+        player.cardGrouping = true;
+        return player;
+    }
+
+    /**
+     * returns a player identical to this one, except that the cards of its
+     * random turns are chosen by the given policy instead of uniformly (see
+     * RolloutPolicy); without determinization, the other players choose
+     * among all the cards the simulated player does not have
+     * 
+     * @param policy
+     *            the policy of the random turns
+     * @return a player identical to this one, playing its random turns with
+     *         the given policy
+     */
+    public MctsPlayer withRolloutPolicy(RolloutPolicy policy) {
+        MctsPlayer player = new MctsPlayer(this);
+        player.rolloutPolicy = policy;
+        return player;
+    }
+
+    /**
+     * returns a player identical to this one, except that it ponders, i.e
+     * keeps searching while the other players choose their card: after each
+     * of its decisions, every card given by updateTrick moves the root of its
+     * tree to the new state (see withTreeReuse, which pondering implies) and
+     * starts a search in the background, on a single low priority daemon
+     * thread, until the root has been visited as many times as the player
+     * has iterations; while another player chooses his card, the visits of
+     * the root are spread evenly over his playable cards, until each of them
+     * has been visited as many times. cardToPlay stops this search and only
+     * runs the iterations the root still lacks, answering at once if the
+     * state was pondered long enough; the card played then depends on the
+     * time the other players took. Only a sequential player without
+     * transpositions ponders, and its thread ends with the game (see
+     * setWinningTeam)
+     * 
+     * @return a player identical to this one, pondering between its decisions
+     */
+    public MctsPlayer withPondering() {
+        MctsPlayer player = new MctsPlayer(this);
+        player.pondering = true;
+        player.treeReuse = true;
+        return player;
+    }
+
+    /**
+     * returns a player identical to this one, except that its searches stop
+     * before their last iteration when the card to play is settled: when
+     * the most visited child of the root leads the others by more turns than
+     * there are iterations left (its card is then played, whatever its
+     * average), or when the bound of confidence on the average points of the
+     * child with the best average (given by Hoeffding's inequality, the
+     * points of a turn being between 0 and 257) is above the ones of all the
+     * other children; the settlement is checked along with the
+     * clock, and only by a sequential player (see lastSavedIterations)
+     * 
+     * @return a player identical to this one, stopping its searches early
+     */
+    public MctsPlayer withEarlyStopping() {
+        MctsPlayer player = new MctsPlayer(this);
+        player.earlyStopping = true;
+        return player;
+    }
+
+    /**
+     * returns a player identical to this one, except that the random turns
+     * starting from a state with at most the given number of unplayed cards
+     * are not played randomly but solved exactly (see EndgameSolver): the
+     * hidden cards are dealt at random (consistently with the beliefs of the
+     * player if it uses determinization) and every player then plays the
+     * best card knowing all the hands
+     * 
+     * @param cards
+     *            the maximum number of unplayed cards of the solved states,
+     *            e.g 16 for the last 4 tricks
+     * @throws IllegalArgumentException
+     *             if cards is not between 1 and the number of cards of a turn
+     * @return a player identical to this one, solving the end of the turns
+     */
+    public MctsPlayer withEndgameSolver(int cards) {
+        Preconditions.checkArgument(1 <= cards && cards <= Jass.TOTAL_CARDS);
+        MctsPlayer player = new MctsPlayer(this);
+        player.solverCards = cards;
+        return player;
+    }
+
+    /**
+     * returns a player identical to this one, except that it chooses the
+     * trump, and whether to chibrer, by simulation : the other 27 cards are
+     * dealt at random to the other players, and a random turn is played with
+     * each color as trump on every deal; the chibre is evaluated on the same
+     * deals, the team mate being assumed to choose the color in which he has
+     * the highest cards. The simulation stops when the time budget is spent
+     * or after as many deals as the player has iterations, and uses the
+     * threads of the player; see lastTrumpEstimates for its result
+     * 
+     * @param budget
+     *            the maximum time of a simulation of the trumps
+     * @throws IllegalArgumentException
+     *             if budget is not strictly positive
+     * @return a player identical to this one, choosing the trump by
+     *         simulation
+     */
+    public MctsPlayer withTrumpSimulation(Duration budget) {
+        Preconditions.checkArgument(!budget.isNegative() && !budget.isZero());
+        MctsPlayer player = new MctsPlayer(this);
+        player.trumpBudgetNanos = budget.toNanos();
+        return player;
+    }
+
+    /**
+     * returns the estimates of the last simulation of the trumps, or null if
+     * the player did not simulate any
+     * 
+     * @return the estimates of the last simulation of the trumps
+     */
+    public TrumpEstimates lastTrumpEstimates() {
+        return lastTrumpEstimates;
+    }
+
+    /**
+     * returns the number of iterations actually run by the last call to
+     * cardToPlay (by all the threads), which is lower than the number of
+     * iterations of the player if the time budget ran out or if the state was
+     * pondered, and 0 if there was only one playable card
+     * 
+     * @return the number of iterations run by the last search
+     */
+    public int lastSearchIterations() {
+        return lastSearchIterations;
+    }
+
+    /**
+     * returns the number of iterations the last call to cardToPlay did not
+     * run because its card was settled (see withEarlyStopping), 0 if it ran
+     * all of them
+     * 
+     * @return the number of iterations saved by the last search
+     */
+    public int lastSavedIterations() {
+        return lastSavedIterations;
+    }
+
+    /**
+     * returns true if a pondering search is running, for the tests
+     * 
+     * @return true if the player is pondering
+     */
+    boolean isPondering() {
+        return ponderTask != null && !ponderTask.isDone();
+    }
+
     /*/
      * (non-Javadoc)
      * @see ch.epfl.javass.jass.Player#cardToPlay(ch.epfl.javass.jass.TurnState, ch.epfl.javass.jass.CardSet)
      */
     @Override
     public Card cardToPlay(TurnState state, CardSet hand) {
+        stopPondering();
+        ponderState = null;
 
+        long deadline = (timeBudgetNanos == 0 ? NO_DEADLINE
+                : System.nanoTime() + timeBudgetNanos);
+        CardSet playableCards = state.trick().playableCards(hand);
+        /* the children of the roots, the weakest card of each class */
+        if (cardGrouping)
+            playableCards = CardSet.ofPacked(PackedTrick.distinctCards(state.packedTrick(),
+                    playableCards.packed(), state.packedUnplayedCards()));
+        lastSearchIterations = 0;
+        lastSavedIterations = 0;
+        settledChild = -1;
         /* if the player can only play one card, no need to enter the for loop */
-        if (state.trick().playableCards(hand).size() == 1)
-            return state.trick().playableCards(hand).get(0);
+        if (playableCards.size() == 1)
+            return toPonder(state, hand.packed(), playableCards.get(0));
 
         long packedHand = hand.packed();
-        Node root = new Node(state, packedHand, ownId);
-        for (int i = 0; i < iterations; ++i) {
-            ArrayList<Node> path = root.addChildrenToPath(new ArrayList<>(), packedHand, ownId);
-            long newScore = randomTurnScore(path.get(path.size() - 1).nodeTurnState, packedHand);
-            updateScores(path, newScore);
+        reusedTurns = 0;
+        MctsTree[] searchedTrees;
+        if (threads == 1) {
+            MctsTree tree = plant(tree(0), state, packedHand);
+            /* a pondered root only lacks some of its iterations */
+            int treeIterations = ponders() ? Math.max(iterations - reusedTurns, 0) : iterations;
+            searchedTrees = new MctsTree[] { search(tree, solver(0), rng, treeIterations,
+                    deadline, earlyStopping) };
+        } else if (sharedTree)
+            searchedTrees = new MctsTree[] { searchSharedTree(state, packedHand, deadline) };
+        else
+            searchedTrees = searchInParallel(state, packedHand, deadline);
+        reusableTrees = treeReuse && !sharedTree && transpositionBytes == 0;
+        playedCardsCount = 0;
+
+        /* the children of every root are created in the same order, i.e the
+         * order of the playable cards, so their statistics can be summed */
+        long[] childrenPoints = new long[playableCards.size()];
+        int[] childrenTurns = new int[playableCards.size()];
+        for (MctsTree tree : searchedTrees) {
+            /* the root is visited exactly once per iteration */
+            lastSearchIterations += tree.turns(MctsTree.ROOT);
+            for (int i = 0; i < childrenPoints.length; ++i) {
+                childrenPoints[i] += tree.childPoints(MctsTree.ROOT, i);
+                childrenTurns[i] += tree.childTurns(MctsTree.ROOT, i);
+            }
+        }
+        lastSearchIterations -= reusedTurns;
+        int index = settledChild >= 0 ? settledChild
+                : indexBestAverage(childrenPoints, childrenTurns);
+        return toPonder(state, packedHand, playableCards.get(index));
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see ch.epfl.javass.jass.Player#setTrump(ch.epfl.javass.jass.Card.Color)
+     */
+    @Override
+    public void setTrump(Color trump) {
+        stopPondering();
+        ponderState = null;
+        /* a new turn begins, the trees of the previous one are useless */
+        reusableTrees = false;
+        chibreHand = PackedCardSet.EMPTY;
+        playedCardsCount = 0;
+        lastTrick = PackedTrick.INVALID;
+        beliefs.newTurn();
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see ch.epfl.javass.jass.Player#updateTrick(ch.epfl.javass.jass.Trick)
+     */
+    @Override
+    public void updateTrick(Trick newTrick) {
+        stopPondering();
+        int pkTrick = newTrick.packed();
+        /* the same trick can be given several times, only a new card counts */
+        if (!newTrick.isEmpty() && pkTrick != lastTrick
+                && playedCardsCount < playedCards.length) {
+            playedCards[playedCardsCount++] = newTrick.card(newTrick.size() - 1).packed();
+        }
+        if (!newTrick.isEmpty() && pkTrick != lastTrick) {
+            beliefs.cardPlayed(pkTrick);
+            if (ponderState != null)
+                ponder(pkTrick);
+        }
+        lastTrick = pkTrick;
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see ch.epfl.javass.jass.Player#updateHand(ch.epfl.javass.jass.CardSet)
+     */
+    @Override
+    public void updateHand(CardSet newHand) {
+        hand = newHand.packed();
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see ch.epfl.javass.jass.Player#setWinningTeam(ch.epfl.javass.jass.TeamId)
+     */
+    @Override
+    public void setWinningTeam(TeamId winningTeam) {
+        /* the game is over, the thread of the pondering is not kept (a new one
+         * is created if the player ponders in another game) */
+        stopPondering();
+        ponderState = null;
+        if (ponderExecutor != null) {
+            ponderExecutor.shutdown();
+            ponderExecutor = null;
         }
-        return state.trick().playableCards(hand).get(root.indexBestChild(0));
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see ch.epfl.javass.jass.Player#choseToChibrer()
+     */
+    @Override
+    public boolean choseToChibrer() {
+        stopPondering();
+        if (trumpBudgetNanos == 0)
+            return false;
+        /* the player asked to chibrer leads the turn */
+        lastTrumpEstimates = simulateTrumps(hand, ownId, true);
+        chibreHand = hand;
+        return lastTrumpEstimates.prefersChibre();
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see ch.epfl.javass.jass.Player#setWinningPlayerOfMelds(ch.epfl.javass.jass.PlayerId, ch.epfl.javass.jass.MeldSet)
+     */
+    @Override
+    public void setWinningPlayerOfMelds(PlayerId winningPlayer, MeldSet meldset) {
+        stopPondering();
+        beliefs.meldsAnnounced(winningPlayer, meldset);
     }
 
     /************************** private methods useful to clarify the code *********************************/ 
 
     /*
-     * return the set of playable cards for the given turnState, taking into
-     * account the cards that are in the player's hand
-     * 
-     * @param state
-     *          the given state of the turn
-     * @param handOfSimulatedPlayer
-     *          the hand of the simulated player
-     * @param simulatedPlayer
-     *          the I.D of the simulated player
-     * 
-     * @return the set of playable cards for the given turnState
+     * returns the tree of the given thread, created on its first search and
+     * then reused by all the following ones
      */
-    private static long playableCards(TurnState state,
-            long handOfSimulatedPlayer, PlayerId simulatedPlayerId) {
+    private MctsTree tree(int thread) {
+        if (trees == null)
+            trees = new MctsTree[threads];
+        if (trees[thread] == null) {
+            trees[thread] = new MctsTree();
+            trees[thread].groupEquivalentCards(cardGrouping);
+            if (transpositionBytes > 0 && !sharedTree)
+                trees[thread].useTranspositions(new TranspositionTable(transpositionBytes));
+        }
+        return trees[thread];
+    }
 
-        return (state.nextPlayer().equals(simulatedPlayerId)
-                ? PackedTrick.playableCards(state.packedTrick(), 
-                        PackedCardSet.intersection(handOfSimulatedPlayer, state.packedUnplayedCards()))
-                        /* we have to select the playable cards of the unplayedCards */
-                        : PackedTrick.playableCards(state.packedTrick(), 
-                                PackedCardSet.difference(state.packedUnplayedCards(), handOfSimulatedPlayer)));
+    /*
+     * returns the endgame solver of the given thread, created on its first
+     * search, or null if the player does not solve the end of the turns
+     */
+    private EndgameSolver solver(int thread) {
+        if (solverCards == 0)
+            return null;
+        if (solvers == null)
+            solvers = new EndgameSolver[threads];
+        if (solvers[thread] == null)
+            solvers[thread] = new EndgameSolver(SOLVER_BYTES);
+        return solvers[thread];
     }
 
+    /*
+     * prepares the given tree for a search from the given state: if the
+     * trees can be reused, the node reached from the root by the cards
+     * played since the last search becomes the root, otherwise the tree is
+     * emptied; returns the tree
+     */
+    private MctsTree plant(MctsTree tree, TurnState state, long packedHand) {
+        tree.restrict(determinization ? beliefs : null);
+        tree.spreadRootVisits(false);
+        if (reusableTrees) {
+            int node = MctsTree.ROOT;
+            for (int i = 0; i < playedCardsCount && node != MctsTree.NO_NODE; ++i) {
+                node = tree.childOf(node, playedCards[i]);
+            }
+            if (node != MctsTree.NO_NODE && tree.represents(node, state, packedHand, ownId)) {
+                tree.reroot(node);
+                reusedTurns += tree.turns(MctsTree.ROOT);
+                return tree;
+            }
+        }
+        tree.reset(state, packedHand, ownId);
+        return tree;
+    }
 
     /*
-     * returns the final score of a turn completed randomly, starting from a
-     * given state, and knowing the hand of the simulated player
-     * 
-     * @param state
-     *            the given turn state
-     * @param hand
-     *            the hand of the simulated player
-     * @return the final score of a randomly completed turn
+     * grows the given tree, running the given number of iterations or less
+     * if the deadline is reached, the pondering cancelled or, if it may stop
+     * early, the card to play settled (the iterations left are then saved),
+     * and returns it
      */
-    private long randomTurnScore(TurnState state, long hand) {
-        while (!state.isTerminal()) {
-            state = state.withNewCardPlayedAndTrickCollected(Card.ofPacked(
-                    PackedCardSet.get(playableCards(state, hand, ownId), 
-                            rng.nextInt(PackedCardSet.size(playableCards(state, hand, ownId))))));
+    private MctsTree search(MctsTree tree, EndgameSolver solver, SplittableRandom rng,
+            int iterations, long deadline, boolean mayStopEarly) {
+        int[] path = new int[MctsTree.MAX_PATH_LENGTH];
+        long[] hands = new long[PlayerId.COUNT];
+        for (int i = 0; i < iterations; ++i) {
+            if (i % CLOCK_PERIOD == 0 && i > 0 && (isReached(deadline) || ponderCancelled))
+                break;
+            if (i % CLOCK_PERIOD == 0 && i > 0 && mayStopEarly) {
+                settledChild = indexSettledChild(tree, iterations - i);
+                if (settledChild >= 0) {
+                    lastSavedIterations = iterations - i;
+                    break;
+                }
+            }
+            int length = tree.selectPath(path);
+            tree.update(path, length,
+                    randomTurnScore(tree, path[length - 1], solver, rng, hands));
         }
-        return state.packedScore();
+        return tree;
     }
 
     /*
-     * updates the score of each node given in a list, by adding the given score
-     * to the total points of each node
-     * 
-     * @param nodes
-     *            the list of nodes to be updated
-     * @param score
-     *            the score of the random turn
+     * returns true if the player ponders between its decisions
      */
-    private void updateScores(ArrayList<Node> nodes, long score) {
-        assert !nodes.isEmpty() && PackedScore.isValid(score);
+    private boolean ponders() {
+        return pondering && threads == 1 && transpositionBytes == 0;
+    }
 
-        int ownIdTeamScore = PackedScore.turnPoints(score, ownId.team());
-        int otherTeamScore = Jass.MAX_POINTS_PER_TURN_WITHOUT_A_MATCH - ownIdTeamScore;
+    /*
+     * returns the given card, played by the player in the given state with
+     * the given hand, after remembering them if the player ponders: the
+     * pondering starts when the card is seen in the trick
+     */
+    private Card toPonder(TurnState state, long packedHand, Card card) {
+        if (ponders()) {
+            ponderState = state;
+            ponderHand = PackedCardSet.remove(packedHand, card.packed());
+        }
+        return card;
+    }
 
-        if (ownIdTeamScore == 0 || ownIdTeamScore == Jass.MAX_POINTS_PER_TURN) {
-            otherTeamScore = Jass.MAX_POINTS_PER_TURN - ownIdTeamScore;
+    /*
+     * plays the last card of the given trick in the pondered state and, if
+     * the turn is not over, grows the tree from the new state in the
+     * background; the pondering stops if the trick does not follow from the
+     * pondered state
+     */
+    private void ponder(int pkTrick) {
+        int pkCard = PackedTrick.card(pkTrick, PackedTrick.size(pkTrick) - 1);
+        if (!PackedCardSet.contains(ponderState.packedUnplayedCards(), pkCard)
+                || PackedTrick.withAddedCard(ponderState.packedTrick(), pkCard) != pkTrick) {
+            ponderState = null;
+            return;
+        }
+        ponderState = ponderState.withNewCardPlayedAndTrickCollected(Card.ofPacked(pkCard));
+        if (ponderState.isTerminal()) {
+            ponderState = null;
+            return;
         }
 
-        nodes.get(0).totalNodePoints += otherTeamScore;
-        ++nodes.get(0).numberOfNodeTurns;
+        MctsTree tree = plant(tree(0), ponderState, ponderHand);
+        playedCardsCount = 0;
+        reusableTrees = true;
+        /* the card another player will play is unknown, each of them is
+         * explored as much as the others */
+        boolean otherPlayer = ponderState.nextPlayer() != ownId;
+        tree.spreadRootVisits(otherPlayer);
+        long maxTurns = otherPlayer
+                ? (long) iterations * PackedCardSet.size(tree.playableCards(MctsTree.ROOT))
+                : iterations;
+        int treeIterations = (int) Math.min(maxTurns - tree.turns(MctsTree.ROOT),
+                Integer.MAX_VALUE);
+        if (treeIterations <= 0)
+            return;
+        if (ponderExecutor == null) {
+            ponderExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "ponder");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        }
+        EndgameSolver solver = solver(0);
+        SplittableRandom ponderRng = rng.split();
+        ponderTask = CompletableFuture.runAsync(
+                () -> search(tree, solver, ponderRng, treeIterations, NO_DEADLINE, false),
+                ponderExecutor);
+    }
 
-        for (int i = 0; i < nodes.size()-1; ++i) {
-            if (nodes.get(i).nodeTurnState.nextPlayer().team()
-                    .equals(ownId.team())) {
-                nodes.get(i+1).totalNodePoints += ownIdTeamScore;
-            } else {
-                nodes.get(i+1).totalNodePoints += otherTeamScore;
-            }
-            ++nodes.get(i+1).numberOfNodeTurns;
-        }
-    }
-
-    /************************************************************************************/
-
-    private static final class Node {
-
-        private final TurnState nodeTurnState;
-        private final Node[] nodeChildren;
-        private long nodeInexistingChildren;
-        private int totalNodePoints = 0;
-        private int numberOfNodeTurns = 0;
-
-        private final static int CONSTANT_FOR_V = 40;
-
-        private Node(TurnState nodeTurnState, long handOfSimulatedPlayer,
-                PlayerId simulatedPlayerId) {
-
-            this.nodeTurnState = nodeTurnState;
-            this.nodeChildren = new Node[PackedCardSet.size(playableCards(nodeTurnState,
-                    handOfSimulatedPlayer, simulatedPlayerId))];
-            this.nodeInexistingChildren = playableCards(nodeTurnState,
-                    handOfSimulatedPlayer, simulatedPlayerId);
-        }
-
-        /*
-         * returns the same list as the one given, having added
-         * the best children of the given node, given the hand
-         * of the simulated player
-         * 
-         * @param node
-         *          the father of the nodes we will assess
-         * @param path
-         *          the path that has lead from the root to the node
-         * @param hand
-         *          the hand of the simulated player
-         * @return
-         */
-        private ArrayList<Node> addChildrenToPath(ArrayList<Node> path,
-                long hand, PlayerId simulatedPlayerId) {
-            path.add(this);
-
-            for (int i = 0; i < nodeChildren.length; ++i) {
-                if (nodeChildren[i] == null) {
-                    int newCard = PackedCardSet.get(nodeInexistingChildren, 0);
-                    TurnState newState = nodeTurnState.withNewCardPlayedAndTrickCollected(
-                            Card.ofPacked(newCard));
-                    if (newState.isTerminal())
-                        return path;
-                    nodeChildren[i] = new Node(newState,
-                            hand, simulatedPlayerId);
-                    nodeInexistingChildren = PackedCardSet.remove(nodeInexistingChildren, newCard);
-                    path.add(nodeChildren[i]);
-                    return path;
+    /*
+     * stops the pondering search, if any, and waits for its end, after which
+     * the tree, the solver and the beliefs belong to the calling thread again
+     */
+    private void stopPondering() {
+        if (ponderTask == null)
+            return;
+        ponderCancelled = true;
+        ponderTask.join();
+        ponderTask = null;
+        ponderCancelled = false;
+    }
+
+    /*
+     * grows one independent tree per thread on the pool of the player, and
+     * returns them in the order of the split generators
+     */
+    private MctsTree[] searchInParallel(TurnState state, long packedHand, long deadline) {
+        if (pool == null)
+            pool = new ForkJoinPool(threads);
+
+        /* the generators are split before any task is started, so that each
+         * tree always gets the same one */
+        List<ForkJoinTask<MctsTree>> tasks = new ArrayList<>(threads);
+        for (int t = 0; t < threads; ++t) {
+            MctsTree tree = plant(tree(t), state, packedHand);
+            EndgameSolver solver = solver(t);
+            SplittableRandom treeRng = rng.split();
+            int treeIterations = iterations / threads
+                    + (t < iterations % threads ? 1 : 0);
+            tasks.add(pool.submit(
+                    () -> search(tree, solver, treeRng, treeIterations, deadline, false)));
+        }
+
+        MctsTree[] searchedTrees = new MctsTree[threads];
+        for (int t = 0; t < threads; ++t) {
+            searchedTrees[t] = tasks.get(t).join();
+        }
+        return searchedTrees;
+    }
+
+    /*
+     * grows a single tree with all the threads of the pool of the player,
+     * until the iterations are exhausted or the deadline is reached, and
+     * returns it
+     */
+    private MctsTree searchSharedTree(TurnState state, long packedHand, long deadline) {
+        if (pool == null)
+            pool = new ForkJoinPool(threads);
+
+        MctsTree tree = tree(0);
+        tree.restrict(determinization ? beliefs : null);
+        tree.reset(state, packedHand, ownId);
+        /* the threads never grow the arrays, which are sized for a node per
+         * iteration (up to MAX_SHARED_NODES) and some room for the nodes
+         * created by the threads losing a compare-and-set, never reclaimed;
+         * once they are full, the iterations play their random turns from
+         * the leaves of the tree */
+        tree.ensureCapacity(Math.min(iterations, MAX_SHARED_NODES) + 1
+                + threads * MctsTree.MAX_CHILDREN);
+        AtomicInteger remainingIterations = new AtomicInteger(iterations);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(threads);
+        for (int t = 0; t < threads; ++t) {
+            SplittableRandom threadRng = rng.split();
+            EndgameSolver solver = solver(t);
+            tasks.add(pool.submit(() -> {
+                int[] path = new int[MctsTree.MAX_PATH_LENGTH];
+                long[] hands = new long[PlayerId.COUNT];
+                for (int i = 0; remainingIterations.getAndDecrement() > 0; ++i) {
+                    if (i % CLOCK_PERIOD == 0 && i > 0 && isReached(deadline))
+                        break;
+                    int length = tree.selectPathConcurrently(path);
+                    tree.updateConcurrently(path, length,
+                            randomTurnScore(tree, path[length - 1], solver, threadRng, hands));
                 }
+            }));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        return tree;
+    }
+
+    /*
+     * returns true if the given deadline (in the time of System.nanoTime) is
+     * reached, and false if it is not or if there is no deadline
+     */
+    private static boolean isReached(long deadline) {
+        return deadline != NO_DEADLINE && System.nanoTime() - deadline >= 0;
+    }
+
+    /*
+     * returns the index of the child of the root of the given tree whose card
+     * is settled, or -1 if none is: the most visited child if no other one
+     * can catch up with its visits in the given number of iterations left
+     * (it is then played instead of the best average, which these iterations
+     * could still change), or else the child with the highest average if its
+     * bound of confidence is apart from the ones of all the other children
+     */
+    private static int indexSettledChild(MctsTree tree, int remainingIterations) {
+        int count = PackedCardSet.size(tree.playableCards(MctsTree.ROOT));
+        int best = 0, mostVisited = 0;
+        int maxTurns = 0, secondTurns = 0;
+        for (int i = 0; i < count; ++i) {
+            int turns = tree.childTurns(MctsTree.ROOT, i);
+            if (turns == 0)
+                return -1;
+            if (average(tree, i) > average(tree, best))
+                best = i;
+            if (turns > maxTurns) {
+                secondTurns = maxTurns;
+                maxTurns = turns;
+                mostVisited = i;
+            } else if (turns > secondTurns) {
+                secondTurns = turns;
             }
-            int index = this.indexBestChild(CONSTANT_FOR_V);
-
-            return (nodeChildren.length == 0 ? path
-                    : nodeChildren[index].addChildrenToPath(path, hand,simulatedPlayerId));
-        }
-
-        /*
-         * returns the index of the "best" child of a node, being the one for
-         * which the value of V is the highest
-         * 
-         * @param c
-         *            constant needed to calculate V
-         * @return the index of the "best" child of the node
-         */
-        private int indexBestChild(int c) {
-            double Vmax = 0;
-            int index = 0;
-            for (int i = 0; i < nodeChildren.length; ++i) {
-                if (this.V(nodeChildren[i], c) > Vmax) {
-                    Vmax = V(nodeChildren[i], c);
-                    index = i;
-                }
+        }
+        if (maxTurns - secondTurns > remainingIterations)
+            return mostVisited;
+
+        double lowerBound = average(tree, best) - radius(tree.childTurns(MctsTree.ROOT, best));
+        for (int i = 0; i < count; ++i) {
+            if (i != best && average(tree, i) + radius(tree.childTurns(MctsTree.ROOT, i)) >= lowerBound)
+                return -1;
+        }
+        return best;
+    }
+
+    private static double average(MctsTree tree, int index) {
+        return (double) tree.childPoints(MctsTree.ROOT, index)
+                / tree.childTurns(MctsTree.ROOT, index);
+    }
+
+    /*
+     * returns the radius of the bound of confidence of an average of points
+     * over the given number of turns (Hoeffding's inequality)
+     */
+    private static double radius(int turns) {
+        return Jass.MAX_POINTS_PER_TURN * Math.sqrt(Math.log(1 / STOPPING_RISK) / (2.0 * turns));
+    }
+
+    /*
+     * returns the index of the child with the highest average of points,
+     * ignoring the children that were never visited (this is the value of V
+     * for c = 0)
+     */
+    private static int indexBestAverage(long[] points, int[] turns) {
+        double averageMax = 0;
+        int index = 0;
+        for (int i = 0; i < points.length; ++i) {
+            if (turns[i] > 0 && (double) points[i] / turns[i] > averageMax) {
+                averageMax = (double) points[i] / turns[i];
+                index = i;
             }
-            return index;
         }
+        return index;
+    }
 
-        private double V(Node node, int c) {
-            return ((double) node.totalNodePoints / (double) node.numberOfNodeTurns)
-                    + c * Math.sqrt((2 * Math.log(numberOfNodeTurns)
-                            / node.numberOfNodeTurns));
+    /*
+     * returns the final score of a turn completed randomly from the state of
+     * the given node of the given tree, see MctsRollout; with determinization
+     * the hidden cards are first dealt in the given array; with few enough
+     * unplayed cards, the turn of a random deal is solved by the given solver
+     */
+    private long randomTurnScore(MctsTree tree, int node, EndgameSolver solver,
+            SplittableRandom rng, long[] hands) {
+        if (solver != null && PackedCardSet.size(tree.unplayedCards(node)) <= solverCards) {
+            (determinization ? beliefs : NO_BELIEFS).deal(tree.unplayedCards(node),
+                    tree.hand(), ownId, tree.trick(node), rng, hands);
+            return solver.solve(tree.score(node), tree.trick(node), hands);
         }
+        if (!determinization)
+            return MctsRollout.turnScore(tree.score(node), tree.unplayedCards(node),
+                    tree.trick(node), tree.hand(), ownId, rolloutPolicy, rng);
+
+        beliefs.deal(tree.unplayedCards(node), tree.hand(), ownId, tree.trick(node), rng, hands);
+        return MctsRollout.turnScore(tree.score(node), tree.trick(node), hands,
+                rolloutPolicy, rng);
     }
 
     /*/
@@ -223,6 +919,123 @@ public final class MctsPlayer implements Player{
      */
     @Override
     public Color chooseTrump(CardSet hand) {
+        stopPondering();
+        if (trumpBudgetNanos == 0)
+            return rankedTrump(hand.packed());
+        /* if the player was not asked to chibrer for this hand, his team mate
+         * chibred and leads the turn */
+        if (chibreHand != hand.packed())
+            lastTrumpEstimates = simulateTrumps(hand.packed(), teamMate(ownId), false);
+        return lastTrumpEstimates.bestTrump();
+    }
+
+    /*
+     * simulates the trumps of the given hand, the given player leading the
+     * turn, on the threads of the player
+     */
+    private TrumpEstimates simulateTrumps(long packedHand, PlayerId firstPlayer,
+            boolean chibre) {
+        long deadline = System.nanoTime() + trumpBudgetNanos;
+        long[][] points = new long[threads][TrumpEstimates.OPTIONS];
+        long[][] squaredPoints = new long[threads][TrumpEstimates.OPTIONS];
+        int[] deals = new int[threads];
+        if (threads == 1) {
+            deals[0] = simulateDeals(packedHand, firstPlayer, rng, iterations, deadline,
+                    points[0], squaredPoints[0]);
+        } else {
+            if (pool == null)
+                pool = new ForkJoinPool(threads);
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(threads);
+            for (int t = 0; t < threads; ++t) {
+                int thread = t;
+                SplittableRandom threadRng = rng.split();
+                int threadDeals = iterations / threads + (t < iterations % threads ? 1 : 0);
+                tasks.add(pool.submit(() -> {
+                    deals[thread] = simulateDeals(packedHand, firstPlayer, threadRng,
+                            threadDeals, deadline, points[thread], squaredPoints[thread]);
+                }));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        }
+
+        int totalDeals = 0;
+        for (int t = 1; t < threads; ++t) {
+            for (int o = 0; o < TrumpEstimates.OPTIONS; ++o) {
+                points[0][o] += points[t][o];
+                squaredPoints[0][o] += squaredPoints[t][o];
+            }
+        }
+        for (int d : deals) {
+            totalDeals += d;
+        }
+        return new TrumpEstimates(totalDeals, chibre, points[0], squaredPoints[0]);
+    }
+
+    /*
+     * simulates the trumps on at most the given number of deals of the cards
+     * that are not in the given hand, or less if the deadline is reached;
+     * adds the points of the team of the player, and their squares, of each
+     * option to the given arrays and returns the number of deals simulated
+     */
+    private int simulateDeals(long packedHand, PlayerId firstPlayer, SplittableRandom rng,
+            int maxDeals, long deadline, long[] points, long[] squaredPoints) {
+        long otherCards = PackedCardSet.complement(packedHand);
+        int[] deck = new int[PackedCardSet.size(otherCards)];
+        for (int i = 0; i < deck.length; ++i) {
+            deck[i] = PackedCardSet.get(otherCards, i);
+        }
+        long[] deal = new long[PlayerId.COUNT];
+        long[] hands = new long[PlayerId.COUNT];
+        int[] colorPoints = new int[Color.COUNT];
+        PlayerId teamMate = teamMate(ownId);
+
+        int d = 0;
+        for (; d < maxDeals; ++d) {
+            if (d % CLOCK_PERIOD == 0 && d > 0 && isReached(deadline))
+                break;
+            /* the first cards of a shuffle of the deck are dealt in order */
+            for (int i = deck.length - 1; i > 0; --i) {
+                int j = rng.nextInt(i + 1);
+                int card = deck[i];
+                deck[i] = deck[j];
+                deck[j] = card;
+            }
+            int next = 0;
+            for (PlayerId p : PlayerId.ALL) {
+                long playerHand = packedHand;
+                if (p != ownId) {
+                    playerHand = PackedCardSet.EMPTY;
+                    for (int i = 0; i < Jass.HAND_SIZE; ++i) {
+                        playerHand = PackedCardSet.add(playerHand, deck[next++]);
+                    }
+                }
+                deal[p.ordinal()] = playerHand;
+            }
+
+            for (Color trump : Color.ALL) {
+                System.arraycopy(deal, 0, hands, 0, PlayerId.COUNT);
+                long score = MctsRollout.randomTurnScore(PackedScore.INITIAL,
+                        PackedTrick.firstEmpty(trump, firstPlayer), hands, rng);
+                colorPoints[trump.ordinal()] = PackedScore.turnPoints(score, ownId.team());
+            }
+            for (int o = 0; o < TrumpEstimates.OPTIONS; ++o) {
+                int p = o == TrumpEstimates.CHIBRE
+                        ? colorPoints[rankedTrump(deal[teamMate.ordinal()]).ordinal()]
+                        : colorPoints[o];
+                points[o] += p;
+                squaredPoints[o] += p * p;
+            }
+        }
+        return d;
+    }
+
+    /*
+     * returns the color in which the given hand has the highest cards, as
+     * trumps (the first one if several have the same value)
+     */
+    private static Color rankedTrump(long packedHand) {
         /* As a start, we say that the player chooses the trump
          * considering the "value" of his cards */
         int biggestValue = 0;
@@ -230,12 +1043,12 @@ public final class MctsPlayer implements Player{
 
         for (Color c : Color.ALL) {
 
-            CardSet sub = hand.subsetOfColor(c);
-            int colorSize = sub.size();
+            long sub = PackedCardSet.subsetOfColor(packedHand, c);
+            int colorSize = PackedCardSet.size(sub);
             int value = 0;
 
             for (int i = 0; i < colorSize; ++i) {
-                value += sub.get(i).rank().trumpOrdinal();
+                value += PackedCard.rank(PackedCardSet.get(sub, i)).trumpOrdinal();
             }
             if (value > biggestValue) {
                 biggestValue = value;
@@ -244,4 +1057,8 @@ public final class MctsPlayer implements Player{
         }
         return trump;
     }
+
+    private static PlayerId teamMate(PlayerId player) {
+        return PlayerId.ALL.get((player.ordinal() + 2) % PlayerId.COUNT);
+    }
 }
@@ -0,0 +1,170 @@
+package ch.epfl.javass.jass; 
+
+import java.util.SplittableRandom;
+
+/**
+ * @author tancrede guillou (287334)
+ * @author ouriel sebbagh (287796)
+ */
+
+/**
+ * Class containing the random completion of turns used by the simulated
+ * player, working directly on the packed components of the turn states so
+ * that no object is created while a turn is played
+ **/
+final class MctsRollout {
+
+    private MctsRollout() {
+    }
+
+    /**
+     * return the set of playable cards for the next player of the given trick,
+     * taking into account the cards that are in the simulated player's hand:
+     * the simulated player plays its unplayed cards, the other players can
+     * play any of the other unplayed cards
+     * 
+     * @param pkTrick
+     *          the packed trick, assumed not full
+     * @param pkUnplayedCards
+     *          the packed set of unplayed cards
+     * @param handOfSimulatedPlayer
+     *          the packed hand of the simulated player
+     * @param simulatedPlayerId
+     *          the identity of the simulated player
+     * @return the packed set of playable cards for the next player
+     */
+    static long playableCards(int pkTrick, long pkUnplayedCards,
+            long handOfSimulatedPlayer, PlayerId simulatedPlayerId) {
+
+        return (PackedTrick.player(pkTrick, PackedTrick.size(pkTrick)) == simulatedPlayerId
+                ? PackedTrick.playableCards(pkTrick,
+                        PackedCardSet.intersection(handOfSimulatedPlayer, pkUnplayedCards))
+                        /* we have to select the playable cards of the unplayedCards */
+                        : PackedTrick.playableCards(pkTrick,
+                                PackedCardSet.difference(pkUnplayedCards, handOfSimulatedPlayer)));
+    }
+
+    /**
+     * returns the final score of a turn completed randomly, starting from the
+     * given packed components of a turn state, and knowing the hand of the
+     * simulated player
+     * 
+     * @param pkScore
+     *            the packed score of the state
+     * @param pkUnplayedCards
+     *            the packed set of unplayed cards of the state
+     * @param pkTrick
+     *            the packed trick of the state, assumed not full (or invalid
+     *            if the turn is over)
+     * @param hand
+     *            the packed hand of the simulated player
+     * @param simulatedPlayerId
+     *            the identity of the simulated player
+     * @param rng
+     *            the generator used to pick the cards
+     * @return the final packed score of a randomly completed turn
+     */
+    static long randomTurnScore(long pkScore, long pkUnplayedCards, int pkTrick,
+            long hand, PlayerId simulatedPlayerId, SplittableRandom rng) {
+        return turnScore(pkScore, pkUnplayedCards, pkTrick, hand, simulatedPlayerId,
+                RolloutPolicy.RANDOM, rng);
+    }
+
+    /**
+     * same as randomTurnScore, the cards being chosen by the given policy
+     * 
+     * @param pkScore
+     *            the packed score of the state
+     * @param pkUnplayedCards
+     *            the packed set of unplayed cards of the state
+     * @param pkTrick
+     *            the packed trick of the state, assumed not full (or invalid
+     *            if the turn is over)
+     * @param hand
+     *            the packed hand of the simulated player
+     * @param simulatedPlayerId
+     *            the identity of the simulated player
+     * @param policy
+     *            the policy choosing the cards among the playable ones
+     * @param rng
+     *            the generator given to the policy
+     * @return the final packed score of the completed turn
+     */
+    static long turnScore(long pkScore, long pkUnplayedCards, int pkTrick, long hand,
+            PlayerId simulatedPlayerId, RolloutPolicy policy, SplittableRandom rng) {
+        while (pkTrick != PackedTrick.INVALID) {
+            long playable = playableCards(pkTrick, pkUnplayedCards, hand, simulatedPlayerId);
+            int pkCard = policy.cardToPlay(pkTrick, playable, rng);
+
+            pkUnplayedCards = PackedCardSet.remove(pkUnplayedCards, pkCard);
+            pkTrick = PackedTrick.withAddedCard(pkTrick, pkCard);
+            if (PackedTrick.isFull(pkTrick)) {
+                pkScore = PackedScore.withAdditionalTrick(pkScore,
+                        PackedTrick.winningPlayer(pkTrick).team(),
+                        PackedTrick.points(pkTrick));
+                /* the next trick of the last one is INVALID */
+                pkTrick = PackedTrick.nextEmpty(pkTrick);
+            }
+        }
+        return pkScore;
+    }
+
+    /**
+     * returns the final score of a turn completed randomly, starting from the
+     * given packed score and trick, every player playing the cards of his
+     * hand in the given deal
+     * 
+     * @param pkScore
+     *            the packed score of the state
+     * @param pkTrick
+     *            the packed trick of the state, assumed not full (or invalid
+     *            if the turn is over)
+     * @param hands
+     *            the packed hands of the players, indexed by their ordinal,
+     *            from which the cards played are removed
+     * @param rng
+     *            the generator used to pick the cards
+     * @return the final packed score of a randomly completed turn
+     */
+    static long randomTurnScore(long pkScore, int pkTrick, long[] hands,
+            SplittableRandom rng) {
+        return turnScore(pkScore, pkTrick, hands, RolloutPolicy.RANDOM, rng);
+    }
+
+    /**
+     * same as randomTurnScore on a deal, the cards being chosen by the given
+     * policy
+     * 
+     * @param pkScore
+     *            the packed score of the state
+     * @param pkTrick
+     *            the packed trick of the state, assumed not full (or invalid
+     *            if the turn is over)
+     * @param hands
+     *            the packed hands of the players, indexed by their ordinal,
+     *            from which the cards played are removed
+     * @param policy
+     *            the policy choosing the cards among the playable ones
+     * @param rng
+     *            the generator given to the policy
+     * @return the final packed score of the completed turn
+     */
+    static long turnScore(long pkScore, int pkTrick, long[] hands, RolloutPolicy policy,
+            SplittableRandom rng) {
+        while (pkTrick != PackedTrick.INVALID) {
+            int p = PackedTrick.player(pkTrick, PackedTrick.size(pkTrick)).ordinal();
+            long playable = PackedTrick.playableCards(pkTrick, hands[p]);
+            int pkCard = policy.cardToPlay(pkTrick, playable, rng);
+
+            hands[p] = PackedCardSet.remove(hands[p], pkCard);
+            pkTrick = PackedTrick.withAddedCard(pkTrick, pkCard);
+            if (PackedTrick.isFull(pkTrick)) {
+                pkScore = PackedScore.withAdditionalTrick(pkScore,
+                        PackedTrick.winningPlayer(pkTrick).team(),
+                        PackedTrick.points(pkTrick));
+                pkTrick = PackedTrick.nextEmpty(pkTrick);
+            }
+        }
+        return pkScore;
+    }
+}
@@ -0,0 +1,711 @@
+package ch.epfl.javass.jass;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * @author tancrede guillou (287334)
+ * @author ouriel sebbagh (287796)
+ */
+
+/**
+ * Class representing the tree of the simulated player, stored in parallel
+ * arrays indexed by the identity of the nodes (structure of arrays): the
+ * packed components of the turn state of each node, its playable cards, its
+ * statistics and the offset of its children in a common array of children;
+ * the arrays are kept from one search to the next one and only grow, so that
+ * a search creates no object once the tree is large enough
+ **/
+final class MctsTree {
+
+    /** identity of the root of the tree **/
+    static final int ROOT = 0;
+    /** value of a child that was not created yet (or of no node at all) **/
+    static final int NO_NODE = -1;
+    /** maximum number of nodes in a path, from the root to a leaf **/
+    static final int MAX_PATH_LENGTH = Jass.TOTAL_CARDS + 1;
+    /**
+     * maximum number of children of a node: a player different from the
+     * simulated one can play any card outside of the simulated player's hand
+     **/
+    static final int MAX_CHILDREN = Jass.TOTAL_CARDS - Jass.HAND_SIZE;
+
+    private final static int CONSTANT_FOR_V = 40;
+    private final static int INITIAL_CAPACITY = 1 << 10;
+
+    /* atomic accesses used when several threads grow the same tree */
+    private final static VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private final static VarHandle SIZE;
+    private final static VarHandle CHILDREN_SIZE;
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            SIZE = lookup.findVarHandle(MctsTree.class, "size", int.class);
+            CHILDREN_SIZE = lookup.findVarHandle(MctsTree.class, "childrenSize", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new Error(e);
+        }
+    }
+
+    private long[] scores;
+    private long[] unplayedCards;
+    private int[] tricks;
+    /* the child i of a node is reached by playing the i-th of its playable cards */
+    private long[] playableCards;
+    private int[] firstChild;
+    private int[] points;
+    private int[] turns;
+    private int[] children;
+
+    private int size;
+    private int childrenSize;
+
+    private long hand;
+    private PlayerId ownId;
+    /* cards each player may have, the other ones are never played in the tree */
+    private final long[] possibleCards = new long[PlayerId.COUNT];
+
+    /* new identities of the nodes kept by reroot */
+    private int[] newIds;
+
+    /* the nodes of each state, by the Zobrist key of their state and of the
+     * team choosing them (or null), and the keys of the states of the nodes */
+    private TranspositionTable transpositions;
+    private long[] keys;
+    /* true if the nodes only have a child per class of equivalent cards */
+    private boolean grouping = false;
+    /* true if the visits of the root are spread evenly over its children */
+    private boolean evenRoot = false;
+
+    /** creates an empty tree **/
+    MctsTree() {
+        scores = new long[INITIAL_CAPACITY];
+        unplayedCards = new long[INITIAL_CAPACITY];
+        tricks = new int[INITIAL_CAPACITY];
+        playableCards = new long[INITIAL_CAPACITY];
+        firstChild = new int[INITIAL_CAPACITY];
+        points = new int[INITIAL_CAPACITY];
+        turns = new int[INITIAL_CAPACITY];
+        children = new int[INITIAL_CAPACITY];
+        Arrays.fill(possibleCards, PackedCardSet.ALL_CARDS);
+    }
+
+    /**
+     * empties the tree (keeping its arrays) and creates its root, for the
+     * given state and the given hand of the simulated player
+     *
+     * @param state
+     *            the state of the root, assumed not terminal
+     * @param hand
+     *            the packed hand of the simulated player
+     * @param ownId
+     *            the identity of the simulated player
+     */
+    void reset(TurnState state, long hand, PlayerId ownId) {
+        assert !state.isTerminal();
+        this.hand = hand;
+        this.ownId = ownId;
+        size = 0;
+        childrenSize = 0;
+        int root = newNode(state.packedScore(), state.packedUnplayedCards(), state.packedTrick());
+        assert root == ROOT;
+        if (transpositions != null) {
+            transpositions.clear();
+            keys[ROOT] = Zobrist.key(scores[ROOT], unplayedCards[ROOT], tricks[ROOT]);
+        }
+    }
+
+    /**
+     * makes the children created by selectPath from now on, when the state
+     * they represent is already the one of a node chosen by the same team
+     * (the cards of a trick being played by other players, or in another
+     * order), be this node with its statistics, found in the given table :
+     * the tree becomes a directed acyclic graph, which cannot be rerooted;
+     * the table is emptied by reset, and ignored by selectPathConcurrently
+     *
+     * @param table
+     *            the table of the transpositions, or null to create a node
+     *            for each child
+     */
+    void useTranspositions(TranspositionTable table) {
+        transpositions = table;
+        if (table != null && (keys == null || keys.length < scores.length))
+            keys = new long[scores.length];
+    }
+
+    /**
+     * makes the nodes created from now on have a single child for the
+     * playable cards leading to the same future (see
+     * PackedTrick.distinctCards), the weakest one, or a child per playable
+     * card; the nodes of the other players have the most cards, and thus
+     * lose the most children
+     *
+     * @param group
+     *            true to group the equivalent cards
+     */
+    void groupEquivalentCards(boolean group) {
+        grouping = group;
+    }
+
+    /**
+     * makes selectPath choose the child of the root visited the least
+     * instead of the best one, so that each card playable from the root is
+     * explored as much as the others (e.g while the next player chooses
+     * among them), or the best child as usual
+     *
+     * @param even
+     *            true to spread the visits of the root evenly
+     */
+    void spreadRootVisits(boolean even) {
+        evenRoot = even;
+    }
+
+    /**
+     * restricts the cards the other players can play in the nodes created
+     * from now on to the ones they may have according to the given beliefs
+     * (or to all the cards if beliefs is null); the cards a player may have
+     * are ignored in a node where none of them is left
+     *
+     * @param beliefs
+     *            the beliefs of the simulated player, or null
+     */
+    void restrict(BeliefTracker beliefs) {
+        for (PlayerId p : PlayerId.ALL) {
+            possibleCards[p.ordinal()] = (beliefs == null ? PackedCardSet.ALL_CARDS
+                    : beliefs.possibleCards(p));
+        }
+    }
+
+    /**
+     * makes sure that the given number of nodes, with the maximum number of
+     * children each, can be created without growing the arrays; this must be
+     * called before the tree is shared between several threads, which never
+     * grow it (the arrays then take about 150 bytes per node, so the caller
+     * bounds the number of nodes)
+     *
+     * @param nodes
+     *            the number of nodes the tree must be able to hold
+     */
+    void ensureCapacity(int nodes) {
+        if (scores.length < nodes)
+            growNodes(nodes);
+        if (children.length < nodes * MAX_CHILDREN)
+            children = Arrays.copyOf(children, nodes * MAX_CHILDREN);
+    }
+
+    /**
+     * returns the number of nodes of the tree (including, for a tree shared
+     * between several threads, the nodes created by the threads that lost a
+     * compare-and-set, which are never linked)
+     *
+     * @return the number of nodes of the tree
+     */
+    int size() {
+        return Math.min(size, scores.length);
+    }
+
+    /**
+     * returns the packed hand of the simulated player given to reset
+     */
+    long hand() {
+        return hand;
+    }
+
+    /**
+     * returns the packed score of the given node
+     */
+    long score(int node) {
+        return scores[node];
+    }
+
+    /**
+     * returns the packed set of unplayed cards of the given node
+     */
+    long unplayedCards(int node) {
+        return unplayedCards[node];
+    }
+
+    /**
+     * returns the packed trick of the given node
+     */
+    int trick(int node) {
+        return tricks[node];
+    }
+
+    /**
+     * returns the packed cards playable from the given node, the child i
+     * being reached by playing the i-th of them
+     */
+    long playableCards(int node) {
+        return playableCards[node];
+    }
+
+    /**
+     * returns the number of turns played through the given node
+     */
+    int turns(int node) {
+        return turns[node];
+    }
+
+    /**
+     * returns the identity of the child of the given node reached by playing
+     * its given index playable card, or NO_NODE if it was not created yet
+     */
+    int child(int node, int index) {
+        assert index >= 0 && index < PackedCardSet.size(playableCards[node]);
+        return children[firstChild[node] + index];
+    }
+
+    /**
+     * returns the total points of the child of the given node reached by
+     * playing its given index playable card, 0 if it was not created yet
+     */
+    int childPoints(int node, int index) {
+        int child = child(node, index);
+        return child == NO_NODE ? 0 : points[child];
+    }
+
+    /**
+     * returns the number of turns played through the child of the given node
+     * reached by playing its given index playable card, 0 if it was not
+     * created yet
+     */
+    int childTurns(int node, int index) {
+        int child = child(node, index);
+        return child == NO_NODE ? 0 : turns[child];
+    }
+
+    /**
+     * fills the given array with the path from the root to the node from
+     * which the next random turn must be played: the path goes down through
+     * the best children until a node with a child that was not created yet
+     * is reached, this child is then created and added to the path (unless
+     * its state is terminal)
+     *
+     * @param path
+     *            the array receiving the path, of length MAX_PATH_LENGTH
+     * @return the length of the path
+     */
+    int selectPath(int[] path) {
+        int node = ROOT;
+        int length = 0;
+        path[length++] = node;
+        while (true) {
+            int childrenCount = PackedCardSet.size(playableCards[node]);
+            for (int i = 0; i < childrenCount; ++i) {
+                if (children[firstChild[node] + i] == NO_NODE) {
+                    int child = newChild(node, i);
+                    if (child != NO_NODE) {
+                        children[firstChild[node] + i] = child;
+                        path[length++] = child;
+                    }
+                    return length;
+                }
+            }
+            if (childrenCount == 0)
+                return length;
+
+            int index = (node == ROOT && evenRoot ? indexLeastVisitedChild(node)
+                    : indexBestChild(node, CONSTANT_FOR_V));
+            node = children[firstChild[node] + index];
+            path[length++] = node;
+        }
+    }
+
+    /**
+     * same as selectPath, for a tree shared between several threads: a new
+     * child is published with a compare-and-set, so that only one of the
+     * threads expanding the same slot succeeds (the others go on with the
+     * next slots), and each node of the path is given a virtual loss, i.e a
+     * turn without points, as soon as it is selected, so that the other
+     * threads are driven towards other branches until the real points are
+     * added by updateConcurrently; if the tree is full, the path stops at the
+     * node that could not be expanded
+     *
+     * @param path
+     *            the array receiving the path, of length MAX_PATH_LENGTH
+     * @return the length of the path
+     */
+    int selectPathConcurrently(int[] path) {
+        int node = ROOT;
+        int length = 0;
+        INTS.getAndAdd(turns, node, 1);
+        path[length++] = node;
+        while (true) {
+            int childrenCount = PackedCardSet.size(playableCards[node]);
+            for (int i = 0; i < childrenCount; ++i) {
+                int slot = firstChild[node] + i;
+                if ((int) INTS.getAcquire(children, slot) == NO_NODE) {
+                    int child = newChildConcurrently(node, i);
+                    if (child == NO_NODE)
+                        return length;
+                    if (INTS.compareAndSet(children, slot, NO_NODE, child)) {
+                        path[length++] = child;
+                        return length;
+                    }
+                }
+            }
+            if (childrenCount == 0)
+                return length;
+
+            node = (int) INTS.getAcquire(children,
+                    firstChild[node] + indexBestChildConcurrently(node, CONSTANT_FOR_V));
+            INTS.getAndAdd(turns, node, 1);
+            path[length++] = node;
+        }
+    }
+
+    /**
+     * updates the statistics of the nodes of the given path with the given
+     * final score of a turn: each node gets the points of the team that
+     * chose it, i.e the team of the next player of its parent, and the root
+     * gets the points of the other team of the simulated player
+     *
+     * @param path
+     *            the path from the root
+     * @param length
+     *            the length of the path
+     * @param score
+     *            the final packed score of the turn
+     */
+    void update(int[] path, int length, long score) {
+        assert length > 0 && path[0] == ROOT && PackedScore.isValid(score);
+
+        int ownIdTeamScore = PackedScore.turnPoints(score, ownId.team());
+        int otherTeamScore = otherTeamPoints(ownIdTeamScore);
+
+        points[path[0]] += otherTeamScore;
+        ++turns[path[0]];
+
+        for (int i = 0; i < length - 1; ++i) {
+            points[path[i + 1]] += (nextPlayer(path[i]).team() == ownId.team()
+                    ? ownIdTeamScore : otherTeamScore);
+            ++turns[path[i + 1]];
+        }
+    }
+
+    /**
+     * same as update, for a tree shared between several threads: the turns
+     * were already counted by the virtual losses, only the points are added,
+     * atomically
+     */
+    void updateConcurrently(int[] path, int length, long score) {
+        assert length > 0 && path[0] == ROOT && PackedScore.isValid(score);
+
+        int ownIdTeamScore = PackedScore.turnPoints(score, ownId.team());
+        int otherTeamScore = otherTeamPoints(ownIdTeamScore);
+
+        for (int i = 0; i < length - 1; ++i) {
+            INTS.getAndAdd(points, path[i + 1], nextPlayer(path[i]).team() == ownId.team()
+                    ? ownIdTeamScore : otherTeamScore);
+        }
+    }
+
+    /**
+     * returns the child of the given node reached by playing the given card,
+     * or NO_NODE if this card cannot be played from the node or if the child
+     * was not created
+     *
+     * @param node
+     *            the node from which the card is played
+     * @param pkCard
+     *            the packed card played
+     * @return the child reached by playing the card, or NO_NODE
+     */
+    int childOf(int node, int pkCard) {
+        long playable = playableCards[node];
+        if (!PackedCardSet.contains(playable, pkCard))
+            return NO_NODE;
+        /* the cards of a packed set are ordered like their bits */
+        long lowerCards = playable & (PackedCardSet.singleton(pkCard) - 1);
+        return child(node, PackedCardSet.size(lowerCards));
+    }
+
+    /**
+     * returns true if the given node represents the given state, as seen by
+     * the given simulated player with the given hand
+     *
+     * @param node
+     *            the node
+     * @param state
+     *            the state
+     * @param hand
+     *            the packed hand of the simulated player
+     * @param ownId
+     *            the identity of the simulated player
+     * @return true if the node represents the state
+     */
+    boolean represents(int node, TurnState state, long hand, PlayerId ownId) {
+        return ownId == this.ownId
+                && scores[node] == state.packedScore()
+                && unplayedCards[node] == state.packedUnplayedCards()
+                && tricks[node] == state.packedTrick()
+                && PackedCardSet.intersection(hand, unplayedCards[node])
+                == PackedCardSet.intersection(this.hand, unplayedCards[node]);
+    }
+
+    /**
+     * makes the given node the root of the tree, keeping its subtree with
+     * its statistics and forgetting every other node; the nodes kept are
+     * moved to the beginning of the arrays, in the order of their
+     * identities, so that no array is allocated (once newIds is large
+     * enough); this is only valid for a tree grown by a single thread,
+     * without transpositions, in which a node is always created after its
+     * parent and its children are placed after those of the nodes created
+     * before it
+     *
+     * @param node
+     *            the node becoming the root of the tree
+     */
+    void reroot(int node) {
+        assert node >= ROOT && node < size && transpositions == null;
+        if (newIds == null || newIds.length < scores.length)
+            newIds = new int[scores.length];
+
+        /* the nodes of the subtree are marked, every child being found after its parent */
+        Arrays.fill(newIds, node, size, NO_NODE);
+        newIds[node] = ROOT;
+        int newSize = 0;
+        for (int n = node; n < size; ++n) {
+            if (newIds[n] == NO_NODE)
+                continue;
+            newIds[n] = newSize++;
+            int childrenCount = PackedCardSet.size(playableCards[n]);
+            for (int i = 0; i < childrenCount; ++i) {
+                int child = children[firstChild[n] + i];
+                if (child != NO_NODE)
+                    newIds[child] = ROOT;
+            }
+        }
+
+        /* a node is never moved after its old place, so moving the nodes in
+         * the order of their identities never overwrites a node to move */
+        int newChildrenSize = 0;
+        for (int n = node; n < size; ++n) {
+            if (newIds[n] == NO_NODE)
+                continue;
+            int id = newIds[n];
+            int childrenCount = PackedCardSet.size(playableCards[n]);
+            for (int i = 0; i < childrenCount; ++i) {
+                int child = children[firstChild[n] + i];
+                children[newChildrenSize + i] = (child == NO_NODE ? NO_NODE : newIds[child]);
+            }
+            scores[id] = scores[n];
+            unplayedCards[id] = unplayedCards[n];
+            tricks[id] = tricks[n];
+            playableCards[id] = playableCards[n];
+            firstChild[id] = newChildrenSize;
+            points[id] = points[n];
+            turns[id] = turns[n];
+            newChildrenSize += childrenCount;
+        }
+        size = newSize;
+        childrenSize = newChildrenSize;
+    }
+
+    /***************************** private methods useful to clarify the code ******************************/
+
+    /*
+     * the points of the other team, knowing that all the points of a turn
+     * are won, and that the 100 points of a match go to the team that won
+     * every trick
+     */
+    private static int otherTeamPoints(int teamPoints) {
+        return (teamPoints == 0 || teamPoints == Jass.MAX_POINTS_PER_TURN
+                ? Jass.MAX_POINTS_PER_TURN - teamPoints
+                        : Jass.MAX_POINTS_PER_TURN_WITHOUT_A_MATCH - teamPoints);
+    }
+
+    /*
+     * returns the cards the next player of the given trick can play, see
+     * MctsRollout.playableCards, taking into account the cards he may have,
+     * and only one of the equivalent ones when they are grouped
+     */
+    private long playableCards(int trick, long unplayed) {
+        PlayerId player = PackedTrick.player(trick, PackedTrick.size(trick));
+        long cards = PackedCardSet.EMPTY;
+        if (player != ownId)
+            cards = PackedCardSet.intersection(
+                    PackedCardSet.difference(unplayed, hand), possibleCards[player.ordinal()]);
+        long playable = (cards != PackedCardSet.EMPTY ? PackedTrick.playableCards(trick, cards)
+                : MctsRollout.playableCards(trick, unplayed, hand, ownId));
+        return grouping ? PackedTrick.distinctCards(trick, playable, unplayed) : playable;
+    }
+
+    private PlayerId nextPlayer(int node) {
+        return PackedTrick.player(tricks[node], PackedTrick.size(tricks[node]));
+    }
+
+    /*
+     * returns the index of the "best" child of a node, being the one for
+     * which the value of V is the highest (the children are assumed created)
+     */
+    private int indexBestChild(int node, int c) {
+        double Vmax = 0;
+        int index = 0;
+        int childrenCount = PackedCardSet.size(playableCards[node]);
+        for (int i = 0; i < childrenCount; ++i) {
+            int child = children[firstChild[node] + i];
+            double V = ((double) points[child] / (double) turns[child])
+                    + c * Math.sqrt((2 * Math.log(turns[node]) / turns[child]));
+            if (V > Vmax) {
+                Vmax = V;
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    /*
+     * same as indexBestChild, for a tree shared between several threads: the
+     * children are read with acquire, so that their nodes are seen fully
+     * built, and their statistics, updated atomically by the other threads,
+     * with opaque reads (a statistic a little out of date only changes the
+     * order in which the children are explored)
+     */
+    private int indexBestChildConcurrently(int node, int c) {
+        double Vmax = 0;
+        int index = 0;
+        int childrenCount = PackedCardSet.size(playableCards[node]);
+        double logTurns = Math.log((int) INTS.getOpaque(turns, node));
+        for (int i = 0; i < childrenCount; ++i) {
+            int child = (int) INTS.getAcquire(children, firstChild[node] + i);
+            int childTurns = (int) INTS.getOpaque(turns, child);
+            double V = ((double) (int) INTS.getOpaque(points, child) / (double) childTurns)
+                    + c * Math.sqrt((2 * logTurns / childTurns));
+            if (V > Vmax) {
+                Vmax = V;
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    /*
+     * returns the index of the child of a node visited the least (the
+     * children are assumed created)
+     */
+    private int indexLeastVisitedChild(int node) {
+        int index = 0;
+        int childrenCount = PackedCardSet.size(playableCards[node]);
+        for (int i = 1; i < childrenCount; ++i) {
+            if (turns[children[firstChild[node] + i]] < turns[children[firstChild[node] + index]])
+                index = i;
+        }
+        return index;
+    }
+
+    /*
+     * creates the child of the given node reached by playing its index
+     * playable card, without linking it, and returns its identity, or
+     * NO_NODE if its state is terminal; with transpositions, returns the
+     * node of the same state chosen by the same team if there is one
+     */
+    private int newChild(int node, int index) {
+        int pkCard = PackedCardSet.get(playableCards[node], index);
+        long score = scores[node];
+        int trick = PackedTrick.withAddedCard(tricks[node], pkCard);
+        if (PackedTrick.isFull(trick)) {
+            score = PackedScore.withAdditionalTrick(score,
+                    PackedTrick.winningPlayer(trick).team(), PackedTrick.points(trick));
+            trick = PackedTrick.nextEmpty(trick);
+        }
+        if (trick == PackedTrick.INVALID)
+            return NO_NODE;
+        long unplayed = PackedCardSet.remove(unplayedCards[node], pkCard);
+        if (transpositions == null)
+            return newNode(score, unplayed, trick);
+
+        /* only the card played, the trick and maybe the score change */
+        long key = keys[node] ^ Zobrist.card(pkCard)
+                ^ Zobrist.trick(tricks[node]) ^ Zobrist.trick(trick);
+        if (score != scores[node])
+            key ^= Zobrist.score(scores[node]) ^ Zobrist.score(score);
+        long teamKey = key ^ Zobrist.team(nextPlayer(node).team());
+        int child = transpositions.get(teamKey);
+        /* the state is checked, in case two keys collide */
+        if (child != TranspositionTable.NO_VALUE && scores[child] == score
+                && unplayedCards[child] == unplayed && tricks[child] == trick)
+            return child;
+
+        child = newNode(score, unplayed, trick);
+        keys[child] = key;
+        transpositions.put(teamKey, child,
+                Math.min(PackedCardSet.size(unplayed), TranspositionTable.MAX_PRIORITY));
+        return child;
+    }
+
+    /*
+     * same as newChild, for a tree shared between several threads: the
+     * identity and the children of the node are reserved atomically, and its
+     * virtual loss is counted before it can be seen by the other threads;
+     * returns NO_NODE if the state is terminal or if the tree is full
+     */
+    private int newChildConcurrently(int node, int index) {
+        int pkCard = PackedCardSet.get(playableCards[node], index);
+        long score = scores[node];
+        int trick = PackedTrick.withAddedCard(tricks[node], pkCard);
+        if (PackedTrick.isFull(trick)) {
+            score = PackedScore.withAdditionalTrick(score,
+                    PackedTrick.winningPlayer(trick).team(), PackedTrick.points(trick));
+            trick = PackedTrick.nextEmpty(trick);
+        }
+        if (trick == PackedTrick.INVALID)
+            return NO_NODE;
+
+        long unplayed = PackedCardSet.remove(unplayedCards[node], pkCard);
+        long playable = playableCards(trick, unplayed);
+        int childrenCount = PackedCardSet.size(playable);
+        int child = (int) SIZE.getAndAdd(this, 1);
+        int first = (int) CHILDREN_SIZE.getAndAdd(this, childrenCount);
+        if (child >= scores.length || first + childrenCount > children.length)
+            return NO_NODE;
+
+        setNode(child, score, unplayed, trick, playable, first);
+        turns[child] = 1;
+        return child;
+    }
+
+    /*
+     * creates a node, growing the arrays if needed, and returns its identity
+     */
+    private int newNode(long score, long unplayed, int trick) {
+        long playable = playableCards(trick, unplayed);
+        int childrenCount = PackedCardSet.size(playable);
+        if (size == scores.length)
+            growNodes(2 * size);
+        if (childrenSize + childrenCount > children.length)
+            children = Arrays.copyOf(children,
+                    Math.max(2 * children.length, childrenSize + childrenCount));
+
+        int node = size++;
+        setNode(node, score, unplayed, trick, playable, childrenSize);
+        childrenSize += childrenCount;
+        return node;
+    }
+
+    private void setNode(int node, long score, long unplayed, int trick,
+            long playable, int first) {
+        scores[node] = score;
+        unplayedCards[node] = unplayed;
+        tricks[node] = trick;
+        playableCards[node] = playable;
+        firstChild[node] = first;
+        points[node] = 0;
+        turns[node] = 0;
+        Arrays.fill(children, first, first + PackedCardSet.size(playable), NO_NODE);
+    }
+
+    private void growNodes(int capacity) {
+        scores = Arrays.copyOf(scores, capacity);
+        unplayedCards = Arrays.copyOf(unplayedCards, capacity);
+        tricks = Arrays.copyOf(tricks, capacity);
+        playableCards = Arrays.copyOf(playableCards, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        points = Arrays.copyOf(points, capacity);
+        turns = Arrays.copyOf(turns, capacity);
+        if (keys != null)
+            keys = Arrays.copyOf(keys, capacity);
+    }
+}
@@ -98,6 +98,23 @@ public final class Meld implements Comparable<Meld> {
         return allIn;
     }
 
+    /**
+     * returns the index in ALL of the meld made of the given cards
+     * 
+     * @param cards
+     *            the cards of a meld
+     * @return the index of the meld in ALL
+     * @throws IllegalArgumentException
+     *             if no meld of ALL is made of these cards
+     */
+    static int indexOf(CardSet cards) {
+        for (int i = 0; i < ALL.size(); ++i) {
+            if (ALL.get(i).cards().equals(cards))
+                return i;
+        }
+        throw new IllegalArgumentException("unknown meld: " + cards);
+    }
+
     private final CardSet cards;
     private final int points;
 
@@ -8,12 +8,14 @@ import static java.util.Collections.unmodifiableSet;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.TreeSet;
 
+import ch.epfl.javass.Preconditions;
+
 /** class representing the behavior of a set of melds **/
 public final class MeldSet implements Comparable<MeldSet>{
 
@@ -27,31 +29,51 @@ public final class MeldSet implements Comparable<MeldSet>{
      * @return the medlSet of the given melds
      */
     public static MeldSet of(Collection<Meld> melds) {
-        if (!mutuallyDisjoint(melds))
-            throw new IllegalArgumentException();
+        Preconditions.checkArgument(mutuallyDisjoint(melds));
         return new MeldSet(melds);
     }
 
     private MeldSet(Collection<Meld> melds) {
         /*
          * Tree set to assure ourself that each "for each loop" will be executed
-         * in the same order
+         * in the same order; two melds of the same strength but of different
+         * colors are equal for compareTo, so their cards break the tie (or the
+         * set would keep only one of them)
          */
-        this.melds = unmodifiableSet(new TreeSet<>(melds));
+        Set<Meld> sorted = new TreeSet<>(Comparator.<Meld> naturalOrder()
+                .thenComparingLong(m -> m.cards().packed()));
+        sorted.addAll(melds);
+        this.melds = unmodifiableSet(sorted);
     }
 
     private static boolean mutuallyDisjoint(Collection<Meld> melds) {
-        // we keep set<Card> to be able to use mutuallyDisjoint !
-        List<Set<Card>> allSetsOfCards = new ArrayList<>();
+        // the melds are disjoint if no card is in two of their packed sets
+        long cards = PackedCardSet.EMPTY;
         for (Meld m : melds) {
-            Set<Card> cardsInM = new HashSet<>();
-            // we create a set of card because we can't add a card set
-            for (int i = 0; i < m.cards().size(); ++i) {
-                cardsInM.add(m.cards().get(i));
-            }
-            allSetsOfCards.add(cardsInM);
+            long cardsInM = m.cards().packed();
+            if ((cards & cardsInM) != PackedCardSet.EMPTY)
+                return false;
+            cards |= cardsInM;
         }
-        return Sets.mutuallyDisjoint(allSetsOfCards);
+        return true;
+    }
+
+    /**
+     * returns the meldSet represented by the given packed meld set
+     * 
+     * @param pkMeldSet
+     *            the packed meld set
+     * @return the meldSet of the melds of Meld.ALL of the packed meld set
+     * @throws IllegalArgumentException
+     *             if the packed meld set is not valid
+     */
+    public static MeldSet ofPacked(long pkMeldSet) {
+        Preconditions.checkArgument(PackedMeldSet.isValid(pkMeldSet));
+        List<Meld> melds = new ArrayList<>(PackedMeldSet.size(pkMeldSet));
+        for (int i = 0; i < PackedMeldSet.size(pkMeldSet); ++i) {
+            melds.add(Meld.ALL.get(PackedMeldSet.meld(pkMeldSet, i)));
+        }
+        return new MeldSet(melds);
     }
 
     /**
@@ -68,6 +90,18 @@ public final class MeldSet implements Comparable<MeldSet>{
         return r;
     }
 
+    /**
+     * returns the meldSet of the given hand having the most points (see
+     * PackedMeldSet.best, which finds it without enumerating allIn)
+     * 
+     * @param hand
+     *            the given CardSet
+     * @return the best meldSet of the hand
+     */
+    public static MeldSet best(CardSet hand) {
+        return ofPacked(PackedMeldSet.best(hand.packed()));
+    }
+
     /**
      * return the number of points of this meldSet
      * 
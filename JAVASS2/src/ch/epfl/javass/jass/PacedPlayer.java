@@ -33,7 +33,11 @@ public final class PacedPlayer implements Player {
         if (endingTime - startingTime < minTimeInMilliSeconds) {
             try {
                 Thread.sleep((long)( minTimeInMilliSeconds - (endingTime - startingTime) ));
-            } catch (InterruptedException e) { /* ignore */ }
+            } catch (InterruptedException e) {
+                /* the card is played at once, the thread of the game (see
+                 * GameHost) still being told that it has to stop */
+                Thread.currentThread().interrupt();
+            }
         }
         return cardToPlay;
     }
@@ -101,6 +105,15 @@ public final class PacedPlayer implements Player {
         return underlyingPlayer.chooseTrump(hand);
     }
 
+    /*/
+     * (non-Javadoc)
+     * @see ch.epfl.javass.jass.Player#choseToChibrer()
+     */
+    @Override
+    public boolean choseToChibrer() {
+        return underlyingPlayer.choseToChibrer();
+    }
+
     /* (non-Javadoc)
      * @see ch.epfl.javass.jass.Player#selectMeldSet(java.util.List)
      */
@@ -1,5 +1,6 @@
 package ch.epfl.javass.jass; 
 
+import java.util.SplittableRandom;
 import java.util.StringJoiner;
 import ch.epfl.javass.bits.Bits64;
 
@@ -19,6 +20,13 @@ public final class PackedCardSet implements Jass {
     public final static long ALL_CARDS = ~0 ^ cardSetMask();
     private final static long[] TAB_TRUMP_ORDER = createTabTrump();
     private final static long[] TAB_COLOR = createTabColor();
+    /* position of the index bit 1 of each byte, at index byte | index << 8 */
+    private final static byte[] TAB_SELECT_IN_BYTE = createTabSelectInByte();
+    /* mask of the lowest byte */
+    private final static int BYTE_MASK = 0xFF;
+    /* a 1 in the lowest bit, and in the highest bit, of each byte */
+    private final static long BYTES_ONES = 0x0101_0101_0101_0101L;
+    private final static long BYTES_HIGH_BITS = 0x8080_8080_8080_8080L;
 
     /**
      * returns true if the given value represents a valid set of cards, i.e if
@@ -99,10 +107,34 @@ public final class PackedCardSet implements Jass {
      */
     public static int get(long pkCardSet, int index) {
         assert isValid(pkCardSet) && index >= 0 && index < size(pkCardSet);
-        for (int i = 0; i < index; ++i) {
-            pkCardSet ^= Long.lowestOneBit(pkCardSet);
-        }
-        return Long.numberOfTrailingZeros(pkCardSet);
+        /* the number of cards in each byte and in the bytes below it is
+         * computed in parallel in every byte (broadword rank), the byte
+         * containing the card is the number of bytes whose cumulated count is
+         * at most index, and the card is found in this byte with a table */
+        long counts = pkCardSet - ((pkCardSet >>> 1) & 0x5555_5555_5555_5555L);
+        counts = (counts & 0x3333_3333_3333_3333L) + ((counts >>> 2) & 0x3333_3333_3333_3333L);
+        long cumulatedCounts = ((counts + (counts >>> 4)) & 0x0F0F_0F0F_0F0F_0F0FL) * BYTES_ONES;
+        long atMostIndex = ((index * BYTES_ONES | BYTES_HIGH_BITS) - cumulatedCounts) & BYTES_HIGH_BITS;
+        int shift = Long.bitCount(atMostIndex) * Byte.SIZE;
+        int indexInByte = index - (int) (((cumulatedCounts << Byte.SIZE) >>> shift) & BYTE_MASK);
+        return shift + TAB_SELECT_IN_BYTE[((int) (pkCardSet >>> shift) & BYTE_MASK)
+                                          | indexInByte << Byte.SIZE];
+    }
+
+    /**
+     * returns a card of the given packed card set (assumed not empty) chosen
+     * uniformly at random with the given generator, which is used exactly like
+     * get(pkCardSet, rng.nextInt(size(pkCardSet)))
+     * 
+     * @param pkCardSet
+     *            : the packed card set
+     * @param rng
+     *            : the generator used to choose the card
+     * @return a packed card of pkCardSet chosen at random
+     */
+    public static int randomMember(long pkCardSet, SplittableRandom rng) {
+        assert isValid(pkCardSet) && !isEmpty(pkCardSet);
+        return get(pkCardSet, rng.nextInt(size(pkCardSet)));
     }
 
     /**
@@ -293,6 +325,18 @@ public final class PackedCardSet implements Jass {
         return tab;
     }
 
+    private static byte[] createTabSelectInByte() {
+        byte[] tab = new byte[(BYTE_MASK + 1) * Byte.SIZE];
+        for (int b = 0; b <= BYTE_MASK; ++b) {
+            int index = 0;
+            for (int bit = 0; bit < Byte.SIZE; ++bit) {
+                if ((b & (1 << bit)) != 0)
+                    tab[b | index++ << Byte.SIZE] = (byte) bit;
+            }
+        }
+        return tab;
+    }
+
     private static long[] createTabColor() {
         long[] tab = new long[Card.Color.COUNT];
         for(int i = 0; i< Card.Color.COUNT;++i) {
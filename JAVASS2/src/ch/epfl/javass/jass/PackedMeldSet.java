@@ -0,0 +1,258 @@
+package ch.epfl.javass.jass;
+
+import java.util.StringJoiner;
+
+/**
+ * @author tancrede guillou (287334)
+ * @author ouriel sebbagh (287796)
+ */
+
+/**
+ * Class defining the behavior of a set of mutually disjoint melds,
+ * represented as a long : each byte holds the index in Meld.ALL of a meld
+ * plus one (0 for no meld), the indices being in increasing order from the
+ * lowest byte; the cards of each meld of Meld.ALL being a packed card set,
+ * the melds of a hand are found with bitwise operations, without any
+ * allocation
+ **/
+public final class PackedMeldSet {
+    private PackedMeldSet() {
+    }
+
+    /** the long representing an empty set of melds **/
+    public final static long EMPTY = 0L;
+
+    /* a hand of 9 cards has at most 3 disjoint melds, of 3 cards each */
+    private final static int MAX_SIZE = Jass.HAND_SIZE / 3;
+    private final static int SLOT_SIZE = Byte.SIZE;
+    private final static int SLOT_MASK = 0xFF;
+
+    /* packed cards and points of each meld of Meld.ALL */
+    private final static long[] TAB_CARDS = createTabCards();
+    private final static int[] TAB_POINTS = createTabPoints();
+    /* strength of the melds in the comparison of the meldSets (points,
+     * then number of cards, then rank of the highest card) */
+    private final static int[] TAB_STRENGTH = createTabStrength();
+
+    /**
+     * returns true if the given long is a valid packed meld set, i.e if its
+     * indices are valid, increasing, and if its melds are disjoint
+     *
+     * @param pkMeldSet
+     *            the long to check
+     * @return true if the long is a valid packed meld set
+     */
+    public static boolean isValid(long pkMeldSet) {
+        long cards = PackedCardSet.EMPTY;
+        int previous = -1;
+        for (int i = 0; i < Long.SIZE / SLOT_SIZE; ++i) {
+            int slot = (int) (pkMeldSet >>> (i * SLOT_SIZE)) & SLOT_MASK;
+            if (slot == 0) {
+                /* the slots after an empty one are empty */
+                return pkMeldSet >>> (i * SLOT_SIZE) == 0;
+            }
+            int meld = slot - 1;
+            if (meld <= previous || meld >= TAB_CARDS.length
+                    || (cards & TAB_CARDS[meld]) != 0)
+                return false;
+            cards |= TAB_CARDS[meld];
+            previous = meld;
+        }
+        return true;
+    }
+
+    /**
+     * returns the packed meld set of the given hand with the most points;
+     * among the ones with the same points, the one whose highest meld is the
+     * strongest, and then the first one in the order of Meld.ALL
+     *
+     * @param pkHand
+     *            the packed hand
+     * @return the best packed meld set of the hand
+     */
+    public static long best(long pkHand) {
+        assert PackedCardSet.isValid(pkHand);
+        return best(pkHand, 0, EMPTY, 0, EMPTY);
+    }
+
+    /**
+     * returns the number of melds of the given packed meld set
+     *
+     * @param pkMeldSet
+     *            the packed meld set
+     * @return the number of melds
+     */
+    public static int size(long pkMeldSet) {
+        assert isValid(pkMeldSet);
+        return (Long.SIZE - Long.numberOfLeadingZeros(pkMeldSet) + SLOT_SIZE - 1) / SLOT_SIZE;
+    }
+
+    /**
+     * returns the index in Meld.ALL of the meld of the given index of the
+     * packed meld set
+     *
+     * @param pkMeldSet
+     *            the packed meld set
+     * @param index
+     *            the index of the meld in the set
+     * @return the index of the meld in Meld.ALL
+     */
+    public static int meld(long pkMeldSet, int index) {
+        assert isValid(pkMeldSet) && 0 <= index && index < size(pkMeldSet);
+        return ((int) (pkMeldSet >>> (index * SLOT_SIZE)) & SLOT_MASK) - 1;
+    }
+
+    /**
+     * returns the packed meld set with the given meld added (its cards must
+     * not be in the set)
+     *
+     * @param pkMeldSet
+     *            the packed meld set
+     * @param meld
+     *            the index of the meld in Meld.ALL
+     * @return the packed meld set with the meld added
+     */
+    public static long add(long pkMeldSet, int meld) {
+        assert isValid(pkMeldSet) && 0 <= meld && meld < TAB_CARDS.length
+                && (cards(pkMeldSet) & TAB_CARDS[meld]) == 0;
+        /* the slots of the greater indices are moved up to keep the order */
+        int slot = 0;
+        while (slot < size(pkMeldSet) && meld(pkMeldSet, slot) < meld)
+            ++slot;
+        long lower = slot == 0 ? 0 : pkMeldSet & (~0L >>> (Long.SIZE - slot * SLOT_SIZE));
+        long upper = slot * SLOT_SIZE == Long.SIZE ? 0 : pkMeldSet >>> (slot * SLOT_SIZE);
+        return lower | ((long) (meld + 1) << (slot * SLOT_SIZE))
+                | (upper << ((slot + 1) * SLOT_SIZE));
+    }
+
+    /**
+     * returns the number of points of the given packed meld set
+     *
+     * @param pkMeldSet
+     *            the packed meld set
+     * @return the number of points
+     */
+    public static int points(long pkMeldSet) {
+        assert isValid(pkMeldSet);
+        int points = 0;
+        for (long s = pkMeldSet; s != 0; s >>>= SLOT_SIZE) {
+            points += TAB_POINTS[((int) s & SLOT_MASK) - 1];
+        }
+        return points;
+    }
+
+    /**
+     * returns the packed set of the cards of the melds of the given packed
+     * meld set
+     *
+     * @param pkMeldSet
+     *            the packed meld set
+     * @return the packed set of its cards
+     */
+    public static long cards(long pkMeldSet) {
+        assert isValid(pkMeldSet);
+        long cards = PackedCardSet.EMPTY;
+        for (long s = pkMeldSet; s != 0; s >>>= SLOT_SIZE) {
+            cards |= TAB_CARDS[((int) s & SLOT_MASK) - 1];
+        }
+        return cards;
+    }
+
+    /**
+     * returns the packed set of the cards of the meld of the given index in
+     * Meld.ALL
+     *
+     * @param meld
+     *            the index of the meld in Meld.ALL
+     * @return the packed set of its cards
+     */
+    public static long meldCards(int meld) {
+        return TAB_CARDS[meld];
+    }
+
+    /**
+     * returns a textual representation of the packed meld set
+     *
+     * @param pkMeldSet
+     *            the packed meld set
+     * @return a textual representation of the packed meld set
+     */
+    public static String toString(long pkMeldSet) {
+        assert isValid(pkMeldSet);
+        StringJoiner j = new StringJoiner(", ", "{", "}");
+        for (int i = 0; i < size(pkMeldSet); ++i) {
+            j.add(PackedCardSet.toString(TAB_CARDS[meld(pkMeldSet, i)]));
+        }
+        return j.toString();
+    }
+
+    /***************************** private methods useful to clarify the code ******************************/
+
+    /*
+     * returns the best of the given packed meld set (made of the given
+     * cards) and of the meld sets obtained by adding melds of index at least
+     * the given one
+     */
+    private static long best(long pkHand, int from, long pkMeldSet, int size, long cards) {
+        long best = pkMeldSet;
+        if (size == MAX_SIZE)
+            return best;
+        for (int m = from; m < TAB_CARDS.length; ++m) {
+            long meld = TAB_CARDS[m];
+            if ((meld & ~pkHand) == 0 && (meld & cards) == 0) {
+                long withMeld = best(pkHand, m + 1,
+                        pkMeldSet | ((long) (m + 1) << (size * SLOT_SIZE)), size + 1, cards | meld);
+                if (isBetter(withMeld, best))
+                    best = withMeld;
+            }
+        }
+        return best;
+    }
+
+    private static boolean isBetter(long pkMeldSetL, long pkMeldSetR) {
+        int pointsL = points(pkMeldSetL);
+        int pointsR = points(pkMeldSetR);
+        if (pointsL != pointsR)
+            return pointsL > pointsR;
+        return highestStrength(pkMeldSetL) > highestStrength(pkMeldSetR);
+    }
+
+    private static int highestStrength(long pkMeldSet) {
+        int strength = 0;
+        for (long s = pkMeldSet; s != 0; s >>>= SLOT_SIZE) {
+            strength = Math.max(strength, TAB_STRENGTH[((int) s & SLOT_MASK) - 1]);
+        }
+        return strength;
+    }
+
+    private static long[] createTabCards() {
+        long[] tab = new long[Meld.ALL.size()];
+        for (int m = 0; m < tab.length; ++m) {
+            tab[m] = Meld.ALL.get(m).cards().packed();
+        }
+        return tab;
+    }
+
+    private static int[] createTabPoints() {
+        int[] tab = new int[Meld.ALL.size()];
+        for (int m = 0; m < tab.length; ++m) {
+            tab[m] = Meld.ALL.get(m).points();
+        }
+        return tab;
+    }
+
+    private static int[] createTabStrength() {
+        int[] tab = new int[Meld.ALL.size()];
+        for (int m = 0; m < tab.length; ++m) {
+            long cards = TAB_CARDS[m];
+            int highestRank = 0;
+            for (int i = 0; i < PackedCardSet.size(cards); ++i) {
+                highestRank = Math.max(highestRank,
+                        PackedCard.rank(PackedCardSet.get(cards, i)).ordinal());
+            }
+            tab[m] = (TAB_POINTS[m] * Jass.HAND_SIZE + PackedCardSet.size(cards))
+                    * Card.Rank.COUNT + highestRank;
+        }
+        return tab;
+    }
+}
@@ -33,6 +33,23 @@ public final class PackedTrick implements Jass {
     private final static int START_TRUMP = 30;
     /* the range of bits representing the trump in the packed representation of the trick */
     private final static int RANGE_TRUMP = 2;
+    /* the number of bits representing the cards in the packed representation of
+     * the trick, the index, first player and trump being above them (Trick and
+     * Zobrist index their tables by these upper bits) */
+    final static int CARDS_BITS = START_INDEX;
+    /* the number of bits of each card of the trick, the card i being on the
+     * bits i * CARD_BITS to (i + 1) * CARD_BITS - 1 (used by Zobrist) */
+    final static int CARD_BITS = RANGE_CARD;
+    /* number of possible packed cards (valid or not), i.e the size of a line of TAB_STRENGTH */
+    private final static int PACKED_CARDS = 1 << RANGE_CARD;
+    /* strength of each packed card, for each trump and base color: the card
+     * winning a trick is the one with the highest strength */
+    private final static byte[] TAB_STRENGTH = createTabStrength();
+    /* the jack of each trump color, as a packed card set */
+    private final static long[] TAB_JACK_OF_TRUMP = createTabJackOfTrump();
+    /* the packed cards of each color from the weakest to the strongest, for
+     * each trump */
+    private final static int[][][] TAB_ORDER = createTabOrder();
 
     /**
      * return true if the given integer represents a valid packaged trick, i.e
@@ -258,28 +275,73 @@ public final class PackedTrick implements Jass {
 
         if (isEmpty(pkTrick)) return pkHand;
 
+        Color trump = trump(pkTrick);
+        Color baseColor = PackedCard.color(card(pkTrick, 0));
+        long trumps = PackedCardSet.subsetOfColor(pkHand, trump);
+
         /* in either case, all cards of the same color as the base color can be played,
          * EVEN if the base color is the trump */
-        long cardsFollowing = PackedCardSet.subsetOfColor(pkHand,
-                baseColor(pkTrick));
+        long cardsFollowing = PackedCardSet.subsetOfColor(pkHand, baseColor);
 
         /* if the player has no cards of the base color in his hand, he can play everything */
-        if (cardsFollowing == 0L) 
-            return PackedCardSet.union(PackedCardSet.difference(pkHand, 
-                    PackedCardSet.subsetOfColor(pkHand, trump(pkTrick))), possibleCuts(pkTrick, pkHand));
+        if (cardsFollowing == PackedCardSet.EMPTY)
+            return PackedCardSet.union(PackedCardSet.difference(pkHand, trumps),
+                    possibleCuts(pkTrick, pkHand, trumps));
 
         /* if the base color is the trump color, and the player has only the jack */
-        if (baseColor(pkTrick).equals(trump(pkTrick))
-                && cardsFollowing == PackedCardSet.singleton(
-                        PackedCard.pack(trump(pkTrick), Card.Rank.JACK)))
+        if (baseColor == trump && cardsFollowing == TAB_JACK_OF_TRUMP[trump.ordinal()])
             return pkHand;
 
         /* finally we return the union between our set of playable cards, 
          * along with the set of trump cards we could use to cut */
-        return PackedCardSet.union(cardsFollowing, possibleCuts(pkTrick, pkHand));
+        return PackedCardSet.union(cardsFollowing, possibleCuts(pkTrick, pkHand, trumps));
 
     }
 
+    /**
+     * returns the cards of the given packed set which lead to different
+     * futures once played in the given trick : of the cards of a color with
+     * the same points and no other live card of this color between them (the
+     * unplayed cards and the cards of the trick), only the weakest one is
+     * kept, since playing any of them changes nothing but its name
+     * 
+     * @param pkTrick
+     *            the packed trick, not full
+     * @param pkCards
+     *            the packed cards which can be played
+     * @param pkUnplayedCards
+     *            the packed set of unplayed cards
+     * @return the packed subset of the cards leading to different futures
+     */
+    public static long distinctCards(int pkTrick, long pkCards, long pkUnplayedCards) {
+        assert isValid(pkTrick) && !isFull(pkTrick);
+
+        Color trump = trump(pkTrick);
+        long live = pkUnplayedCards;
+        for (int i = 0; i < size(pkTrick); ++i) {
+            live = PackedCardSet.add(live, card(pkTrick, i));
+        }
+
+        long distinct = PackedCardSet.EMPTY;
+        for (Color color : Color.ALL) {
+            if (PackedCardSet.subsetOfColor(pkCards, color) == PackedCardSet.EMPTY)
+                continue;
+            /* the points of the last card kept, -1 after a live card */
+            int points = -1;
+            for (int pkCard : TAB_ORDER[trump.ordinal()][color.ordinal()]) {
+                if (PackedCardSet.contains(pkCards, pkCard)) {
+                    if (PackedCard.points(trump, pkCard) != points) {
+                        distinct = PackedCardSet.add(distinct, pkCard);
+                        points = PackedCard.points(trump, pkCard);
+                    }
+                } else if (PackedCardSet.contains(live, pkCard)) {
+                    points = -1;
+                }
+            }
+        }
+        return distinct;
+    }
+
     /**
      * returns the trick's value, taking into account the 5 "last trick" points
      * 
@@ -308,6 +370,18 @@ public final class PackedTrick implements Jass {
         return player(pkTrick, winningIndexCard(pkTrick));
     }
 
+    /**
+     * returns the card leading the trick (assumed not empty)
+     * 
+     * @param pkTrick
+     *            the Packed trick given
+     * @return the packed card leading the trick (assumed not empty)
+     */
+    public static int winningCard(int pkTrick) {
+        assert isValid(pkTrick) && size(pkTrick) > 0;
+        return card(pkTrick, winningIndexCard(pkTrick));
+    }
+
     /**
      * returns a visual representation of the trick
      * 
@@ -327,39 +401,86 @@ public final class PackedTrick implements Jass {
     /****************************** private methods useful to clarify the code ********************************/
 
     private static int winningIndexCard(int pkTrick) {
+        /* the line of the table of the trump and of the base color */
+        int line = (Bits32.extract(pkTrick, START_TRUMP, RANGE_TRUMP) * Color.COUNT
+                + PackedCard.color(card(pkTrick, 0)).ordinal()) * PACKED_CARDS;
         int winningIndex = 0;
-        for (int i = 1; i < size(pkTrick); ++i) {
-            if (isValid(card(pkTrick, i)) && PackedCard.isBetter(trump(pkTrick),
-                    card(pkTrick, i), card(pkTrick, winningIndex))) {
+        int winningStrength = TAB_STRENGTH[line + card(pkTrick, 0)];
+        for (int i = 1; i < NB_CARDS_PER_TRICK; ++i) {
+            /* an invalid card has no strength */
+            int strength = TAB_STRENGTH[line + card(pkTrick, i)];
+            if (strength > winningStrength) {
+                winningStrength = strength;
                 winningIndex = i;
             }
         }
         return winningIndex;
     }
 
-    private static long possibleCuts(int pkTrick, long pkHand) {
+    private static long possibleCuts(int pkTrick, long pkHand, long trumps) {
         int bestPkCard = card(pkTrick, winningIndexCard(pkTrick));
-        long possibilities;
 
         /* if the best card is a trump, then the player can either cut with
          * stronger trumps, or cut with smaller trumps if he has ONLY smaller
          * trump */
-        if (PackedCard.color(bestPkCard).equals(trump(pkTrick))) {
-            possibilities = PackedCardSet.intersection(pkHand,
+        if (PackedCard.color(bestPkCard) == trump(pkTrick)) {
+            long possibilities = PackedCardSet.intersection(trumps,
                     PackedCardSet.trumpAbove(bestPkCard));
             /* if the player has no higher trumps, he can cut with smaller ones
              * (if he has some)
              * AND if he has no other cards than trump cards */
-            if (possibilities == 0 && pkHand == PackedCardSet
-                    .subsetOfColor(pkHand, trump(pkTrick)))
-                return PackedCardSet.subsetOfColor(pkHand, trump(pkTrick));
+            if (possibilities == PackedCardSet.EMPTY && pkHand == trumps)
+                return trumps;
 
             return possibilities;
         }
 
         /* if the best card is not a trump, the player can cut with everyone of
          * his trumps */
-        return PackedCardSet.subsetOfColor(pkHand, trump(pkTrick));
+        return trumps;
+    }
+
+    /*
+     * the strength of a card is 0 if it is invalid or if it is neither a
+     * trump nor of the base color, its rank (plus 1) if it is of the base
+     * color, and its trump rank plus the number of ranks (plus 1) if it is a
+     * trump, so that any trump is stronger than any card of the base color
+     */
+    private static byte[] createTabStrength() {
+        byte[] tab = new byte[Color.COUNT * Color.COUNT * PACKED_CARDS];
+        for (Color trump : Color.ALL) {
+            for (Color baseColor : Color.ALL) {
+                int line = (trump.ordinal() * Color.COUNT + baseColor.ordinal()) * PACKED_CARDS;
+                for (Card.Rank rank : Card.Rank.ALL) {
+                    tab[line + PackedCard.pack(trump, rank)] = (byte) (Card.Rank.COUNT
+                            + rank.trumpOrdinal() + 1);
+                    if (baseColor != trump)
+                        tab[line + PackedCard.pack(baseColor, rank)] = (byte) (rank.ordinal() + 1);
+                }
+            }
+        }
+        return tab;
+    }
+
+    private static int[][][] createTabOrder() {
+        int[][][] tab = new int[Color.COUNT][Color.COUNT][Card.Rank.COUNT];
+        for (Color trump : Color.ALL) {
+            for (Color color : Color.ALL) {
+                for (Card.Rank rank : Card.Rank.ALL) {
+                    int strength = (color == trump ? rank.trumpOrdinal() : rank.ordinal());
+                    tab[trump.ordinal()][color.ordinal()][strength] = PackedCard.pack(color, rank);
+                }
+            }
+        }
+        return tab;
+    }
+
+    private static long[] createTabJackOfTrump() {
+        long[] tab = new long[Color.COUNT];
+        for (Color trump : Color.ALL) {
+            tab[trump.ordinal()] = PackedCardSet.singleton(PackedCard.pack(trump, Card.Rank.JACK));
+        }
+        return tab;
     }
 
 }
\ No newline at end of file
@@ -1,6 +1,5 @@
 package ch.epfl.javass.jass; 
 
-import java.util.List;
 import java.util.Map;
 
 import ch.epfl.javass.jass.Card.Color;
@@ -44,10 +43,7 @@ public interface Player {
     default MeldSet selectMeldSet(CardSet hand) {
         assert hand != null;
         //the default value is the best MeldSet
-        List<MeldSet> meldSets = MeldSet.allIn(hand);
-        //we reverse the order : index 0 give the best MeldSet
-        meldSets.sort((m1,m2)-> Integer.compare(m2.points(), m1.points()));
-        return meldSets.get(0);
+        return MeldSet.best(hand);
     }
 
     /**
@@ -0,0 +1,54 @@
+package ch.epfl.javass.jass;
+
+import java.util.SplittableRandom;
+
+/**
+ * @author tancrede guillou (287334)
+ * @author ouriel sebbagh (287796)
+ */
+
+/**
+ * Interface representing the way the cards of the random turns of the
+ * simulated player are chosen (see MctsPlayer.withRolloutPolicy) : a policy
+ * works on packed cards and tricks only, since it is called for every card
+ * of every random turn
+ **/
+public interface RolloutPolicy {
+
+    /** plays any playable card, with the same probability **/
+    RolloutPolicy RANDOM = (pkTrick, pkPlayableCards, rng) -> PackedCardSet
+            .randomMember(pkPlayableCards, rng);
+
+    /**
+     * leads with any card, then wins the trick with the weakest card which
+     * can win it, or plays the card with the fewest points if none can
+     **/
+    RolloutPolicy WIN_OR_DISCARD = new HeuristicPolicy(false, false);
+
+    /**
+     * plays like WIN_OR_DISCARD, except that when the team mate leads the
+     * trick the card with the most points is given to him
+     **/
+    RolloutPolicy SMEAR = new HeuristicPolicy(true, false);
+
+    /**
+     * plays like SMEAR, except that trumps are neither discarded nor given
+     * to the team mate while there are other cards, and only win the tricks
+     * worth a few points already
+     **/
+    RolloutPolicy SAVE_TRUMPS = new HeuristicPolicy(true, true);
+
+    /**
+     * returns the card to play in a random turn by the next player of the
+     * given trick
+     * 
+     * @param pkTrick
+     *            the packed trick, not full
+     * @param pkPlayableCards
+     *            the packed cards the player can play, not empty
+     * @param rng
+     *            the generator of the random turn
+     * @return the packed card to play, one of the playable cards
+     */
+    int cardToPlay(int pkTrick, long pkPlayableCards, SplittableRandom rng);
+}
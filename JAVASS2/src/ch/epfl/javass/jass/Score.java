@@ -14,10 +14,10 @@ public final class Score {
         this.packedScore = packedScores;
     }
 
-    private long packedScore;
+    private final long packedScore;
 
     /** the score at the beginning of a game **/
-    public static final Score INITIAL = ofPacked(0);
+    public static final Score INITIAL = new Score(PackedScore.INITIAL);
 
     /**
      * returns scores whose packed is the packed version
@@ -31,7 +31,7 @@ public final class Score {
     public static Score ofPacked(long packed) {
         Preconditions.checkArgument(PackedScore.isValid(packed));
 
-        return new Score(packed);
+        return packed == PackedScore.INITIAL ? INITIAL : new Score(packed);
     }
 
     /**
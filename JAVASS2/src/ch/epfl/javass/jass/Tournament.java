@@ -0,0 +1,220 @@
+package ch.epfl.javass.jass;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiFunction;
+
+import ch.epfl.javass.Preconditions;
+
+/**
+ * @author tancrede guillou (287334)
+ * @author ouriel sebbagh (287796)
+ */
+
+/**
+ * class playing many whole games between two kinds of players, without any
+ * graphical interface nor pause, on a pool of threads; each deal is played
+ * twice, the teams being swapped, and the seeds of each game are derived from
+ * the seed of the tournament, so that the results do not depend on the
+ * number of threads
+ **/
+public final class Tournament {
+
+    private final BiFunction<PlayerId, Long, Player> firstSide;
+    private final BiFunction<PlayerId, Long, Player> secondSide;
+    private final int threads;
+
+    /**
+     * public constructor of the class
+     *
+     * @param firstSide
+     *            the factory of the players of the first side, called for
+     *            every game with the identity of the player and a seed
+     * @param secondSide
+     *            the factory of the players of the second side
+     * @param threads
+     *            the number of games played at the same time
+     * @throws IllegalArgumentException
+     *             if the number of threads is not positive
+     */
+    public Tournament(BiFunction<PlayerId, Long, Player> firstSide,
+            BiFunction<PlayerId, Long, Player> secondSide, int threads) {
+        Preconditions.checkArgument(threads >= 1);
+        this.firstSide = firstSide;
+        this.secondSide = secondSide;
+        this.threads = threads;
+    }
+
+    /**
+     * plays 2 * deals games, each deal being played once with the first side
+     * as TEAM_1 and once with the first side as TEAM_2, and returns the
+     * results
+     *
+     * @param deals
+     *            the number of deals
+     * @param seed
+     *            the seed of the tournament
+     * @return the results of the tournament
+     * @throws IllegalArgumentException
+     *             if the number of deals is not positive
+     */
+    public Result play(int deals, long seed) {
+        Preconditions.checkArgument(deals >= 1);
+
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            /* the generators are split in the order of the games, before any
+             * of them is started */
+            SplittableRandom rng = new SplittableRandom(seed);
+            List<ForkJoinTask<Result>> games = new ArrayList<>(2 * deals);
+            for (int d = 0; d < deals; ++d) {
+                SplittableRandom dealRng = rng.split();
+                long gameSeed = dealRng.nextLong();
+                long[] playerSeeds = new long[PlayerId.COUNT];
+                for (int p = 0; p < PlayerId.COUNT; ++p) {
+                    playerSeeds[p] = dealRng.nextLong();
+                }
+                /* the games only return their result, so that the players
+                 * they created can be collected at once */
+                games.add(pool.submit(() -> playGame(TeamId.TEAM_1, gameSeed, playerSeeds)));
+                games.add(pool.submit(() -> playGame(TeamId.TEAM_2, gameSeed, playerSeeds)));
+            }
+
+            Result result = new Result();
+            for (ForkJoinTask<Result> game : games) {
+                result.add(game.join());
+            }
+            result.nanos = System.nanoTime() - start;
+            return result;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** class representing the results of a tournament, seen by the first side **/
+    public static final class Result {
+        private int games = 0;
+        private int wins = 0;
+        private long points = 0;
+        private long opponentPoints = 0;
+        private long nanos = 0;
+
+        private Result() {}
+
+        /**
+         * returns the number of games played
+         *
+         * @return the number of games played
+         */
+        public int games() {
+            return games;
+        }
+
+        /**
+         * returns the number of games won by the first side
+         *
+         * @return the number of games won by the first side
+         */
+        public int wins() {
+            return wins;
+        }
+
+        /**
+         * returns the number of games won by the second side
+         *
+         * @return the number of games won by the second side
+         */
+        public int losses() {
+            return games - wins;
+        }
+
+        /**
+         * returns the total points of the first side, over all the games
+         *
+         * @return the total points of the first side
+         */
+        public long points() {
+            return points;
+        }
+
+        /**
+         * returns the total points of the second side, over all the games
+         *
+         * @return the total points of the second side
+         */
+        public long opponentPoints() {
+            return opponentPoints;
+        }
+
+        /**
+         * returns the mean difference between the points of the first side and
+         * the points of the second side at the end of a game
+         *
+         * @return the mean point differential of the first side
+         */
+        public double meanPointDifferential() {
+            return (double) (points - opponentPoints) / games;
+        }
+
+        /**
+         * returns the number of games played per second of wall time
+         *
+         * @return the number of games per second
+         */
+        public double gamesPerSecond() {
+            return games / (nanos / 1e9);
+        }
+
+        /*/
+         * (non-Javadoc)
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return String.format(
+                    "%d games : %d wins, %d losses, %+.1f points per game, %.2f games/s",
+                    games, wins, losses(), meanPointDifferential(), gamesPerSecond());
+        }
+
+        private void add(Result that) {
+            games += that.games;
+            wins += that.wins;
+            points += that.points;
+            opponentPoints += that.opponentPoints;
+        }
+    }
+
+    /***************************** private methods useful to clarify the code ******************************/
+
+    /*
+     * plays a whole game, the first side being the given team, and returns
+     * its result
+     */
+    private Result playGame(TeamId firstTeam, long gameSeed, long[] playerSeeds) {
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        Map<PlayerId, String> names = new EnumMap<>(PlayerId.class);
+        for (PlayerId p : PlayerId.ALL) {
+            BiFunction<PlayerId, Long, Player> side = p.team() == firstTeam ? firstSide : secondSide;
+            players.put(p, side.apply(p, playerSeeds[p.ordinal()]));
+            names.put(p, p.name());
+        }
+
+        JassGame game = new JassGame(gameSeed, players, names);
+        while (!game.isGameOver()) {
+            game.advanceToEndOfNextTrick();
+        }
+
+        Result result = new Result();
+        result.games = 1;
+        result.wins = game.winningTeam() == firstTeam ? 1 : 0;
+        result.points = game.score().totalPoints(firstTeam);
+        result.opponentPoints = game.score().totalPoints(firstTeam.other());
+        return result;
+    }
+}
@@ -0,0 +1,140 @@
+package ch.epfl.javass.jass;
+
+import java.util.Arrays;
+
+import ch.epfl.javass.Preconditions;
+
+/**
+ * @author tancrede guillou (287334)
+ * @author ouriel sebbagh (287796)
+ */
+
+/**
+ * Class representing a table associating an int to the Zobrist keys of turn
+ * states (see Zobrist), in fixed-size primitive arrays with open addressing :
+ * a key is looked for in a few consecutive slots from the one given by its
+ * lower bits, and when they are all taken a new entry replaces the one of
+ * lowest priority, or is dropped if they all have a higher priority; the
+ * memory used is thus fixed when the table is created, and emptying it only
+ * changes its generation
+ **/
+final class TranspositionTable {
+
+    /** value returned for a key which is not in the table **/
+    static final int NO_VALUE = -1;
+    /** number of bytes of an entry : its key, its value and its stamp **/
+    static final int ENTRY_BYTES = Long.BYTES + 2 * Integer.BYTES;
+    /* the stamp of an entry holds its generation and its priority */
+    private final static int PRIORITY_BITS = 6;
+    /** maximum priority of an entry **/
+    static final int MAX_PRIORITY = (1 << PRIORITY_BITS) - 1;
+
+    /* number of consecutive slots where a key can be */
+    private final static int PROBES = 4;
+    /** minimum number of bytes of a table **/
+    static final int MIN_BYTES = PROBES * ENTRY_BYTES;
+
+    private final long[] keys;
+    private final int[] values;
+    private final int[] stamps;
+    private final int mask;
+    /* the entries of the other generations are empty (0 is never used) */
+    private int generation = 1;
+
+    /**
+     * creates an empty table using at most the given number of bytes, its
+     * number of entries being the largest power of two which fits
+     *
+     * @param maxBytes
+     *            the maximum number of bytes of the table
+     * @throws IllegalArgumentException
+     *             if the table cannot hold a few entries
+     */
+    TranspositionTable(long maxBytes) {
+        Preconditions.checkArgument(maxBytes >= MIN_BYTES
+                && maxBytes / ENTRY_BYTES <= 1 << 30);
+        int capacity = Integer.highestOneBit((int) (maxBytes / ENTRY_BYTES));
+        keys = new long[capacity];
+        values = new int[capacity];
+        stamps = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * returns the number of entries of the table
+     *
+     * @return the number of entries of the table
+     */
+    int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * empties the table
+     */
+    void clear() {
+        if (++generation == 1 << (Integer.SIZE - 1 - PRIORITY_BITS)) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+    }
+
+    /**
+     * returns the value associated to the given key, or NO_VALUE if the key
+     * is not in the table (or was replaced)
+     *
+     * @param key
+     *            the key
+     * @return the value of the key, or NO_VALUE
+     */
+    int get(long key) {
+        for (int p = 0; p < PROBES; ++p) {
+            int slot = ((int) key + p) & mask;
+            if (keys[slot] == key && isUsed(slot))
+                return values[slot];
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * associates the given value to the given key, replacing its previous
+     * value, or an empty slot, or the entry of lowest priority if it is not
+     * higher than the given one (the entry is dropped otherwise)
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            its value
+     * @param priority
+     *            the priority of the entry, between 0 and MAX_PRIORITY
+     */
+    void put(long key, int value, int priority) {
+        assert 0 <= priority && priority <= MAX_PRIORITY;
+        int replaced = -1;
+        for (int p = 0; p < PROBES; ++p) {
+            int slot = ((int) key + p) & mask;
+            if (!isUsed(slot) || keys[slot] == key) {
+                replaced = slot;
+                break;
+            }
+            if (priority(slot) <= priority
+                    && (replaced == -1 || priority(slot) < priority(replaced)))
+                replaced = slot;
+        }
+        if (replaced == -1)
+            return;
+        keys[replaced] = key;
+        values[replaced] = value;
+        stamps[replaced] = generation << PRIORITY_BITS | priority;
+    }
+
+    /***************************** private methods useful to clarify the code ******************************/
+
+    private boolean isUsed(int slot) {
+        return stamps[slot] >>> PRIORITY_BITS == generation;
+    }
+
+    private int priority(int slot) {
+        return stamps[slot] & MAX_PRIORITY;
+    }
+}
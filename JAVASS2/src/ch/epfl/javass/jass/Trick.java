@@ -20,6 +20,12 @@ public final class Trick {
     /** representation an invalid trick **/
     public final static Trick INVALID = new Trick(PackedTrick.INVALID);
 
+    /* the empty tricks (the first state of each trick, which every player
+     * is told), indexed by their index, first player and trump, i.e by the
+     * bits above the cards of their packed representation */
+    private final static int CARDS_BITS = PackedTrick.CARDS_BITS;
+    private final static Trick[] EMPTY_TRICKS = createEmptyTricks();
+
     /**
      * return the empty trick with the trump and the first player given
      * 
@@ -43,6 +49,8 @@ public final class Trick {
      */
     public static Trick ofPacked(int packed) throws IllegalArgumentException {
         Preconditions.checkArgument(PackedTrick.isValid(packed));
+        if (PackedTrick.isEmpty(packed))
+            return EMPTY_TRICKS[packed >>> CARDS_BITS];
         return new Trick(packed);
     }
 
@@ -258,4 +266,18 @@ public final class Trick {
         return PackedTrick.toString(packedRepresentation);
     }
 
+    private static Trick[] createEmptyTricks() {
+        Trick[] tricks = new Trick[1 << (Integer.SIZE - CARDS_BITS)];
+        for (Color trump : Color.ALL) {
+            for (PlayerId player : PlayerId.ALL) {
+                int packed = PackedTrick.firstEmpty(trump, player);
+                for (int i = 0; i < Jass.TRICKS_PER_TURN; ++i) {
+                    tricks[packed >>> CARDS_BITS] = new Trick(packed);
+                    packed += 1 << CARDS_BITS;
+                }
+            }
+        }
+        return tricks;
+    }
+
 }
\ No newline at end of file
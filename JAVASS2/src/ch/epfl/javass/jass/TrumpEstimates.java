@@ -0,0 +1,170 @@
+package ch.epfl.javass.jass;
+
+import java.util.StringJoiner;
+
+import ch.epfl.javass.jass.Card.Color;
+
+/**
+ * @author tancrede guillou (287334)
+ * @author ouriel sebbagh (287796)
+ */
+
+/**
+ * class representing the result of the simulation of the trumps of a hand
+ * (see MctsPlayer.withTrumpSimulation) : for each color, and for the choice
+ * of letting the team mate choose (chibrer) if it was possible, the points
+ * expected by the team of the player in the turn, with the margin of error of
+ * their 95% confidence interval
+ **/
+public final class TrumpEstimates {
+
+    /* index of the chibre in the arrays, after the colors */
+    final static int CHIBRE = Color.COUNT;
+    final static int OPTIONS = Color.COUNT + 1;
+    /* quantile of the normal distribution for a 95% confidence interval */
+    private final static double Z_95 = 1.96;
+
+    private final int deals;
+    private final boolean chibre;
+    private final double[] means = new double[OPTIONS];
+    private final double[] margins = new double[OPTIONS];
+
+    /**
+     * creates the estimates of the given number of simulated deals, from the
+     * sums of the points and of their squares of each option
+     *
+     * @param deals
+     *            the number of simulated deals
+     * @param chibre
+     *            true if the chibre was simulated
+     * @param points
+     *            the sum of the points of each option, indexed by the ordinal
+     *            of the color, or CHIBRE
+     * @param squaredPoints
+     *            the sum of the squared points of each option
+     */
+    TrumpEstimates(int deals, boolean chibre, long[] points, long[] squaredPoints) {
+        assert deals > 0;
+        this.deals = deals;
+        this.chibre = chibre;
+        for (int o = 0; o < OPTIONS; ++o) {
+            means[o] = (double) points[o] / deals;
+            if (deals > 1) {
+                double variance = (squaredPoints[o] - deals * means[o] * means[o]) / (deals - 1);
+                margins[o] = Z_95 * Math.sqrt(Math.max(variance, 0) / deals);
+            } else {
+                margins[o] = Double.POSITIVE_INFINITY;
+            }
+        }
+    }
+
+    /**
+     * returns the number of deals of the other cards simulated
+     *
+     * @return the number of simulated deals
+     */
+    public int deals() {
+        return deals;
+    }
+
+    /**
+     * returns the points expected by the team of the player in the turn if
+     * he chooses the given trump
+     *
+     * @param trump
+     *            the trump
+     * @return the expected points with this trump
+     */
+    public double expectedPoints(Color trump) {
+        return means[trump.ordinal()];
+    }
+
+    /**
+     * returns the margin of error of the expected points with the given
+     * trump, i.e the half width of their 95% confidence interval
+     *
+     * @param trump
+     *            the trump
+     * @return the margin of error of the expected points with this trump
+     */
+    public double marginOfError(Color trump) {
+        return margins[trump.ordinal()];
+    }
+
+    /**
+     * returns true if the chibre was simulated, i.e if the player could let
+     * his team mate choose the trump
+     *
+     * @return true if the chibre was simulated
+     */
+    public boolean hasChibre() {
+        return chibre;
+    }
+
+    /**
+     * returns the points expected by the team of the player in the turn if
+     * he lets his team mate choose the trump
+     *
+     * @return the expected points of the chibre
+     * @throws IllegalStateException
+     *             if the chibre was not simulated
+     */
+    public double chibreExpectedPoints() {
+        if (!chibre)
+            throw new IllegalStateException();
+        return means[CHIBRE];
+    }
+
+    /**
+     * returns the margin of error of the expected points of the chibre
+     *
+     * @return the margin of error of the expected points of the chibre
+     * @throws IllegalStateException
+     *             if the chibre was not simulated
+     */
+    public double chibreMarginOfError() {
+        if (!chibre)
+            throw new IllegalStateException();
+        return margins[CHIBRE];
+    }
+
+    /**
+     * returns the trump with the most expected points (the first one of
+     * Color.ALL if several have the same)
+     *
+     * @return the best trump
+     */
+    public Color bestTrump() {
+        Color best = Color.ALL.get(0);
+        for (Color c : Color.ALL) {
+            if (expectedPoints(c) > expectedPoints(best))
+                best = c;
+        }
+        return best;
+    }
+
+    /**
+     * returns true if the chibre was simulated and is expected to bring more
+     * points than the best trump
+     *
+     * @return true if the player should chibrer
+     */
+    public boolean prefersChibre() {
+        return chibre && means[CHIBRE] > expectedPoints(bestTrump());
+    }
+
+    /*/
+     * (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        StringJoiner j = new StringJoiner(", ", "{", "}");
+        for (Color c : Color.ALL) {
+            j.add(String.format("%s %.1f ± %.1f", c, expectedPoints(c), marginOfError(c)));
+        }
+        if (chibre)
+            j.add(String.format("chibre %.1f ± %.1f", means[CHIBRE], margins[CHIBRE]));
+        return j.toString() + " (" + deals + " deals)";
+    }
+}
@@ -20,6 +20,11 @@ public final class TurnState {
     private final long actualScore;
     private final long unplayedCards;
     private final int actualTrick;
+    /* the object versions of the score and of the trick, created the first
+     * time they are asked for (each player being told them); their fields
+     * being final, threads sharing a state at worst create them twice */
+    private Score score;
+    private Trick trick;
 
     /**
      * returns the initial state corresponding to a turn,
@@ -89,7 +94,9 @@ public final class TurnState {
      * @return actualScore
      */
     public Score score() {
-        return Score.ofPacked(actualScore);
+        if (score == null)
+            score = Score.ofPacked(actualScore);
+        return score;
     }
 
     /**
@@ -105,7 +112,9 @@ public final class TurnState {
      * @return actualTrick
      */
     public Trick trick() {
-        return Trick.ofPacked(actualTrick);
+        if (trick == null)
+            trick = Trick.ofPacked(actualTrick);
+        return trick;
     }
 
     /**
@@ -145,9 +154,12 @@ public final class TurnState {
         assert unplayedCards().contains(card);
         if (PackedTrick.isFull(actualTrick)) 
             throw new IllegalStateException("The current trick is full");
-        return ofPackedComponents(actualScore,
+        TurnState withNewCardPlayed = ofPackedComponents(actualScore,
                 PackedCardSet.remove(unplayedCards, card.packed()),
                 PackedTrick.withAddedCard(actualTrick, card.packed()));
+        /* the score does not change until the trick is collected */
+        withNewCardPlayed.score = score;
+        return withNewCardPlayed;
     }
 
     /**
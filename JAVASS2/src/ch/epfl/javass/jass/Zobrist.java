@@ -0,0 +1,147 @@
+package ch.epfl.javass.jass;
+
+import java.util.SplittableRandom;
+
+/**
+ * @author tancrede guillou (287334)
+ * @author ouriel sebbagh (287796)
+ */
+
+/**
+ * Class containing the Zobrist keys of the packed components of a turn
+ * state : a random long is drawn once for each card, and for each value of
+ * each field of the trick and of the score, and the key of a state is the
+ * exclusive or of the longs of its unplayed cards and of the values of its
+ * fields; the key of a state following another one is thus obtained by
+ * adding and removing only the longs of what changed
+ **/
+final class Zobrist {
+    private Zobrist() {
+    }
+
+    private final static SplittableRandom RNG = new SplittableRandom(0x7A0B);
+
+    /* keys of the packed cards (of the unplayed cards, and of each card of
+     * a trick at each of its 4 positions) */
+    private final static long[] CARDS = randomKeys(PackedCard.INVALID + 1);
+    private final static long[][] TRICK_CARDS = new long[PlayerId.COUNT][];
+    /* keys of the index, first player and trump of a trick, i.e of its 8
+     * upper bits */
+    private final static int TRICK_CARDS_BITS = PackedTrick.CARDS_BITS;
+    private final static long[] TRICK_FIELDS = randomKeys(1 << (Integer.SIZE - TRICK_CARDS_BITS));
+    /* keys of the tricks, turn points and game points of each team, whose
+     * fields take the 4, 9 and 11 lower bits of its 32 bits of the score */
+    private final static int[] SCORE_FIELD_BITS = { 4, 9, 11 };
+    private final static long[][][] SCORE_FIELDS = new long[TeamId.COUNT][SCORE_FIELD_BITS.length][];
+    private final static long[] TEAMS = randomKeys(TeamId.COUNT);
+
+    static {
+        for (int i = 0; i < TRICK_CARDS.length; ++i) {
+            TRICK_CARDS[i] = randomKeys(PackedCard.INVALID + 1);
+        }
+        for (int t = 0; t < TeamId.COUNT; ++t) {
+            for (int f = 0; f < SCORE_FIELD_BITS.length; ++f) {
+                SCORE_FIELDS[t][f] = randomKeys(1 << SCORE_FIELD_BITS[f]);
+            }
+        }
+    }
+
+    /**
+     * returns the key of the state of the given packed components
+     *
+     * @param pkScore
+     *            the packed score
+     * @param pkUnplayedCards
+     *            the packed set of unplayed cards
+     * @param pkTrick
+     *            the packed trick
+     * @return the key of the state
+     */
+    static long key(long pkScore, long pkUnplayedCards, int pkTrick) {
+        return score(pkScore) ^ cards(pkUnplayedCards) ^ trick(pkTrick);
+    }
+
+    /**
+     * returns the key of the given packed card, which is added to or removed
+     * from the key of a state when the card is played
+     *
+     * @param pkCard
+     *            the packed card
+     * @return the key of the card
+     */
+    static long card(int pkCard) {
+        return CARDS[pkCard];
+    }
+
+    /**
+     * returns the part of the key of a state given by its packed set of
+     * unplayed cards
+     *
+     * @param pkCardSet
+     *            the packed set of cards
+     * @return the exclusive or of the keys of its cards
+     */
+    static long cards(long pkCardSet) {
+        long key = 0;
+        for (long s = pkCardSet; s != 0; s &= s - 1) {
+            key ^= CARDS[Long.numberOfTrailingZeros(s)];
+        }
+        return key;
+    }
+
+    /**
+     * returns the part of the key of a state given by its packed trick
+     *
+     * @param pkTrick
+     *            the packed trick
+     * @return the key of the trick
+     */
+    static long trick(int pkTrick) {
+        long key = TRICK_FIELDS[pkTrick >>> TRICK_CARDS_BITS];
+        for (int i = 0; i < TRICK_CARDS.length; ++i) {
+            key ^= TRICK_CARDS[i][(pkTrick >>> (i * PackedTrick.CARD_BITS)) & PackedCard.INVALID];
+        }
+        return key;
+    }
+
+    /**
+     * returns the part of the key of a state given by its packed score
+     *
+     * @param pkScore
+     *            the packed score
+     * @return the key of the score
+     */
+    static long score(long pkScore) {
+        long key = 0;
+        for (int t = 0; t < TeamId.COUNT; ++t) {
+            int teamScore = (int) (pkScore >>> (t * Integer.SIZE));
+            for (int f = 0; f < SCORE_FIELD_BITS.length; ++f) {
+                key ^= SCORE_FIELDS[t][f][teamScore & ((1 << SCORE_FIELD_BITS[f]) - 1)];
+                teamScore >>>= SCORE_FIELD_BITS[f];
+            }
+        }
+        return key;
+    }
+
+    /**
+     * returns the key of the given team, added to the key of a state when
+     * the same state must be told apart according to a team
+     *
+     * @param team
+     *            the team
+     * @return the key of the team
+     */
+    static long team(TeamId team) {
+        return TEAMS[team.ordinal()];
+    }
+
+    /***************************** private methods useful to clarify the code ******************************/
+
+    private static long[] randomKeys(int count) {
+        long[] keys = new long[count];
+        for (int i = 0; i < count; ++i) {
+            keys[i] = RNG.nextLong();
+        }
+        return keys;
+    }
+}
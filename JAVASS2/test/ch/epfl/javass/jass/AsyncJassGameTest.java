@@ -0,0 +1,327 @@
+package ch.epfl.javass.jass;
+
+import static ch.epfl.test.TestRandomizer.newRandom;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import ch.epfl.javass.jass.Card.Color;
+
+public class AsyncJassGameTest {
+    private static final Map<PlayerId, String> NAMES = new EnumMap<>(PlayerId.class);
+    static {
+        for (PlayerId p : PlayerId.ALL)
+            NAMES.put(p, p.name());
+    }
+
+    private static Map<PlayerId, Player> players(long seed) {
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        for (PlayerId p : PlayerId.ALL)
+            players.put(p, new MctsPlayer(p, seed + p.ordinal(), Jass.HAND_SIZE));
+        return players;
+    }
+
+    /* a player chibring when it has no long color, so that both ways of
+     * choosing the trump are played */
+    private static final class ChibringPlayer implements Player {
+        private final Player player;
+        private CardSet hand = CardSet.EMPTY;
+
+        ChibringPlayer(Player player) {
+            this.player = player;
+        }
+
+        private Color longestColor(CardSet hand) {
+            Color best = Color.SPADE;
+            for (Color c : Color.ALL) {
+                if (hand.subsetOfColor(c).size() > hand.subsetOfColor(best).size())
+                    best = c;
+            }
+            return best;
+        }
+
+        @Override
+        public void updateHand(CardSet newHand) {
+            hand = newHand;
+            player.updateHand(newHand);
+        }
+
+        @Override
+        public boolean choseToChibrer() {
+            return hand.subsetOfColor(longestColor(hand)).size() < 4;
+        }
+
+        @Override
+        public Color chooseTrump(CardSet hand) {
+            return longestColor(hand);
+        }
+
+        @Override
+        public Card cardToPlay(TurnState state, CardSet hand) {
+            return player.cardToPlay(state, hand);
+        }
+
+        @Override
+        public void setPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            player.setPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void setTrump(Color trump) {
+            player.setTrump(trump);
+        }
+
+        @Override
+        public void updateTrick(Trick newTrick) {
+            player.updateTrick(newTrick);
+        }
+    }
+
+    private static Map<PlayerId, Player> chibringPlayers(long seed) {
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        players(seed).forEach((p, player) -> players.put(p, new ChibringPlayer(player)));
+        return players;
+    }
+
+    private static Map<PlayerId, AsyncPlayer> asyncPlayers(long seed, ExecutorService executor) {
+        Map<PlayerId, AsyncPlayer> players = new EnumMap<>(PlayerId.class);
+        players(seed).forEach((p, player) -> players.put(p,
+                executor == null ? AsyncPlayer.of(player) : AsyncPlayer.of(player, executor)));
+        return players;
+    }
+
+    /* players whose choices only depend on what they are asked, so that a
+     * restored game is played by them like the original one */
+    private static Map<PlayerId, Player> firstCardPlayers() {
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        for (PlayerId p : PlayerId.ALL) {
+            players.put(p, new Player() {
+                @Override
+                public Card cardToPlay(TurnState state, CardSet hand) {
+                    return state.trick().playableCards(hand).get(0);
+                }
+
+                @Override
+                public Color chooseTrump(CardSet hand) {
+                    return hand.get(0).color();
+                }
+            });
+        }
+        return players;
+    }
+
+    private static Map<PlayerId, AsyncPlayer> asyncFirstCardPlayers() {
+        Map<PlayerId, AsyncPlayer> players = new EnumMap<>(PlayerId.class);
+        firstCardPlayers().forEach((p, player) -> players.put(p, AsyncPlayer.of(player)));
+        return players;
+    }
+
+    private static JassGame playedJassGame(JassGame game) {
+        while (!game.isGameOver())
+            game.advanceToEndOfNextTrick();
+        return game;
+    }
+
+    private static byte[] logOfJassGame(long seed) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GameLogWriter log = new GameLogWriter(Channels.newChannel(bytes))) {
+            JassGame game = new JassGame(seed, players(seed), NAMES, log);
+            while (!game.isGameOver())
+                game.advanceToEndOfNextTrick();
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    void asyncGameIsTheSameGameAsJassGame() throws Exception {
+        for (long seed = 0; seed < 5; ++seed) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (GameLogWriter log = new GameLogWriter(Channels.newChannel(bytes))) {
+                AsyncJassGame game = new AsyncJassGame(seed, asyncPlayers(seed, null), NAMES, log);
+                TeamId winner = game.play().get();
+                assertTrue(game.score().totalPoints(winner) >= Jass.WINNING_POINTS);
+            }
+            assertArrayEquals(logOfJassGame(seed), bytes.toByteArray());
+        }
+    }
+
+    @Test
+    void asyncGameEndsWithTheScoreOfJassGame() throws Exception {
+        SplittableRandom rng = newRandom();
+        for (int i = 0; i < 20; ++i) {
+            long seed = rng.nextLong();
+            Map<PlayerId, AsyncPlayer> asyncPlayers = new EnumMap<>(PlayerId.class);
+            chibringPlayers(seed).forEach((p, player) -> asyncPlayers.put(p, AsyncPlayer.of(player)));
+            AsyncJassGame game = new AsyncJassGame(seed, asyncPlayers, NAMES);
+            TeamId winner = game.play().get();
+
+            JassGame expected = new JassGame(seed, chibringPlayers(seed), NAMES);
+            while (!expected.isGameOver())
+                expected.advanceToEndOfNextTrick();
+            assertEquals(expected.winningTeam(), winner);
+            assertEquals(expected.score(), game.score());
+        }
+    }
+
+    @Test
+    void adapterGoesOnAfterAFailedCall() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            AsyncPlayer player = AsyncPlayer.of(new Player() {
+                private boolean failed = false;
+
+                @Override
+                public Card cardToPlay(TurnState state, CardSet hand) {
+                    if (!failed) {
+                        failed = true;
+                        throw new IllegalStateException();
+                    }
+                    return state.trick().playableCards(hand).get(0);
+                }
+
+                @Override
+                public Color chooseTrump(CardSet hand) {
+                    return Color.SPADE;
+                }
+            }, executor);
+            TurnState state = TurnState.initial(Color.SPADE, Score.INITIAL, PlayerId.PLAYER_1);
+            CardSet hand = CardSet.ALL_CARDS.subsetOfColor(Color.HEART);
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> player.cardToPlay(state, hand).get(30, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertEquals(Color.SPADE, player.chooseTrump(hand).get(30, TimeUnit.SECONDS));
+            assertEquals(hand.get(0), player.cardToPlay(state, hand).get(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void manyGamesShareAFewThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<AsyncJassGame> games = new ArrayList<>();
+            List<CompletableFuture<TeamId>> winners = new ArrayList<>();
+            for (long seed = 0; seed < 40; ++seed) {
+                AsyncJassGame game = new AsyncJassGame(seed, asyncPlayers(seed, executor), NAMES);
+                games.add(game);
+                winners.add(game.play());
+            }
+            for (int g = 0; g < games.size(); ++g) {
+                JassGame expected = new JassGame(g, players(g), NAMES);
+                while (!expected.isGameOver())
+                    expected.advanceToEndOfNextTrick();
+                assertEquals(expected.winningTeam(), winners.get(g).get(30, TimeUnit.SECONDS));
+                assertEquals(expected.score(), games.get(g).score());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void gameFailsWhenAPlayerFails() {
+        Map<PlayerId, AsyncPlayer> players = asyncPlayers(0, null);
+        players.put(PlayerId.PLAYER_3, new AsyncPlayer() {
+            @Override
+            public CompletableFuture<Card> cardToPlay(TurnState state, CardSet hand) {
+                return CompletableFuture.failedFuture(new IllegalStateException());
+            }
+
+            @Override
+            public CompletableFuture<Color> chooseTrump(CardSet hand) {
+                return CompletableFuture.completedFuture(Color.SPADE);
+            }
+        });
+        CompletableFuture<TeamId> winner = new AsyncJassGame(0, players, NAMES).play();
+        ExecutionException e = assertThrows(ExecutionException.class, winner::get);
+        assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    void gameSnapshottedWhileAwaitingACardEndsLikeTheOriginal() throws Exception {
+        SplittableRandom rng = newRandom();
+        for (int i = 0; i < 10; ++i) {
+            long seed = rng.nextLong();
+            JassGame expected = playedJassGame(new JassGame(seed, firstCardPlayers(), NAMES));
+
+            /* the player 2 does not answer when asked his held card */
+            int heldCard = rng.nextInt(40);
+            int[] cards = { 0 };
+            Map<PlayerId, AsyncPlayer> players = asyncFirstCardPlayers();
+            AsyncPlayer player = players.get(PlayerId.PLAYER_2);
+            players.put(PlayerId.PLAYER_2, new AsyncPlayer() {
+                @Override
+                public CompletableFuture<Card> cardToPlay(TurnState state, CardSet hand) {
+                    return cards[0]++ == heldCard ? new CompletableFuture<>()
+                            : player.cardToPlay(state, hand);
+                }
+
+                @Override
+                public CompletableFuture<Color> chooseTrump(CardSet hand) {
+                    return player.chooseTrump(hand);
+                }
+            });
+            AsyncJassGame game = new AsyncJassGame(seed, players, NAMES);
+            assertFalse(game.play().isDone());
+            ByteBuffer buffer = ByteBuffer.allocate(AsyncJassGame.SNAPSHOT_SIZE);
+            game.snapshot(buffer);
+            assertFalse(buffer.hasRemaining());
+
+            buffer.flip();
+            AsyncJassGame restored = AsyncJassGame.restore(buffer, asyncFirstCardPlayers(), NAMES);
+            assertEquals(expected.winningTeam(), restored.play().get());
+            assertEquals(expected.score(), restored.score());
+
+            buffer.flip();
+            JassGame restoredJassGame = playedJassGame(
+                    JassGame.restore(buffer, firstCardPlayers(), NAMES));
+            assertEquals(expected.winningTeam(), restoredJassGame.winningTeam());
+            assertEquals(expected.score(), restoredJassGame.score());
+        }
+    }
+
+    @Test
+    void jassGameSnapshotCanBeRestoredIntoAnAsyncGame() throws Exception {
+        SplittableRandom rng = newRandom();
+        for (int i = 0; i < 10; ++i) {
+            long seed = rng.nextLong();
+            JassGame expected = playedJassGame(new JassGame(seed, firstCardPlayers(), NAMES));
+
+            JassGame game = new JassGame(seed, firstCardPlayers(), NAMES);
+            for (int tricks = rng.nextInt(40); tricks > 0 && !game.isGameOver(); --tricks)
+                game.advanceToEndOfNextTrick();
+            ByteBuffer buffer = ByteBuffer.allocate(JassGame.SNAPSHOT_SIZE);
+            game.snapshot(buffer);
+            buffer.flip();
+            AsyncJassGame restored = AsyncJassGame.restore(buffer, asyncFirstCardPlayers(), NAMES);
+            assertEquals(expected.winningTeam(), restored.play().get());
+            assertEquals(expected.score(), restored.score());
+        }
+    }
+
+    @Test
+    void gameCanOnlyBeStartedOnce() {
+        AsyncJassGame game = new AsyncJassGame(0, asyncPlayers(0, null), NAMES);
+        game.play();
+        assertThrows(IllegalStateException.class, game::play);
+    }
+}
@@ -0,0 +1,144 @@
+package ch.epfl.javass.jass;
+
+import static ch.epfl.test.TestRandomizer.RANDOM_ITERATIONS;
+import static ch.epfl.test.TestRandomizer.newRandom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import ch.epfl.javass.jass.Card.Color;
+import ch.epfl.javass.jass.Card.Rank;
+
+public class BeliefTrackerTest {
+    /* makes the tracker observe every card of the trick, one after the other */
+    private static int observe(BeliefTracker beliefs, Color trump, PlayerId first, Card... cards) {
+        int pkTrick = PackedTrick.firstEmpty(trump, first);
+        for (Card c : cards) {
+            pkTrick = PackedTrick.withAddedCard(pkTrick, c.packed());
+            beliefs.cardPlayed(pkTrick);
+        }
+        return pkTrick;
+    }
+
+    private static long allOf(Color c) {
+        return PackedCardSet.subsetOfColor(PackedCardSet.ALL_CARDS, c);
+    }
+
+    @Test
+    void discardShowsAVoidColor() {
+        BeliefTracker beliefs = new BeliefTracker();
+        observe(beliefs, Color.SPADE, PlayerId.PLAYER_1,
+                Card.of(Color.HEART, Rank.SIX), Card.of(Color.CLUB, Rank.SEVEN));
+
+        assertEquals(PackedCardSet.EMPTY, PackedCardSet.intersection(
+                beliefs.possibleCards(PlayerId.PLAYER_2), allOf(Color.HEART)));
+        assertEquals(PackedCardSet.size(allOf(Color.HEART)) - 1, PackedCardSet.size(
+                PackedCardSet.intersection(beliefs.possibleCards(PlayerId.PLAYER_3), allOf(Color.HEART))));
+        assertFalse(PackedCardSet.contains(beliefs.possibleCards(PlayerId.PLAYER_3),
+                Card.of(Color.CLUB, Rank.SEVEN).packed()));
+    }
+
+    @Test
+    void cutShowsNothing() {
+        BeliefTracker beliefs = new BeliefTracker();
+        observe(beliefs, Color.SPADE, PlayerId.PLAYER_1,
+                Card.of(Color.HEART, Rank.SIX), Card.of(Color.SPADE, Rank.SEVEN));
+
+        assertEquals(PackedCardSet.remove(allOf(Color.HEART), Card.of(Color.HEART, Rank.SIX).packed()),
+                PackedCardSet.intersection(beliefs.possibleCards(PlayerId.PLAYER_2), allOf(Color.HEART)));
+    }
+
+    @Test
+    void notFollowingTrumpLeavesTheJack() {
+        BeliefTracker beliefs = new BeliefTracker();
+        observe(beliefs, Color.SPADE, PlayerId.PLAYER_4,
+                Card.of(Color.SPADE, Rank.SIX), Card.of(Color.DIAMOND, Rank.KING));
+
+        assertEquals(PackedCardSet.singleton(Card.of(Color.SPADE, Rank.JACK).packed()),
+                PackedCardSet.intersection(beliefs.possibleCards(PlayerId.PLAYER_1), allOf(Color.SPADE)));
+    }
+
+    @Test
+    void newTurnForgetsEverything() {
+        BeliefTracker beliefs = new BeliefTracker();
+        observe(beliefs, Color.SPADE, PlayerId.PLAYER_1,
+                Card.of(Color.HEART, Rank.SIX), Card.of(Color.CLUB, Rank.SEVEN));
+        beliefs.newTurn();
+        for (PlayerId p : PlayerId.ALL) {
+            assertEquals(PackedCardSet.ALL_CARDS, beliefs.possibleCards(p));
+            assertEquals(PackedCardSet.EMPTY, beliefs.knownCards(p));
+        }
+    }
+
+    @Test
+    void meldCardsAreKnownAndImpossibleForTheOthers() {
+        BeliefTracker beliefs = new BeliefTracker();
+        CardSet jacks = CardSet.EMPTY;
+        for (Color c : Color.ALL)
+            jacks = jacks.add(Card.of(c, Rank.JACK));
+        MeldSet melds = MeldSet.of(Meld.allIn(jacks));
+        beliefs.meldsAnnounced(PlayerId.PLAYER_3, melds);
+
+        assertEquals(jacks.packed(), beliefs.knownCards(PlayerId.PLAYER_3));
+        assertEquals(PackedCardSet.EMPTY, PackedCardSet.intersection(
+                beliefs.possibleCards(PlayerId.PLAYER_1), jacks.packed()));
+    }
+
+    @Test
+    void dealIsConsistentWithTheBeliefs() {
+        SplittableRandom rng = newRandom();
+        long[] hands = new long[PlayerId.COUNT];
+        for (int i = 0; i < RANDOM_ITERATIONS; ++i) {
+            BeliefTracker beliefs = new BeliefTracker();
+            long hand = allOf(Color.SPADE);
+            /* player 3 does not follow a club, player 1 played the first card */
+            int pkTrick = observe(beliefs, Color.HEART, PlayerId.PLAYER_1,
+                    Card.of(Color.CLUB, Rank.SIX), Card.of(Color.CLUB, Rank.ACE),
+                    Card.of(Color.DIAMOND, Rank.SIX));
+            long unplayed = PackedCardSet.ALL_CARDS;
+            for (int k = 0; k < PackedTrick.size(pkTrick); ++k)
+                unplayed = PackedCardSet.remove(unplayed, PackedTrick.card(pkTrick, k));
+
+            beliefs.deal(unplayed, hand, PlayerId.PLAYER_4, pkTrick, rng, hands);
+
+            assertEquals(hand, hands[PlayerId.PLAYER_4.ordinal()]);
+            assertEquals(8, PackedCardSet.size(hands[PlayerId.PLAYER_1.ordinal()]));
+            assertEquals(8, PackedCardSet.size(hands[PlayerId.PLAYER_2.ordinal()]));
+            assertEquals(8, PackedCardSet.size(hands[PlayerId.PLAYER_3.ordinal()]));
+            assertEquals(PackedCardSet.EMPTY, PackedCardSet.intersection(
+                    hands[PlayerId.PLAYER_3.ordinal()], allOf(Color.CLUB)));
+            long all = PackedCardSet.EMPTY;
+            for (long h : hands)
+                all = PackedCardSet.union(all, h);
+            assertEquals(unplayed, all);
+        }
+    }
+
+    @Test
+    void dealIgnoresInconsistentBeliefs() {
+        BeliefTracker beliefs = new BeliefTracker();
+        /* the players 2 and 3 show they have no spade */
+        observe(beliefs, Color.HEART, PlayerId.PLAYER_1, Card.of(Color.SPADE, Rank.SIX),
+                Card.of(Color.CLUB, Rank.SIX), Card.of(Color.CLUB, Rank.SEVEN));
+        int pkTrick = PackedTrick.firstEmpty(Color.HEART, PlayerId.PLAYER_1);
+        /* the tracker was not told of the new turn: nobody can have the six
+         * of spades, which it saw played */
+        long hand = allOf(Color.DIAMOND);
+        long unplayed = PackedCardSet.ALL_CARDS;
+        long[] hands = new long[PlayerId.COUNT];
+        beliefs.deal(unplayed, hand, PlayerId.PLAYER_4, pkTrick, newRandom(), hands);
+
+        long all = PackedCardSet.EMPTY;
+        for (long h : hands) {
+            assertEquals(Jass.HAND_SIZE, PackedCardSet.size(h));
+            all = PackedCardSet.union(all, h);
+        }
+        assertEquals(unplayed, all);
+        assertTrue(Arrays.stream(hands).allMatch(PackedCardSet::isValid));
+    }
+}
@@ -3,6 +3,7 @@ package ch.epfl.javass.jass;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Arrays;
@@ -226,4 +227,13 @@ public final class CardTest {
         for (int i = 1; i < allHashCodes.length; ++i)
             assertTrue(allHashCodes[i] != allHashCodes[i - 1]);
     }
+
+    @Test
+    void ofAndOfPackedReturnTheSameInstance() {
+        for (Card c : getAllCards()) {
+            assertSame(c, Card.ofPacked(c.packed()));
+            assertSame(c, Card.of(c.color(), c.rank()));
+            assertSame(c, CardSet.of(Arrays.asList(c)).get(0));
+        }
+    }
 }
@@ -0,0 +1,140 @@
+package ch.epfl.javass.jass;
+
+import static ch.epfl.test.TestRandomizer.RANDOM_ITERATIONS;
+import static ch.epfl.test.TestRandomizer.newRandom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import ch.epfl.javass.jass.Card.Color;
+import ch.epfl.javass.jass.Card.Rank;
+
+public class EndgameSolverTest {
+    private static final long BYTES = 1 << 16;
+
+    @Test
+    void constructorFailsWithTooFewBytes() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new EndgameSolver(TranspositionTable.MIN_BYTES - 1);
+        });
+    }
+
+    @Test
+    void solveGivesTheScoreOfAFullMinimax() {
+        SplittableRandom rng = newRandom();
+        EndgameSolver solver = new EndgameSolver(BYTES);
+        for (int i = 0; i < RANDOM_ITERATIONS / 10; ++i) {
+            long[] hands = new long[PlayerId.COUNT];
+            int tricks = 1 + rng.nextInt(3);
+            long[] state = randomEndgame(rng, tricks, hands);
+            long score = state[0];
+            int trick = (int) state[1];
+
+            /* the best lines may differ in tricks, not in points */
+            long expected = minimax(score, trick, hands.clone());
+            long actual = solver.solve(score, trick, hands.clone());
+            for (TeamId t : TeamId.ALL) {
+                assertEquals(PackedScore.turnPoints(expected, t), PackedScore.turnPoints(actual, t));
+            }
+        }
+    }
+
+    @Test
+    void solveCountsTheMatch() {
+        /* the first team has every trump left and all the tricks so far */
+        long[] hands = new long[PlayerId.COUNT];
+        hands[0] = cards(Color.SPADE, Rank.JACK, Rank.NINE);
+        hands[1] = cards(Color.HEART, Rank.SIX, Rank.SEVEN);
+        hands[2] = cards(Color.SPADE, Rank.ACE, Rank.KING);
+        hands[3] = cards(Color.HEART, Rank.EIGHT, Rank.NINE);
+        /* whoever leads the last two tricks (the cards of the first ones do
+         * not matter) */
+        int trick = PackedTrick.firstEmpty(Color.SPADE, PlayerId.PLAYER_1);
+        for (int i = 0; i < Jass.TRICKS_PER_TURN - 2; ++i) {
+            for (Rank r : new Rank[] { Rank.SIX, Rank.SEVEN, Rank.EIGHT, Rank.NINE })
+                trick = PackedTrick.withAddedCard(trick, PackedCard.pack(Color.CLUB, r));
+            trick = PackedTrick.nextEmpty(trick);
+        }
+        long score = PackedScore.pack(7, 100, 0, 0, 0, 0);
+        long end = new EndgameSolver(BYTES).solve(score, trick, hands);
+        assertEquals(9, PackedScore.turnTricks(end, TeamId.TEAM_1));
+        /* the trumps, the last trick and the match */
+        assertEquals(100 + 20 + 14 + 11 + 4 + 5 + 100, PackedScore.turnPoints(end, TeamId.TEAM_1));
+        assertEquals(0, PackedScore.turnPoints(end, TeamId.TEAM_2));
+    }
+
+    private static long cards(Color color, Rank... ranks) {
+        long cards = PackedCardSet.EMPTY;
+        for (Rank r : ranks)
+            cards = PackedCardSet.add(cards, PackedCard.pack(color, r));
+        return cards;
+    }
+
+    /*
+     * deals the last cards of a random turn in the given hands, after a
+     * random number of cards of the trick of the given number of remaining
+     * tricks, and returns its score and its trick
+     */
+    private static long[] randomEndgame(SplittableRandom rng, int tricks, long[] hands) {
+        long deck = PackedCardSet.ALL_CARDS;
+        long score = PackedScore.INITIAL;
+        int trick = PackedTrick.firstEmpty(Color.ALL.get(rng.nextInt(Color.COUNT)),
+                PlayerId.ALL.get(rng.nextInt(PlayerId.COUNT)));
+        int played = (Jass.TRICKS_PER_TURN - tricks) * PlayerId.COUNT + rng.nextInt(PlayerId.COUNT);
+        /* the cards played are drawn by random players following the rules */
+        long[] fullHands = new long[PlayerId.COUNT];
+        for (int i = 0; i < Jass.TOTAL_CARDS; ++i) {
+            int pkCard = PackedCardSet.randomMember(deck, rng);
+            deck = PackedCardSet.remove(deck, pkCard);
+            fullHands[i % PlayerId.COUNT] = PackedCardSet.add(fullHands[i % PlayerId.COUNT], pkCard);
+        }
+        for (int i = 0; i < played; ++i) {
+            int p = PackedTrick.player(trick, PackedTrick.size(trick)).ordinal();
+            int pkCard = PackedCardSet.randomMember(
+                    PackedTrick.playableCards(trick, fullHands[p]), rng);
+            fullHands[p] = PackedCardSet.remove(fullHands[p], pkCard);
+            trick = PackedTrick.withAddedCard(trick, pkCard);
+            if (PackedTrick.isFull(trick)) {
+                score = PackedScore.withAdditionalTrick(score,
+                        PackedTrick.winningPlayer(trick).team(), PackedTrick.points(trick));
+                trick = PackedTrick.nextEmpty(trick);
+            }
+        }
+        System.arraycopy(fullHands, 0, hands, 0, PlayerId.COUNT);
+        return new long[] { score, trick };
+    }
+
+    /* the score of the best play, trying every card of every player */
+    private static long minimax(long score, int trick, long[] hands) {
+        if (trick == PackedTrick.INVALID)
+            return score;
+        int p = PackedTrick.player(trick, PackedTrick.size(trick)).ordinal();
+        boolean maximizing = PlayerId.ALL.get(p).team() == TeamId.TEAM_1;
+        long playable = PackedTrick.playableCards(trick, hands[p]);
+        long best = 0;
+        int bestDifference = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        for (int i = 0; i < PackedCardSet.size(playable); ++i) {
+            int pkCard = PackedCardSet.get(playable, i);
+            long nextScore = score;
+            int nextTrick = PackedTrick.withAddedCard(trick, pkCard);
+            if (PackedTrick.isFull(nextTrick)) {
+                nextScore = PackedScore.withAdditionalTrick(score,
+                        PackedTrick.winningPlayer(nextTrick).team(), PackedTrick.points(nextTrick));
+                nextTrick = PackedTrick.nextEmpty(nextTrick);
+            }
+            hands[p] = PackedCardSet.remove(hands[p], pkCard);
+            long end = minimax(nextScore, nextTrick, hands);
+            hands[p] = PackedCardSet.add(hands[p], pkCard);
+            int difference = PackedScore.turnPoints(end, TeamId.TEAM_1)
+                    - PackedScore.turnPoints(end, TeamId.TEAM_2);
+            if (maximizing ? difference > bestDifference : difference < bestDifference) {
+                best = end;
+                bestDifference = difference;
+            }
+        }
+        return best;
+    }
+}
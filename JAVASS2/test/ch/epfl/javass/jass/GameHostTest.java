@@ -0,0 +1,117 @@
+package ch.epfl.javass.jass;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import ch.epfl.javass.jass.Card.Color;
+
+public class GameHostTest {
+    private static final Map<PlayerId, String> NAMES = new EnumMap<>(PlayerId.class);
+    static {
+        for (PlayerId p : PlayerId.ALL)
+            NAMES.put(p, p.name());
+    }
+
+    private static final Player FIRST_CARD_PLAYER = new Player() {
+        @Override
+        public Card cardToPlay(TurnState state, CardSet hand) {
+            return state.trick().playableCards(hand).get(0);
+        }
+
+        @Override
+        public Color chooseTrump(CardSet hand) {
+            return Color.CLUB;
+        }
+    };
+
+    private static JassGame game(long seed, double minTimeInS) {
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        for (PlayerId p : PlayerId.ALL)
+            players.put(p, minTimeInS > 0 ? new PacedPlayer(FIRST_CARD_PLAYER, minTimeInS)
+                    : FIRST_CARD_PLAYER);
+        return new JassGame(seed, players, NAMES);
+    }
+
+    @Test
+    void hostedGamesEndLikeGamesPlayedDirectly() throws Exception {
+        try (GameHost host = new GameHost()) {
+            List<CompletableFuture<TeamId>> winners = new ArrayList<>();
+            for (long seed = 0; seed < 50; ++seed)
+                winners.add(host.host(game(seed, 0)));
+            for (int seed = 0; seed < winners.size(); ++seed) {
+                JassGame expected = game(seed, 0);
+                while (!expected.isGameOver())
+                    expected.advanceToEndOfNextTrick();
+                assertEquals(expected.winningTeam(), winners.get(seed).get(30, TimeUnit.SECONDS));
+            }
+            assertEquals(50, host.hostedTables());
+        }
+    }
+
+    @Test
+    void closeStopsTheWaitingGames() {
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            List<CompletableFuture<TeamId>> winners = new ArrayList<>();
+            GameHost host = new GameHost();
+            for (long seed = 0; seed < 100; ++seed)
+                winners.add(host.host(game(seed, 60), 1000));
+            assertTrue(host.tables() <= 100);
+            host.close();
+
+            assertEquals(0, host.tables());
+            for (CompletableFuture<TeamId> winner : winners)
+                assertThrows(CancellationException.class, winner::get);
+        });
+    }
+
+    @Test
+    void closeKeepsTheInterruptOfTheCallingThread() {
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            CompletableFuture<TeamId> winner;
+            try (GameHost host = new GameHost()) {
+                winner = host.host(game(0, 60), 1000);
+                Thread.currentThread().interrupt();
+            }
+            assertTrue(Thread.interrupted());
+            assertThrows(CancellationException.class, winner::get);
+        });
+    }
+
+    @Test
+    void hostUsesVirtualThreadsWhenTheJvmHasThem() throws Exception {
+        try (GameHost host = new GameHost()) {
+            CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+            Player probe = new Player() {
+                @Override
+                public Card cardToPlay(TurnState state, CardSet hand) {
+                    virtual.complete(Thread.currentThread().isDaemon()
+                            && !Thread.currentThread().getName().equals("table"));
+                    return FIRST_CARD_PLAYER.cardToPlay(state, hand);
+                }
+
+                @Override
+                public Color chooseTrump(CardSet hand) {
+                    return Color.CLUB;
+                }
+            };
+            Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+            for (PlayerId p : PlayerId.ALL)
+                players.put(p, probe);
+            host.host(new JassGame(0, players, NAMES)).get(30, TimeUnit.SECONDS);
+            assertEquals(GameHost.supportsVirtualThreads(), virtual.get());
+        }
+    }
+}
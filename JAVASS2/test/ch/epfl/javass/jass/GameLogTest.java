@@ -0,0 +1,166 @@
+package ch.epfl.javass.jass;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ch.epfl.javass.jass.Card.Color;
+
+public class GameLogTest {
+    private static final Map<PlayerId, String> NAMES = new EnumMap<>(PlayerId.class);
+    static {
+        List<String> names = Arrays.asList("Aline", "Bastien", "Colette", "Zoé");
+        for (PlayerId p : PlayerId.ALL)
+            NAMES.put(p, names.get(p.ordinal()));
+    }
+
+    /* a player writing down everything it is told */
+    private static final class RecordingPlayer implements Player {
+        private final Player player;
+        private final List<String> events = new ArrayList<>();
+
+        RecordingPlayer(Player player) {
+            this.player = player;
+        }
+
+        @Override
+        public Card cardToPlay(TurnState state, CardSet hand) {
+            return player.cardToPlay(state, hand);
+        }
+
+        @Override
+        public Color chooseTrump(CardSet hand) {
+            return player.chooseTrump(hand);
+        }
+
+        @Override
+        public void setPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            events.add("players " + ownId + " " + playerNames);
+        }
+
+        @Override
+        public void updateHand(CardSet newHand) {
+            events.add("hand " + newHand);
+        }
+
+        @Override
+        public void setTrump(Color trump) {
+            events.add("trump " + trump);
+        }
+
+        @Override
+        public void updateTrick(Trick newTrick) {
+            events.add("trick " + newTrick.packed());
+        }
+
+        @Override
+        public void updateScore(Score score) {
+            events.add("score " + score.packed());
+        }
+
+        @Override
+        public void setWinningTeam(TeamId winningTeam) {
+            events.add("winner " + winningTeam);
+        }
+
+        @Override
+        public void setWinningPlayerOfMelds(PlayerId winningPlayer, MeldSet meldset) {
+            events.add("melds " + winningPlayer + " " + meldset);
+        }
+    }
+
+    private static Map<PlayerId, Player> recordingPlayers(boolean simulated) {
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        for (PlayerId p : PlayerId.ALL)
+            players.put(p, new RecordingPlayer(simulated
+                    ? new MctsPlayer(p, p.ordinal(), Jass.HAND_SIZE) : null));
+        return players;
+    }
+
+    private static List<String> events(Map<PlayerId, Player> players, PlayerId p) {
+        return ((RecordingPlayer) players.get(p)).events;
+    }
+
+    private static Map<PlayerId, Player> playLoggedGame(long seed, GameLogWriter log) {
+        Map<PlayerId, Player> players = recordingPlayers(true);
+        JassGame game = new JassGame(seed, players, NAMES, log);
+        while (!game.isGameOver())
+            game.advanceToEndOfNextTrick();
+        return players;
+    }
+
+    @Test
+    void replayTellsThePlayersExactlyWhatTheGameTold() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        List<Map<PlayerId, Player>> played = new ArrayList<>();
+        try (GameLogWriter log = new GameLogWriter(Channels.newChannel(bytes))) {
+            for (long seed = 0; seed < 3; ++seed)
+                played.add(playLoggedGame(seed, log));
+        }
+
+        try (GameLogReader reader = new GameLogReader(
+                Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())))) {
+            for (Map<PlayerId, Player> game : played) {
+                Map<PlayerId, Player> replayed = recordingPlayers(false);
+                assertTrue(reader.replayGame(replayed));
+                for (PlayerId p : PlayerId.ALL)
+                    assertEquals(events(game, p), events(replayed, p));
+            }
+            assertFalse(reader.replayGame(recordingPlayers(false)));
+        }
+    }
+
+    @Test
+    void aTurnTakesAFewDozenBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Map<PlayerId, Player> players;
+        try (GameLogWriter log = new GameLogWriter(Channels.newChannel(bytes))) {
+            players = playLoggedGame(2019, log);
+        }
+        long turns = events(players, PlayerId.PLAYER_1).stream()
+                .filter(e -> e.startsWith("trump")).count();
+        assertTrue(bytes.size() < 80 * turns, bytes.size() + " bytes for " + turns + " turns");
+    }
+
+    @Test
+    void logIsAppendedToItsFile(@TempDir Path dir) {
+        Path file = dir.resolve("games.log");
+        for (long seed = 0; seed < 2; ++seed) {
+            try (GameLogWriter log = GameLogWriter.open(file)) {
+                playLoggedGame(seed, log);
+            }
+        }
+        try (GameLogReader reader = GameLogReader.open(file)) {
+            assertTrue(reader.replayGame(recordingPlayers(false)));
+            assertTrue(reader.replayGame(recordingPlayers(false)));
+            assertFalse(reader.replayGame(recordingPlayers(false)));
+        }
+    }
+
+    @Test
+    void truncatedLogCannotBeReplayed() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GameLogWriter log = new GameLogWriter(Channels.newChannel(bytes))) {
+            playLoggedGame(1, log);
+        }
+        byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 1);
+        GameLogReader reader = new GameLogReader(
+                Channels.newChannel(new ByteArrayInputStream(truncated)));
+        assertThrows(UncheckedIOException.class, () -> reader.replayGame(recordingPlayers(false)));
+    }
+}
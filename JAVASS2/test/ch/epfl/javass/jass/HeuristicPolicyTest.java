@@ -0,0 +1,106 @@
+package ch.epfl.javass.jass;
+
+import static ch.epfl.test.TestRandomizer.RANDOM_ITERATIONS;
+import static ch.epfl.test.TestRandomizer.newRandom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import ch.epfl.javass.jass.Card.Color;
+import ch.epfl.javass.jass.Card.Rank;
+
+public class HeuristicPolicyTest {
+    private static final RolloutPolicy[] POLICIES = { RolloutPolicy.RANDOM,
+            RolloutPolicy.WIN_OR_DISCARD, RolloutPolicy.SMEAR, RolloutPolicy.SAVE_TRUMPS };
+
+    @Test
+    void policiesPlayAPlayableCard() {
+        SplittableRandom rng = newRandom();
+        for (int i = 0; i < RANDOM_ITERATIONS; ++i) {
+            int trick = PackedTrick.firstEmpty(Color.ALL.get(rng.nextInt(Color.COUNT)),
+                    PlayerId.ALL.get(rng.nextInt(PlayerId.COUNT)));
+            long deck = PackedCardSet.ALL_CARDS;
+            for (int j = rng.nextInt(PlayerId.COUNT); j > 0; --j) {
+                int pkCard = PackedCardSet.randomMember(deck, rng);
+                deck = PackedCardSet.remove(deck, pkCard);
+                trick = PackedTrick.withAddedCard(trick, pkCard);
+            }
+            long hand = PackedCardSet.EMPTY;
+            for (int j = 1 + rng.nextInt(Jass.HAND_SIZE); j > 0; --j) {
+                int pkCard = PackedCardSet.randomMember(deck, rng);
+                deck = PackedCardSet.remove(deck, pkCard);
+                hand = PackedCardSet.add(hand, pkCard);
+            }
+            long playable = PackedTrick.playableCards(trick, hand);
+            for (RolloutPolicy policy : POLICIES)
+                assertTrue(PackedCardSet.contains(playable, policy.cardToPlay(trick, playable, rng)));
+        }
+    }
+
+    @Test
+    void winOrDiscardWinsWithTheWeakestWinningCard() {
+        int trick = trick(Color.SPADE, card(Color.HEART, Rank.TEN));
+        long playable = cards(card(Color.HEART, Rank.KING), card(Color.HEART, Rank.ACE),
+                card(Color.HEART, Rank.SIX), card(Color.SPADE, Rank.JACK));
+        assertEquals(card(Color.HEART, Rank.KING),
+                RolloutPolicy.WIN_OR_DISCARD.cardToPlay(trick, playable, newRandom()));
+    }
+
+    @Test
+    void winOrDiscardDiscardsTheCardWithTheFewestPoints() {
+        int trick = trick(Color.SPADE, card(Color.HEART, Rank.ACE));
+        long playable = cards(card(Color.HEART, Rank.TEN), card(Color.HEART, Rank.SEVEN),
+                card(Color.HEART, Rank.QUEEN));
+        assertEquals(card(Color.HEART, Rank.SEVEN),
+                RolloutPolicy.WIN_OR_DISCARD.cardToPlay(trick, playable, newRandom()));
+    }
+
+    @Test
+    void smearGivesTheMostPointsToAWinningTeamMate() {
+        /* the first player wins the trick the third one plays in */
+        int trick = trick(Color.SPADE, card(Color.HEART, Rank.ACE), card(Color.HEART, Rank.SIX));
+        long playable = cards(card(Color.HEART, Rank.TEN), card(Color.HEART, Rank.SEVEN),
+                card(Color.HEART, Rank.QUEEN));
+        assertEquals(card(Color.HEART, Rank.TEN),
+                RolloutPolicy.SMEAR.cardToPlay(trick, playable, newRandom()));
+        assertEquals(card(Color.HEART, Rank.SEVEN),
+                RolloutPolicy.WIN_OR_DISCARD.cardToPlay(trick, playable, newRandom()));
+    }
+
+    @Test
+    void saveTrumpsDoesNotTrumpACheapTrick() {
+        int trick = trick(Color.SPADE, card(Color.HEART, Rank.KING));
+        long playable = cards(card(Color.SPADE, Rank.SIX), card(Color.CLUB, Rank.SEVEN),
+                card(Color.CLUB, Rank.TEN));
+        assertEquals(card(Color.SPADE, Rank.SIX),
+                RolloutPolicy.WIN_OR_DISCARD.cardToPlay(trick, playable, newRandom()));
+        assertEquals(card(Color.CLUB, Rank.SEVEN),
+                RolloutPolicy.SAVE_TRUMPS.cardToPlay(trick, playable, newRandom()));
+
+        /* a ten is worth trumping */
+        trick = trick(Color.SPADE, card(Color.HEART, Rank.TEN));
+        assertEquals(card(Color.SPADE, Rank.SIX),
+                RolloutPolicy.SAVE_TRUMPS.cardToPlay(trick, playable, newRandom()));
+    }
+
+    private static int card(Color color, Rank rank) {
+        return PackedCard.pack(color, rank);
+    }
+
+    private static long cards(int... pkCards) {
+        long cards = PackedCardSet.EMPTY;
+        for (int pkCard : pkCards)
+            cards = PackedCardSet.add(cards, pkCard);
+        return cards;
+    }
+
+    private static int trick(Color trump, int... pkCards) {
+        int trick = PackedTrick.firstEmpty(trump, PlayerId.PLAYER_1);
+        for (int pkCard : pkCards)
+            trick = PackedTrick.withAddedCard(trick, pkCard);
+        return trick;
+    }
+}
@@ -0,0 +1,174 @@
+package ch.epfl.javass.jass;
+
+import static ch.epfl.test.TestRandomizer.RANDOM_ITERATIONS;
+import static ch.epfl.test.TestRandomizer.newRandom;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import ch.epfl.javass.jass.Card.Color;
+
+public class JassGameSnapshotTest {
+    private static final Map<PlayerId, String> NAMES = new EnumMap<>(PlayerId.class);
+    static {
+        for (PlayerId p : PlayerId.ALL)
+            NAMES.put(p, p.name());
+    }
+
+    /* a player whose choices only depend on what it is asked */
+    private static final class FirstCardPlayer implements Player {
+        @Override
+        public Card cardToPlay(TurnState state, CardSet hand) {
+            return state.trick().playableCards(hand).get(0);
+        }
+
+        @Override
+        public Color chooseTrump(CardSet hand) {
+            Color best = Color.SPADE;
+            for (Color c : Color.ALL) {
+                if (hand.subsetOfColor(c).size() > hand.subsetOfColor(best).size())
+                    best = c;
+            }
+            return best;
+        }
+    }
+
+    private static Map<PlayerId, Player> players() {
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        for (PlayerId p : PlayerId.ALL)
+            players.put(p, new FirstCardPlayer());
+        return players;
+    }
+
+    private static int playToTheEnd(JassGame game) {
+        int tricks = 0;
+        while (!game.isGameOver()) {
+            game.advanceToEndOfNextTrick();
+            ++tricks;
+        }
+        return tricks;
+    }
+
+    private static byte[] snapshot(JassGame game) {
+        ByteBuffer buffer = ByteBuffer.allocate(JassGame.SNAPSHOT_SIZE);
+        game.snapshot(buffer);
+        assertFalse(buffer.hasRemaining());
+        return buffer.array();
+    }
+
+    @Test
+    void checkpointableRandomGivesTheNumbersOfRandom() {
+        SplittableRandom rng = newRandom();
+        for (int i = 0; i < RANDOM_ITERATIONS; ++i) {
+            long seed = rng.nextLong();
+            Random expected = new Random(seed);
+            CheckpointableRandom actual = new CheckpointableRandom(seed);
+            for (int j = 0; j < 20; ++j)
+                assertEquals(expected.nextInt(36 - j), actual.nextInt(36 - j));
+            assertEquals(expected.nextLong(), actual.nextLong());
+        }
+    }
+
+    @Test
+    void checkpointableRandomRestartsFromItsState() {
+        CheckpointableRandom rng = new CheckpointableRandom(2019);
+        rng.nextInt();
+        long state = rng.state();
+        int[] numbers = { rng.nextInt(), rng.nextInt(), rng.nextInt() };
+        rng.setState(state);
+        assertArrayEquals(numbers, new int[] { rng.nextInt(), rng.nextInt(), rng.nextInt() });
+    }
+
+    @Test
+    void restoredGameEndsLikeTheOriginalOne() {
+        SplittableRandom rng = newRandom();
+        for (int i = 0; i < 10; ++i) {
+            long seed = rng.nextLong();
+            JassGame original = new JassGame(seed, players(), NAMES);
+            int tricks = playToTheEnd(original);
+
+            /* every trick, including the first ones of the turns, whose melds
+             * are not compared yet */
+            int stop = rng.nextInt(tricks + 1);
+            JassGame game = new JassGame(seed, players(), NAMES);
+            for (int t = 0; t < stop; ++t)
+                game.advanceToEndOfNextTrick();
+            byte[] snapshot = snapshot(game);
+            JassGame restored = JassGame.restore(ByteBuffer.wrap(snapshot), players(), NAMES);
+            assertArrayEquals(snapshot, snapshot(restored));
+
+            assertEquals(tricks - stop, playToTheEnd(restored));
+            assertEquals(original.score(), restored.score());
+            assertEquals(original.winningTeam(), restored.winningTeam());
+        }
+    }
+
+    @Test
+    void restoredGameGoesOnWithTheLogOfTheOriginalOne() {
+        SplittableRandom rng = newRandom();
+        for (int i = 0; i < 10; ++i) {
+            long seed = rng.nextLong();
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            int tricks;
+            try (GameLogWriter log = new GameLogWriter(Channels.newChannel(expected))) {
+                tricks = playToTheEnd(new JassGame(seed, players(), NAMES, log));
+            }
+
+            int stop = rng.nextInt(tricks + 1);
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            try (GameLogWriter log = new GameLogWriter(Channels.newChannel(actual))) {
+                JassGame game = new JassGame(seed, players(), NAMES, log);
+                for (int t = 0; t < stop; ++t)
+                    game.advanceToEndOfNextTrick();
+                byte[] snapshot = snapshot(game);
+                playToTheEnd(JassGame.restore(ByteBuffer.wrap(snapshot), players(), NAMES, log));
+            }
+            assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+        }
+    }
+
+    @Test
+    void restoredGameIsNotLoggedWithoutLog() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GameLogWriter log = new GameLogWriter(Channels.newChannel(bytes))) {
+            JassGame game = new JassGame(2019, players(), NAMES, log);
+            game.advanceToEndOfNextTrick();
+            log.flush();
+            int logged = bytes.size();
+            playToTheEnd(JassGame.restore(ByteBuffer.wrap(snapshot(game)), players(), NAMES));
+            log.flush();
+            assertEquals(logged, bytes.size());
+        }
+    }
+
+    @Test
+    void snapshotsAfterEachTrickCanBeRestored() {
+        JassGame game = new JassGame(2019, players(), NAMES);
+        while (!game.isGameOver()) {
+            game.advanceToEndOfNextTrick();
+            byte[] snapshot = snapshot(game);
+            assertArrayEquals(snapshot,
+                    snapshot(JassGame.restore(ByteBuffer.wrap(snapshot), players(), NAMES)));
+        }
+        assertTrue(game.score().totalPoints(game.winningTeam()) >= Jass.WINNING_POINTS);
+    }
+
+    @Test
+    void snapshotFailsOnATooSmallBuffer() {
+        JassGame game = new JassGame(0, players(), NAMES);
+        assertThrows(IllegalArgumentException.class,
+                () -> game.snapshot(ByteBuffer.allocate(JassGame.SNAPSHOT_SIZE - 1)));
+    }
+}
@@ -1,10 +1,16 @@
 package ch.epfl.javass.jass;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
@@ -392,6 +398,553 @@ public class MctsPlayerTest {
         });
     }
 
+    @Test
+    void withRootParallelismFailsWithNonPositiveThreads() {
+        MctsPlayer p = new MctsPlayer(PlayerId.PLAYER_1, SEED, ITERATIONS);
+        for (int t = -2; t <= 0; ++t) {
+            int threads = t;
+            assertThrows(IllegalArgumentException.class, () -> {
+                p.withRootParallelism(threads);
+            });
+        }
+    }
+
+    @Test
+    void rootParallelPlayerPlaysCorrectly() {
+        // Lots of points in this trick, over-cut to get them
+        MctsPlayer p = new MctsPlayer(PlayerId.PLAYER_4, SEED, ITERATIONS)
+                .withRootParallelism(4);
+        TurnState state = TurnState.initial(Color.CLUB, Score.INITIAL, PlayerId.PLAYER_1)
+                .withNewCardPlayed(Card.of(Color.SPADE, Rank.TEN))
+                .withNewCardPlayed(Card.of(Color.HEART, Rank.TEN))
+                .withNewCardPlayed(Card.of(Color.CLUB, Rank.NINE));
+        CardSet hand = CardSet.EMPTY
+                .add(Card.of(Color.SPADE, Rank.EIGHT))
+                .add(Card.of(Color.SPADE, Rank.NINE))
+                .add(Card.of(Color.SPADE, Rank.JACK))
+                .add(Card.of(Color.CLUB, Rank.JACK))
+                .add(Card.of(Color.HEART, Rank.SEVEN))
+                .add(Card.of(Color.HEART, Rank.EIGHT))
+                .add(Card.of(Color.HEART, Rank.NINE))
+                .add(Card.of(Color.HEART, Rank.JACK))
+                .add(Card.of(Color.HEART, Rank.QUEEN));
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            Card c = p.cardToPlay(state, hand);
+            assertEquals(Card.of(Color.CLUB, Rank.JACK), c);
+        });
+    }
+
+    @Test
+    void withTreeParallelismFailsWithNonPositiveThreads() {
+        MctsPlayer p = new MctsPlayer(PlayerId.PLAYER_1, SEED, ITERATIONS);
+        for (int t = -2; t <= 0; ++t) {
+            int threads = t;
+            assertThrows(IllegalArgumentException.class, () -> {
+                p.withTreeParallelism(threads);
+            });
+        }
+    }
+
+    @Test
+    void treeParallelPlayerPlaysCorrectly() {
+        // Our team will win this trick, play the 10 to maximize points
+        MctsPlayer p = new MctsPlayer(PlayerId.PLAYER_4, SEED, ITERATIONS)
+                .withTreeParallelism(4);
+        TurnState state = TurnState.initial(Color.CLUB, Score.INITIAL, PlayerId.PLAYER_1)
+                .withNewCardPlayed(Card.of(Color.SPADE, Rank.JACK))
+                .withNewCardPlayed(Card.of(Color.SPADE, Rank.QUEEN))
+                .withNewCardPlayed(Card.of(Color.SPADE, Rank.SIX));
+        CardSet hand = CardSet.EMPTY
+                .add(Card.of(Color.SPADE, Rank.EIGHT))
+                .add(Card.of(Color.SPADE, Rank.NINE))
+                .add(Card.of(Color.SPADE, Rank.TEN))
+                .add(Card.of(Color.CLUB, Rank.SIX))
+                .add(Card.of(Color.HEART, Rank.SEVEN))
+                .add(Card.of(Color.HEART, Rank.EIGHT))
+                .add(Card.of(Color.HEART, Rank.NINE))
+                .add(Card.of(Color.HEART, Rank.TEN))
+                .add(Card.of(Color.HEART, Rank.JACK));
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            Card c = p.cardToPlay(state, hand);
+            assertEquals(Card.of(Color.SPADE, Rank.TEN), c);
+        });
+    }
+
+    @Test
+    void treeParallelPlayerRunsMoreIterationsThanItsTreeHasNodes() {
+        int iterations = 300_000;
+        MctsPlayer p = new MctsPlayer(PlayerId.PLAYER_1, SEED, iterations)
+                .withTreeParallelism(2);
+        CardSet hand = CardSet.EMPTY;
+        for (int i = 0; i < CardSet.ALL_CARDS.size(); i += PlayerId.COUNT)
+            hand = hand.add(CardSet.ALL_CARDS.get(i));
+        TurnState state = TurnState.initial(Color.CLUB, Score.INITIAL, PlayerId.PLAYER_1);
+        CardSet playable = hand;
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            assertTrue(playable.contains(p.cardToPlay(state, playable)));
+            assertEquals(iterations, p.lastSearchIterations());
+        });
+    }
+
+    @Test
+    void rootParallelPlayerIsDeterministic() {
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            for (int threads = 1; threads <= 3; ++threads) {
+                assertEquals(cardsPlayedInOneTurn(threads), cardsPlayedInOneTurn(threads));
+            }
+        });
+    }
+
+    @Test
+    void withTimeBudgetFailsWithNonPositiveBudget() {
+        MctsPlayer p = new MctsPlayer(PlayerId.PLAYER_1, SEED, ITERATIONS);
+        assertThrows(IllegalArgumentException.class, () -> {
+            p.withTimeBudget(Duration.ZERO);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            p.withTimeBudget(Duration.ofMillis(-50));
+        });
+    }
+
+    @Test
+    void lastSearchIterationsIsIterationsWithoutTimeBudget() {
+        MctsPlayer p = new MctsPlayer(PlayerId.PLAYER_1, SEED, 1_000);
+        TurnState state = TurnState.initial(Color.SPADE, Score.INITIAL, PlayerId.PLAYER_1);
+        CardSet hand = CardSet.ALL_CARDS.subsetOfColor(Color.HEART);
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            p.cardToPlay(state, hand);
+            assertEquals(1_000, p.lastSearchIterations());
+            p.cardToPlay(state, CardSet.EMPTY.add(Card.of(Color.HEART, Rank.SIX)));
+            assertEquals(0, p.lastSearchIterations());
+        });
+    }
+
+    @Test
+    void timeBudgetedPlayerStopsAtDeadline() {
+        MctsPlayer p = new MctsPlayer(PlayerId.PLAYER_1, SEED, 8_000_000)
+                .withTimeBudget(Duration.ofMillis(50));
+        TurnState state = TurnState.initial(Color.SPADE, Score.INITIAL, PlayerId.PLAYER_1);
+        CardSet hand = CardSet.ALL_CARDS.subsetOfColor(Color.HEART);
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            long t0 = System.nanoTime();
+            Card c = p.cardToPlay(state, hand);
+            long elapsedMillis = (System.nanoTime() - t0) / 1_000_000;
+            assertTrue(hand.contains(c));
+            assertTrue(elapsedMillis < 1_000);
+            assertTrue(p.lastSearchIterations() > 0);
+            assertTrue(p.lastSearchIterations() < 8_000_000);
+        });
+    }
+
+    @Test
+    void treeReusingPlayerPlaysCorrectlyDuringATurn() {
+        CardSet[] hands = new CardSet[PlayerId.COUNT];
+        MctsPlayer[] players = new MctsPlayer[PlayerId.COUNT];
+        for (PlayerId id : PlayerId.ALL) {
+            hands[id.ordinal()] = CardSet.EMPTY;
+            players[id.ordinal()] = new MctsPlayer(id, SEED + id.ordinal(), 500)
+                    .withTreeReuse();
+            players[id.ordinal()].setTrump(Color.DIAMOND);
+        }
+        for (int i = 0; i < CardSet.ALL_CARDS.size(); ++i)
+            hands[i % PlayerId.COUNT] = hands[i % PlayerId.COUNT].add(CardSet.ALL_CARDS.get(i));
+
+        TurnState state = TurnState.initial(Color.DIAMOND, Score.INITIAL, PlayerId.PLAYER_3);
+        while (!state.isTerminal()) {
+            int p = state.nextPlayer().ordinal();
+            Card c = players[p].cardToPlay(state, hands[p]);
+            assertTrue(state.trick().playableCards(hands[p]).contains(c));
+            int searchIterations = players[p].lastSearchIterations();
+            assertTrue(searchIterations == 0 || searchIterations == 500);
+            hands[p] = hands[p].remove(c);
+            state = state.withNewCardPlayed(c);
+            for (MctsPlayer player : players)
+                player.updateTrick(state.trick());
+            if (state.trick().isFull())
+                state = state.withTrickCollected();
+        }
+    }
+
+    @Test
+    void determinizedPlayerPlaysCorrectlyDuringATurn() {
+        CardSet[] hands = new CardSet[PlayerId.COUNT];
+        MctsPlayer[] players = new MctsPlayer[PlayerId.COUNT];
+        for (PlayerId id : PlayerId.ALL) {
+            hands[id.ordinal()] = CardSet.EMPTY;
+            players[id.ordinal()] = new MctsPlayer(id, SEED + id.ordinal(), 500)
+                    .withDeterminization().withTreeReuse();
+            players[id.ordinal()].setTrump(Color.CLUB);
+        }
+        for (int i = 0; i < CardSet.ALL_CARDS.size(); ++i)
+            hands[(i / 3) % PlayerId.COUNT] = hands[(i / 3) % PlayerId.COUNT].add(CardSet.ALL_CARDS.get(i));
+
+        TurnState state = TurnState.initial(Color.CLUB, Score.INITIAL, PlayerId.PLAYER_2);
+        while (!state.isTerminal()) {
+            int p = state.nextPlayer().ordinal();
+            Card c = players[p].cardToPlay(state, hands[p]);
+            assertTrue(state.trick().playableCards(hands[p]).contains(c));
+            hands[p] = hands[p].remove(c);
+            state = state.withNewCardPlayed(c);
+            for (MctsPlayer player : players)
+                player.updateTrick(state.trick());
+            if (state.trick().isFull())
+                state = state.withTrickCollected();
+        }
+    }
+
+    @Test
+    void withTranspositionsFailsWithTooSmallTable() {
+        MctsPlayer p = new MctsPlayer(PlayerId.PLAYER_1, SEED, ITERATIONS);
+        assertThrows(IllegalArgumentException.class, () -> {
+            p.withTranspositions(TranspositionTable.MIN_BYTES - 1);
+        });
+    }
+
+    @Test
+    void transposingPlayerPlaysCorrectlyDuringATurn() {
+        CardSet[] hands = new CardSet[PlayerId.COUNT];
+        MctsPlayer[] players = new MctsPlayer[PlayerId.COUNT];
+        for (PlayerId id : PlayerId.ALL) {
+            hands[id.ordinal()] = CardSet.EMPTY;
+            /* a small table, so that it gets full */
+            players[id.ordinal()] = new MctsPlayer(id, SEED + id.ordinal(), 2_000)
+                    .withTranspositions(1 << 12).withTreeReuse();
+            players[id.ordinal()].setTrump(Color.HEART);
+        }
+        for (int i = 0; i < CardSet.ALL_CARDS.size(); ++i)
+            hands[i / Jass.HAND_SIZE] = hands[i / Jass.HAND_SIZE].add(CardSet.ALL_CARDS.get(i));
+
+        TurnState state = TurnState.initial(Color.HEART, Score.INITIAL, PlayerId.PLAYER_4);
+        while (!state.isTerminal()) {
+            int p = state.nextPlayer().ordinal();
+            Card c = players[p].cardToPlay(state, hands[p]);
+            assertTrue(state.trick().playableCards(hands[p]).contains(c));
+            hands[p] = hands[p].remove(c);
+            state = state.withNewCardPlayed(c);
+            for (MctsPlayer player : players)
+                player.updateTrick(state.trick());
+            if (state.trick().isFull())
+                state = state.withTrickCollected();
+        }
+    }
+
+    @Test
+    void groupingPlayerPlaysCorrectlyDuringATurn() {
+        CardSet[] hands = new CardSet[PlayerId.COUNT];
+        MctsPlayer[] players = new MctsPlayer[PlayerId.COUNT];
+        for (PlayerId id : PlayerId.ALL) {
+            hands[id.ordinal()] = CardSet.EMPTY;
+            players[id.ordinal()] = new MctsPlayer(id, SEED + id.ordinal(), 500)
+                    .withCardGrouping().withTreeReuse();
+            players[id.ordinal()].setTrump(Color.CLUB);
+        }
+        /* each player has the cards of a color, many of them equivalent */
+        for (int i = 0; i < CardSet.ALL_CARDS.size(); ++i)
+            hands[i / Jass.HAND_SIZE] = hands[i / Jass.HAND_SIZE].add(CardSet.ALL_CARDS.get(i));
+
+        TurnState state = TurnState.initial(Color.CLUB, Score.INITIAL, PlayerId.PLAYER_1);
+        while (!state.isTerminal()) {
+            int p = state.nextPlayer().ordinal();
+            Card c = players[p].cardToPlay(state, hands[p]);
+            assertTrue(state.trick().playableCards(hands[p]).contains(c));
+            hands[p] = hands[p].remove(c);
+            state = state.withNewCardPlayed(c);
+            for (MctsPlayer player : players)
+                player.updateTrick(state.trick());
+            if (state.trick().isFull())
+                state = state.withTrickCollected();
+        }
+    }
+
+    @Test
+    void policyPlayerPlaysCorrectlyDuringATurn() {
+        for (boolean determinization : new boolean[] { false, true }) {
+            CardSet[] hands = new CardSet[PlayerId.COUNT];
+            MctsPlayer[] players = new MctsPlayer[PlayerId.COUNT];
+            for (PlayerId id : PlayerId.ALL) {
+                hands[id.ordinal()] = CardSet.EMPTY;
+                MctsPlayer player = new MctsPlayer(id, SEED + id.ordinal(), 300)
+                        .withRolloutPolicy(RolloutPolicy.SAVE_TRUMPS);
+                players[id.ordinal()] = determinization ? player.withDeterminization() : player;
+                players[id.ordinal()].setTrump(Color.HEART);
+            }
+            for (int i = 0; i < CardSet.ALL_CARDS.size(); ++i)
+                hands[i % PlayerId.COUNT] = hands[i % PlayerId.COUNT].add(CardSet.ALL_CARDS.get(i));
+
+            TurnState state = TurnState.initial(Color.HEART, Score.INITIAL, PlayerId.PLAYER_2);
+            while (!state.isTerminal()) {
+                int p = state.nextPlayer().ordinal();
+                Card c = players[p].cardToPlay(state, hands[p]);
+                assertTrue(state.trick().playableCards(hands[p]).contains(c));
+                hands[p] = hands[p].remove(c);
+                state = state.withNewCardPlayed(c);
+                for (MctsPlayer player : players)
+                    player.updateTrick(state.trick());
+                if (state.trick().isFull())
+                    state = state.withTrickCollected();
+            }
+        }
+    }
+
+    @Test
+    void ponderingPlayersPlayCorrectlyDuringATurn() {
+        CardSet[] hands = new CardSet[PlayerId.COUNT];
+        MctsPlayer[] players = new MctsPlayer[PlayerId.COUNT];
+        for (PlayerId id : PlayerId.ALL) {
+            hands[id.ordinal()] = CardSet.EMPTY;
+            players[id.ordinal()] = new MctsPlayer(id, SEED + id.ordinal(), 500)
+                    .withPondering().withDeterminization();
+            players[id.ordinal()].setTrump(Color.DIAMOND);
+        }
+        for (int i = 0; i < CardSet.ALL_CARDS.size(); ++i)
+            hands[i % PlayerId.COUNT] = hands[i % PlayerId.COUNT].add(CardSet.ALL_CARDS.get(i));
+
+        TurnState state = TurnState.initial(Color.DIAMOND, Score.INITIAL, PlayerId.PLAYER_4);
+        while (!state.isTerminal()) {
+            int p = state.nextPlayer().ordinal();
+            Card c = players[p].cardToPlay(state, hands[p]);
+            assertTrue(state.trick().playableCards(hands[p]).contains(c));
+            hands[p] = hands[p].remove(c);
+            state = state.withNewCardPlayed(c);
+            for (MctsPlayer player : players)
+                player.updateTrick(state.trick());
+            if (state.trick().isFull())
+                state = state.withTrickCollected();
+        }
+        for (MctsPlayer player : players)
+            assertFalse(player.isPondering());
+    }
+
+    @Test
+    void ponderingThreadEndsWithTheGame() throws InterruptedException {
+        /* the players of the other tests may still have their thread */
+        long before = ponderThreads();
+        MctsPlayer player = new MctsPlayer(PlayerId.PLAYER_1, SEED, 2_000).withPondering();
+        player.setTrump(Color.SPADE);
+        TurnState state = TurnState.initial(Color.SPADE, Score.INITIAL, PlayerId.PLAYER_1);
+        CardSet hand = CardSet.EMPTY;
+        for (int i = 0; i < CardSet.ALL_CARDS.size(); i += PlayerId.COUNT)
+            hand = hand.add(CardSet.ALL_CARDS.get(i));
+        Card c = player.cardToPlay(state, hand);
+        player.updateTrick(state.withNewCardPlayed(c).trick());
+        assertEquals(before + 1, ponderThreads());
+
+        player.setWinningTeam(TeamId.TEAM_1);
+        assertFalse(player.isPondering());
+        for (int wait = 0; ponderThreads() > before && wait < 10_000; ++wait)
+            Thread.sleep(1);
+        assertEquals(before, ponderThreads());
+    }
+
+    private static long ponderThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().equals("ponder") && t.isAlive()).count();
+    }
+
+    @Test
+    void ponderingPlayerAnswersFromThePonderedTree() throws InterruptedException {
+        MctsPlayer player = new MctsPlayer(PlayerId.PLAYER_1, SEED, 2_000).withPondering();
+        player.setTrump(Color.SPADE);
+        CardSet[] hands = new CardSet[PlayerId.COUNT];
+        Arrays.fill(hands, CardSet.EMPTY);
+        for (int i = 0; i < CardSet.ALL_CARDS.size(); ++i)
+            hands[i % PlayerId.COUNT] = hands[i % PlayerId.COUNT].add(CardSet.ALL_CARDS.get(i));
+
+        TurnState state = TurnState.initial(Color.SPADE, Score.INITIAL, PlayerId.PLAYER_1);
+        int decisions = 0;
+        while (!state.isTerminal()) {
+            int p = state.nextPlayer().ordinal();
+            Card c;
+            if (p == 0) {
+                c = player.cardToPlay(state, hands[0]);
+                /* the other players left time to visit the root enough */
+                if (decisions++ > 0 && state.trick().playableCards(hands[0]).size() > 1)
+                    assertEquals(0, player.lastSearchIterations());
+            } else {
+                c = state.trick().playableCards(hands[p]).get(0);
+            }
+            hands[p] = hands[p].remove(c);
+            state = state.withNewCardPlayed(c);
+            player.updateTrick(state.trick());
+            for (int wait = 0; player.isPondering() && wait < 10_000; ++wait)
+                Thread.sleep(1);
+            assertFalse(player.isPondering());
+            if (state.trick().isFull())
+                state = state.withTrickCollected();
+        }
+    }
+
+    @Test
+    void earlyStoppingPlayerRunsOrSavesEveryIteration() {
+        int iterations = 5_000;
+        CardSet[] hands = new CardSet[PlayerId.COUNT];
+        MctsPlayer[] players = new MctsPlayer[PlayerId.COUNT];
+        for (PlayerId id : PlayerId.ALL) {
+            hands[id.ordinal()] = CardSet.EMPTY;
+            MctsPlayer player = new MctsPlayer(id, SEED + id.ordinal(), iterations);
+            players[id.ordinal()] = id.team() == TeamId.TEAM_1 ? player.withEarlyStopping() : player;
+            players[id.ordinal()].setTrump(Color.CLUB);
+        }
+        for (int i = 0; i < CardSet.ALL_CARDS.size(); ++i)
+            hands[i % PlayerId.COUNT] = hands[i % PlayerId.COUNT].add(CardSet.ALL_CARDS.get(i));
+
+        long saved = 0;
+        TurnState state = TurnState.initial(Color.CLUB, Score.INITIAL, PlayerId.PLAYER_1);
+        while (!state.isTerminal()) {
+            int p = state.nextPlayer().ordinal();
+            Card c = players[p].cardToPlay(state, hands[p]);
+            assertTrue(state.trick().playableCards(hands[p]).contains(c));
+            if (state.trick().playableCards(hands[p]).size() > 1)
+                assertEquals(iterations, players[p].lastSearchIterations()
+                        + players[p].lastSavedIterations());
+            if (PlayerId.ALL.get(p).team() == TeamId.TEAM_1)
+                saved += players[p].lastSavedIterations();
+            else
+                assertEquals(0, players[p].lastSavedIterations());
+            hands[p] = hands[p].remove(c);
+            state = state.withNewCardPlayed(c);
+            for (MctsPlayer player : players)
+                player.updateTrick(state.trick());
+            if (state.trick().isFull())
+                state = state.withTrickCollected();
+        }
+        assertTrue(saved > 0);
+    }
+
+    @Test
+    void withEndgameSolverFailsWithInvalidNumberOfCards() {
+        MctsPlayer p = new MctsPlayer(PlayerId.PLAYER_1, SEED, ITERATIONS);
+        for (int cards : new int[] { -1, 0, Jass.TOTAL_CARDS + 1 }) {
+            assertThrows(IllegalArgumentException.class, () -> {
+                p.withEndgameSolver(cards);
+            });
+        }
+    }
+
+    @Test
+    void solvingPlayerPlaysCorrectlyDuringATurn() {
+        CardSet[] hands = new CardSet[PlayerId.COUNT];
+        MctsPlayer[] players = new MctsPlayer[PlayerId.COUNT];
+        for (PlayerId id : PlayerId.ALL) {
+            hands[id.ordinal()] = CardSet.EMPTY;
+            MctsPlayer player = new MctsPlayer(id, SEED + id.ordinal(), 500).withEndgameSolver(12);
+            /* the solver deals the hidden cards with and without beliefs */
+            players[id.ordinal()] = id.team() == TeamId.TEAM_1 ? player.withDeterminization() : player;
+            players[id.ordinal()].setTrump(Color.SPADE);
+        }
+        for (int i = 0; i < CardSet.ALL_CARDS.size(); ++i)
+            hands[i % PlayerId.COUNT] = hands[i % PlayerId.COUNT].add(CardSet.ALL_CARDS.get(i));
+
+        TurnState state = TurnState.initial(Color.SPADE, Score.INITIAL, PlayerId.PLAYER_2);
+        while (!state.isTerminal()) {
+            int p = state.nextPlayer().ordinal();
+            Card c = players[p].cardToPlay(state, hands[p]);
+            assertTrue(state.trick().playableCards(hands[p]).contains(c));
+            hands[p] = hands[p].remove(c);
+            state = state.withNewCardPlayed(c);
+            for (MctsPlayer player : players)
+                player.updateTrick(state.trick());
+            if (state.trick().isFull())
+                state = state.withTrickCollected();
+        }
+    }
+
+    @Test
+    void withTrumpSimulationFailsWithNonPositiveBudget() {
+        MctsPlayer p = new MctsPlayer(PlayerId.PLAYER_1, SEED, ITERATIONS);
+        assertThrows(IllegalArgumentException.class, () -> {
+            p.withTrumpSimulation(Duration.ZERO);
+        });
+    }
+
+    @Test
+    void trumpSimulatingPlayerChoosesTheColorOfAStrongHand() {
+        /* the 6 highest trumps of heart, and 3 low spades */
+        CardSet hand = CardSet.EMPTY;
+        for (Rank r : new Rank[] { Rank.NINE, Rank.TEN, Rank.JACK, Rank.QUEEN, Rank.KING, Rank.ACE })
+            hand = hand.add(Card.of(Color.HEART, r));
+        for (Rank r : new Rank[] { Rank.SIX, Rank.SEVEN, Rank.EIGHT })
+            hand = hand.add(Card.of(Color.SPADE, r));
+        MctsPlayer p = new MctsPlayer(PlayerId.PLAYER_2, SEED, 2_000)
+                .withTrumpSimulation(Duration.ofSeconds(10));
+        p.updateHand(hand);
+        CardSet h = hand;
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            assertFalse(p.choseToChibrer());
+            TrumpEstimates estimates = p.lastTrumpEstimates();
+            assertEquals(2_000, estimates.deals());
+            assertTrue(estimates.hasChibre());
+            assertEquals(Color.HEART, p.chooseTrump(h));
+            /* the estimates of choseToChibrer are used */
+            assertSame(estimates, p.lastTrumpEstimates());
+            for (Color c : Color.ALL) {
+                assertTrue(0 <= estimates.expectedPoints(c) && estimates.expectedPoints(c) <= 257);
+                assertTrue(0 < estimates.marginOfError(c) && estimates.marginOfError(c) < 10);
+            }
+            assertTrue(estimates.expectedPoints(Color.HEART) - estimates.marginOfError(Color.HEART)
+                    > estimates.expectedPoints(Color.CLUB) + estimates.marginOfError(Color.CLUB));
+        });
+    }
+
+    @Test
+    void trumpSimulatingPlayerChoosingAfterAChibreDoesNotSimulateIt() {
+        MctsPlayer p = new MctsPlayer(PlayerId.PLAYER_3, SEED, 500)
+                .withTrumpSimulation(Duration.ofSeconds(10));
+        CardSet hand = CardSet.ALL_CARDS.subsetOfColor(Color.DIAMOND);
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            assertEquals(Color.DIAMOND, p.chooseTrump(hand));
+            assertFalse(p.lastTrumpEstimates().hasChibre());
+            assertThrows(IllegalStateException.class, () -> {
+                p.lastTrumpEstimates().chibreExpectedPoints();
+            });
+        });
+    }
+
+    @Test
+    void rootParallelTrumpSimulationIsDeterministic() {
+        CardSet hand = CardSet.ALL_CARDS.subsetOfColor(Color.CLUB).remove(Card.of(Color.CLUB, Rank.JACK))
+                .add(Card.of(Color.SPADE, Rank.JACK));
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            String[] estimates = new String[2];
+            for (int i = 0; i < estimates.length; ++i) {
+                MctsPlayer p = new MctsPlayer(PlayerId.PLAYER_1, SEED, 1_000)
+                        .withRootParallelism(3).withTrumpSimulation(Duration.ofSeconds(10));
+                p.updateHand(hand);
+                p.choseToChibrer();
+                estimates[i] = p.lastTrumpEstimates().toString();
+                assertEquals(1_000, p.lastTrumpEstimates().deals());
+            }
+            assertEquals(estimates[0], estimates[1]);
+        });
+    }
+
+    private static List<Card> cardsPlayedInOneTurn(int threads) {
+        CardSet[] hands = new CardSet[PlayerId.COUNT];
+        MctsPlayer[] players = new MctsPlayer[PlayerId.COUNT];
+        for (PlayerId id : PlayerId.ALL) {
+            hands[id.ordinal()] = CardSet.EMPTY;
+            players[id.ordinal()] = new MctsPlayer(id, SEED + id.ordinal(), 200)
+                    .withRootParallelism(threads);
+        }
+        for (int i = 0; i < CardSet.ALL_CARDS.size(); ++i) {
+            int p = (i * 7) % PlayerId.COUNT;
+            while (hands[p].size() == Jass.HAND_SIZE)
+                p = (p + 1) % PlayerId.COUNT;
+            hands[p] = hands[p].add(CardSet.ALL_CARDS.get(i));
+        }
+
+        List<Card> played = new ArrayList<>();
+        TurnState state = TurnState.initial(Color.HEART, Score.INITIAL, PlayerId.PLAYER_2);
+        while (!state.isTerminal()) {
+            int p = state.nextPlayer().ordinal();
+            Card c = players[p].cardToPlay(state, hands[p]);
+            played.add(c);
+            hands[p] = hands[p].remove(c);
+            state = state.withNewCardPlayedAndTrickCollected(c);
+        }
+        return played;
+    }
+
     private static TurnState stateAfterPlayingAllCardsIn(CardSet cards, Color trump, PlayerId firstPlayer) {
         TurnState s = TurnState.initial(trump, Score.INITIAL, firstPlayer);
         for (int i = 0; i < cards.size(); ++i)
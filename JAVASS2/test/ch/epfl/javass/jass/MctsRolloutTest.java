@@ -0,0 +1,70 @@
+package ch.epfl.javass.jass;
+
+import static ch.epfl.test.TestRandomizer.RANDOM_ITERATIONS;
+import static ch.epfl.test.TestRandomizer.newRandom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import ch.epfl.javass.jass.Card.Color;
+
+public class MctsRolloutTest {
+    @Test
+    void playableCardsOfSimulatedPlayerAreInHisHand() {
+        TurnState state = TurnState.initial(Color.SPADE, Score.INITIAL, PlayerId.PLAYER_1);
+        long hand = CardSet.ALL_CARDS.subsetOfColor(Color.HEART).packed();
+        assertEquals(hand, MctsRollout.playableCards(state.packedTrick(),
+                state.packedUnplayedCards(), hand, PlayerId.PLAYER_1));
+        assertEquals(PackedCardSet.difference(PackedCardSet.ALL_CARDS, hand),
+                MctsRollout.playableCards(state.packedTrick(),
+                        state.packedUnplayedCards(), hand, PlayerId.PLAYER_2));
+    }
+
+    @Test
+    void randomTurnScoreCompletesTheTurn() {
+        SplittableRandom rng = newRandom();
+        long hand = CardSet.ALL_CARDS.subsetOfColor(Color.CLUB).packed();
+        for (int i = 0; i < RANDOM_ITERATIONS; ++i) {
+            Color trump = Color.ALL.get(rng.nextInt(Color.COUNT));
+            TurnState state = TurnState.initial(trump, Score.INITIAL, PlayerId.PLAYER_3);
+            long score = MctsRollout.randomTurnScore(state.packedScore(),
+                    state.packedUnplayedCards(), state.packedTrick(), hand,
+                    PlayerId.PLAYER_1, rng);
+
+            assertTrue(PackedScore.isValid(score));
+            assertEquals(Jass.TRICKS_PER_TURN, PackedScore.turnTricks(score, TeamId.TEAM_1)
+                    + PackedScore.turnTricks(score, TeamId.TEAM_2));
+            int points = PackedScore.turnPoints(score, TeamId.TEAM_1)
+                    + PackedScore.turnPoints(score, TeamId.TEAM_2);
+            assertTrue(points == Jass.MAX_POINTS_PER_TURN_WITHOUT_A_MATCH
+                    || points == Jass.MAX_POINTS_PER_TURN);
+        }
+    }
+
+    @Test
+    void policyTurnScoreCompletesTheTurn() {
+        SplittableRandom rng = newRandom();
+        long hand = CardSet.ALL_CARDS.subsetOfColor(Color.CLUB).packed();
+        for (int i = 0; i < RANDOM_ITERATIONS; ++i) {
+            Color trump = Color.ALL.get(rng.nextInt(Color.COUNT));
+            TurnState state = TurnState.initial(trump, Score.INITIAL, PlayerId.PLAYER_3);
+            long score = MctsRollout.turnScore(state.packedScore(),
+                    state.packedUnplayedCards(), state.packedTrick(), hand,
+                    PlayerId.PLAYER_1, RolloutPolicy.SAVE_TRUMPS, rng);
+
+            assertTrue(PackedScore.isValid(score));
+            assertEquals(Jass.TRICKS_PER_TURN, PackedScore.turnTricks(score, TeamId.TEAM_1)
+                    + PackedScore.turnTricks(score, TeamId.TEAM_2));
+        }
+    }
+
+    @Test
+    void randomTurnScoreOfTerminalStateIsItsScore() {
+        long score = PackedScore.pack(4, 80, 100, 5, 77, 200);
+        assertEquals(score, MctsRollout.randomTurnScore(score, PackedCardSet.EMPTY,
+                PackedTrick.INVALID, PackedCardSet.EMPTY, PlayerId.PLAYER_1, newRandom()));
+    }
+}
@@ -0,0 +1,215 @@
+package ch.epfl.javass.jass;
+
+import static ch.epfl.test.TestRandomizer.newRandom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import ch.epfl.javass.jass.Card.Color;
+
+public class MctsTreeTest {
+    private static final long HAND = CardSet.ALL_CARDS.subsetOfColor(Color.HEART).packed();
+
+    private static TurnState initialState() {
+        return TurnState.initial(Color.SPADE, Score.INITIAL, PlayerId.PLAYER_1);
+    }
+
+    private static void grow(MctsTree tree, int iterations, SplittableRandom rng) {
+        int[] path = new int[MctsTree.MAX_PATH_LENGTH];
+        for (int i = 0; i < iterations; ++i) {
+            int length = tree.selectPath(path);
+            int leaf = path[length - 1];
+            tree.update(path, length, MctsRollout.randomTurnScore(tree.score(leaf),
+                    tree.unplayedCards(leaf), tree.trick(leaf), HAND, PlayerId.PLAYER_1, rng));
+        }
+    }
+
+    @Test
+    void resetCreatesOnlyTheRoot() {
+        MctsTree tree = new MctsTree();
+        TurnState state = initialState();
+        tree.reset(state, HAND, PlayerId.PLAYER_1);
+
+        assertEquals(1, tree.size());
+        assertEquals(state.packedScore(), tree.score(MctsTree.ROOT));
+        assertEquals(state.packedUnplayedCards(), tree.unplayedCards(MctsTree.ROOT));
+        assertEquals(state.packedTrick(), tree.trick(MctsTree.ROOT));
+        assertEquals(0, tree.turns(MctsTree.ROOT));
+        for (int i = 0; i < Jass.HAND_SIZE; ++i)
+            assertEquals(MctsTree.NO_NODE, tree.child(MctsTree.ROOT, i));
+    }
+
+    @Test
+    void everyIterationAddsOneNodeAndOneTurnToTheRoot() {
+        MctsTree tree = new MctsTree();
+        tree.reset(initialState(), HAND, PlayerId.PLAYER_1);
+        grow(tree, 5_000, newRandom());
+
+        assertEquals(5_001, tree.size());
+        assertEquals(5_000, tree.turns(MctsTree.ROOT));
+        int childrenTurns = 0;
+        for (int i = 0; i < Jass.HAND_SIZE; ++i)
+            childrenTurns += tree.childTurns(MctsTree.ROOT, i);
+        assertEquals(5_000, childrenTurns);
+    }
+
+    @Test
+    void childrenStatesFollowThePlayedCard() {
+        MctsTree tree = new MctsTree();
+        TurnState state = initialState();
+        tree.reset(state, HAND, PlayerId.PLAYER_1);
+        grow(tree, 100, newRandom());
+
+        CardSet playable = CardSet.ofPacked(HAND);
+        for (int i = 0; i < playable.size(); ++i) {
+            int child = tree.child(MctsTree.ROOT, i);
+            assertNotEquals(MctsTree.NO_NODE, child);
+            TurnState expected = state.withNewCardPlayedAndTrickCollected(playable.get(i));
+            assertEquals(expected.packedScore(), tree.score(child));
+            assertEquals(expected.packedUnplayedCards(), tree.unplayedCards(child));
+            assertEquals(expected.packedTrick(), tree.trick(child));
+        }
+    }
+
+    @Test
+    void resetEmptiesAGrownTree() {
+        MctsTree tree = new MctsTree();
+        tree.reset(initialState(), HAND, PlayerId.PLAYER_1);
+        grow(tree, 3_000, newRandom());
+        tree.reset(initialState(), HAND, PlayerId.PLAYER_1);
+
+        assertEquals(1, tree.size());
+        assertEquals(0, tree.turns(MctsTree.ROOT));
+        assertEquals(0, tree.childTurns(MctsTree.ROOT, 0));
+    }
+
+    @Test
+    void concurrentSelectionCountsVirtualLossesAndStopsWhenFull() {
+        MctsTree tree = new MctsTree();
+        tree.reset(initialState(), HAND, PlayerId.PLAYER_1);
+        int[] path = new int[MctsTree.MAX_PATH_LENGTH];
+        for (int i = 0; i < 3_000; ++i) {
+            int length = tree.selectPathConcurrently(path);
+            assertTrue(length >= 1);
+            for (int j = 0; j < length; ++j)
+                assertTrue(tree.turns(path[j]) >= 1);
+        }
+        assertEquals(3_000, tree.turns(MctsTree.ROOT));
+    }
+
+    @Test
+    void rerootKeepsTheSubtreeOfTheNewRoot() {
+        MctsTree tree = new MctsTree();
+        TurnState state = initialState();
+        tree.reset(state, HAND, PlayerId.PLAYER_1);
+        SplittableRandom rng = newRandom();
+        grow(tree, 5_000, rng);
+
+        int pkCard = PackedCardSet.get(HAND, 3);
+        int child = tree.childOf(MctsTree.ROOT, pkCard);
+        assertEquals(tree.child(MctsTree.ROOT, 3), child);
+        TurnState childState = state.withNewCardPlayedAndTrickCollected(Card.ofPacked(pkCard));
+        assertTrue(tree.represents(child, childState, HAND, PlayerId.PLAYER_1));
+
+        int turns = tree.turns(child);
+        int childrenCount = PackedCardSet.size(MctsRollout.playableCards(childState.packedTrick(),
+                childState.packedUnplayedCards(), HAND, PlayerId.PLAYER_1));
+        int[] childrenTurns = new int[childrenCount];
+        for (int i = 0; i < childrenCount; ++i)
+            childrenTurns[i] = tree.childTurns(child, i);
+
+        tree.reroot(child);
+        assertEquals(turns, tree.turns(MctsTree.ROOT));
+        assertTrue(tree.represents(MctsTree.ROOT, childState, HAND, PlayerId.PLAYER_1));
+        assertTrue(tree.size() <= turns);
+        for (int i = 0; i < childrenCount; ++i)
+            assertEquals(childrenTurns[i], tree.childTurns(MctsTree.ROOT, i));
+
+        grow(tree, 1_000, rng);
+        assertEquals(turns + 1_000, tree.turns(MctsTree.ROOT));
+    }
+
+    @Test
+    void childOfIsNoNodeForAnUnplayableCard() {
+        MctsTree tree = new MctsTree();
+        tree.reset(initialState(), HAND, PlayerId.PLAYER_1);
+        grow(tree, 100, newRandom());
+        int spadeCard = CardSet.ALL_CARDS.subsetOfColor(Color.SPADE).get(0).packed();
+        assertEquals(MctsTree.NO_NODE, tree.childOf(MctsTree.ROOT, spadeCard));
+    }
+
+    @Test
+    void transpositionsShareTheNodesOfTheSameState() {
+        MctsTree tree = new MctsTree();
+        tree.useTranspositions(new TranspositionTable(1 << 20));
+        TurnState state = initialState();
+        tree.reset(state, HAND, PlayerId.PLAYER_1);
+        grow(tree, 20_000, newRandom());
+
+        assertEquals(20_000, tree.turns(MctsTree.ROOT));
+        assertTrue(tree.size() < 20_001);
+        /* every child is still the state reached by its card */
+        for (int node = 0; node < tree.size(); ++node) {
+            TurnState s = TurnState.ofPackedComponents(tree.score(node),
+                    tree.unplayedCards(node), tree.trick(node));
+            CardSet unplayed = s.unplayedCards();
+            for (int i = 0; i < unplayed.size(); ++i) {
+                int child = tree.childOf(node, unplayed.get(i).packed());
+                if (child == MctsTree.NO_NODE)
+                    continue;
+                TurnState expected = s.withNewCardPlayedAndTrickCollected(unplayed.get(i));
+                assertEquals(expected.packedScore(), tree.score(child));
+                assertEquals(expected.packedUnplayedCards(), tree.unplayedCards(child));
+                assertEquals(expected.packedTrick(), tree.trick(child));
+            }
+        }
+    }
+
+    @Test
+    void resetEmptiesTheTranspositions() {
+        MctsTree tree = new MctsTree();
+        tree.useTranspositions(new TranspositionTable(1 << 20));
+        tree.reset(initialState(), HAND, PlayerId.PLAYER_1);
+        grow(tree, 5_000, new SplittableRandom(1));
+        int size = tree.size();
+
+        tree.reset(initialState(), HAND, PlayerId.PLAYER_1);
+        grow(tree, 5_000, new SplittableRandom(1));
+        assertEquals(size, tree.size());
+    }
+
+    @Test
+    void groupedTreeHasAChildPerClassOfEquivalentCards() {
+        MctsTree tree = new MctsTree();
+        tree.groupEquivalentCards(true);
+        tree.reset(initialState(), HAND, PlayerId.PLAYER_1);
+        /* the 6, 7, 8 and 9 of hearts, worth nothing, are equivalent */
+        assertEquals(PackedTrick.distinctCards(initialState().packedTrick(), HAND,
+                PackedCardSet.ALL_CARDS), tree.playableCards(MctsTree.ROOT));
+        assertEquals(6, PackedCardSet.size(tree.playableCards(MctsTree.ROOT)));
+
+        grow(tree, 5_000, newRandom());
+        assertEquals(5_000, tree.turns(MctsTree.ROOT));
+        for (int node = 0; node < tree.size(); ++node) {
+            long playable = tree.playableCards(node);
+            assertEquals(playable, PackedTrick.distinctCards(tree.trick(node), playable,
+                    tree.unplayedCards(node)));
+        }
+    }
+
+    @Test
+    void spreadRootVisitsVisitsEveryChildOfTheRootAsMuch() {
+        MctsTree tree = new MctsTree();
+        tree.reset(initialState(), HAND, PlayerId.PLAYER_1);
+        tree.spreadRootVisits(true);
+        grow(tree, 100 * Jass.HAND_SIZE + 4, newRandom());
+        for (int i = 0; i < Jass.HAND_SIZE; ++i) {
+            int turns = tree.childTurns(MctsTree.ROOT, i);
+            assertTrue(turns == 100 || turns == 101);
+        }
+    }
+}
@@ -492,4 +492,34 @@ public class PackedCardSetTest {
             assertEquals(expectedS, PackedCardSet.subsetOfColor(s, c));
         }
     }
+
+    @Test
+    void getReturnsTheCardsInIncreasingOrder() {
+        SplittableRandom rng = newRandom();
+        for (int i = 0; i < RANDOM_ITERATIONS; ++i) {
+            long s = nextSet(rng);
+            long remaining = s;
+            for (int j = 0; j < PackedCardSet.size(s); ++j) {
+                assertEquals(Long.numberOfTrailingZeros(remaining), PackedCardSet.get(s, j));
+                remaining ^= Long.lowestOneBit(remaining);
+            }
+        }
+    }
+
+    @Test
+    void randomMemberUsesTheGeneratorLikeGet() {
+        SplittableRandom rng = newRandom();
+        for (int i = 0; i < RANDOM_ITERATIONS; ++i) {
+            long s = nextSet(rng);
+            if (s == PackedCardSet.EMPTY)
+                continue;
+            long seed = rng.nextLong();
+            SplittableRandom rng1 = new SplittableRandom(seed);
+            SplittableRandom rng2 = new SplittableRandom(seed);
+            int pkCard = PackedCardSet.randomMember(s, rng1);
+            assertTrue(PackedCardSet.contains(s, pkCard));
+            assertEquals(PackedCardSet.get(s, rng2.nextInt(PackedCardSet.size(s))), pkCard);
+            assertEquals(rng2.nextLong(), rng1.nextLong());
+        }
+    }
 }
@@ -0,0 +1,123 @@
+package ch.epfl.javass.jass;
+
+import static ch.epfl.test.TestRandomizer.RANDOM_ITERATIONS;
+import static ch.epfl.test.TestRandomizer.newRandom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import ch.epfl.javass.jass.Card.Color;
+import ch.epfl.javass.jass.Card.Rank;
+
+public class PackedMeldSetTest {
+    private static long randomHand(SplittableRandom rng) {
+        long hand = PackedCardSet.EMPTY;
+        while (PackedCardSet.size(hand) < Jass.HAND_SIZE)
+            hand = PackedCardSet.add(hand, PackedCardSet.randomMember(PackedCardSet.ALL_CARDS, rng));
+        return hand;
+    }
+
+    /* a hand with many melds, 3 of the 4 jacks being in a suit */
+    private static long richHand(SplittableRandom rng) {
+        long hand = PackedCardSet.EMPTY;
+        for (Color c : Color.ALL)
+            hand = PackedCardSet.add(hand, PackedCard.pack(c, Rank.JACK));
+        Color color = Color.ALL.get(rng.nextInt(Color.COUNT));
+        for (Rank r : new Rank[] { Rank.EIGHT, Rank.NINE, Rank.TEN, Rank.QUEEN, Rank.KING })
+            hand = PackedCardSet.add(hand, PackedCard.pack(color, r));
+        return hand;
+    }
+
+    @Test
+    void bestHasTheMostPointsOfAllTheMeldSets() {
+        SplittableRandom rng = newRandom();
+        for (int i = 0; i < RANDOM_ITERATIONS; ++i) {
+            long hand = i % 2 == 0 ? randomHand(rng) : richHand(rng);
+            int maxPoints = 0;
+            for (MeldSet m : MeldSet.allIn(CardSet.ofPacked(hand)))
+                maxPoints = Math.max(maxPoints, m.points());
+
+            long best = PackedMeldSet.best(hand);
+            assertTrue(PackedMeldSet.isValid(best));
+            assertEquals(maxPoints, PackedMeldSet.points(best));
+            assertEquals(PackedMeldSet.cards(best),
+                    PackedCardSet.intersection(PackedMeldSet.cards(best), hand));
+            assertEquals(maxPoints, MeldSet.best(CardSet.ofPacked(hand)).points());
+        }
+    }
+
+    @Test
+    void bestKeepsTwoMeldsOfTheSameStrength() {
+        /* the suits 10-J-Q of diamond and of club, which MeldSet used to
+         * merge because compareTo finds them equal */
+        long hand = PackedCardSet.EMPTY;
+        for (Color c : new Color[] { Color.DIAMOND, Color.CLUB })
+            for (Rank r : new Rank[] { Rank.TEN, Rank.JACK, Rank.QUEEN })
+                hand = PackedCardSet.add(hand, PackedCard.pack(c, r));
+
+        long best = PackedMeldSet.best(hand);
+        assertEquals(40, PackedMeldSet.points(best));
+        assertEquals(2, PackedMeldSet.size(best));
+        assertEquals(40, MeldSet.best(CardSet.ofPacked(hand)).points());
+        assertEquals(2, MeldSet.best(CardSet.ofPacked(hand)).size());
+    }
+
+    @Test
+    void bestOfAHandWithoutMeldIsEmpty() {
+        long hand = PackedCardSet.EMPTY;
+        for (Color c : Color.ALL)
+            hand = PackedCardSet.add(hand, PackedCard.pack(c, Rank.SIX));
+        assertEquals(PackedMeldSet.EMPTY, PackedMeldSet.best(hand));
+        assertEquals(0, PackedMeldSet.size(PackedMeldSet.EMPTY));
+        assertEquals(0, MeldSet.best(CardSet.ofPacked(hand)).size());
+    }
+
+    @Test
+    void addKeepsTheMeldsInIncreasingOrder() {
+        /* three disjoint melds, added in decreasing order */
+        int[] melds = new int[3];
+        long cards = PackedCardSet.EMPTY;
+        for (int m = Meld.ALL.size() - 1, n = 0; n < melds.length; --m) {
+            if ((PackedMeldSet.meldCards(m) & cards) == 0) {
+                melds[n++] = m;
+                cards |= PackedMeldSet.meldCards(m);
+            }
+        }
+        long set = PackedMeldSet.EMPTY;
+        for (int m : melds)
+            set = PackedMeldSet.add(set, m);
+        assertTrue(PackedMeldSet.isValid(set));
+        assertEquals(3, PackedMeldSet.size(set));
+        for (int i = 0; i < melds.length; ++i)
+            assertEquals(melds[melds.length - 1 - i], PackedMeldSet.meld(set, i));
+        assertEquals(cards, PackedMeldSet.cards(set));
+    }
+
+    @Test
+    void isValidRejectsOverlappingOrUnorderedMelds() {
+        assertTrue(PackedMeldSet.isValid(PackedMeldSet.EMPTY));
+        /* the suits 6-7-8 and 7-8-9 of the same color */
+        int first = Meld.indexOf(CardSet.ofPacked(PackedMeldSet.meldCards(6)));
+        assertFalse(PackedMeldSet.isValid((first + 1) | (long) (first + 2) << 8));
+        /* two disjoint melds in decreasing order */
+        assertFalse(PackedMeldSet.isValid(1 | 0L << 8 | 7L << 16));
+        assertFalse(PackedMeldSet.isValid(Meld.ALL.size() + 1));
+    }
+
+    @Test
+    void meldSetOfPackedHasTheSameMelds() {
+        SplittableRandom rng = newRandom();
+        for (int i = 0; i < 100; ++i) {
+            long best = PackedMeldSet.best(richHand(rng));
+            MeldSet melds = MeldSet.ofPacked(best);
+            assertEquals(PackedMeldSet.size(best), melds.size());
+            assertEquals(PackedMeldSet.points(best), melds.points());
+        }
+        assertThrows(IllegalArgumentException.class, () -> MeldSet.ofPacked(1 | 1L << 8));
+    }
+}
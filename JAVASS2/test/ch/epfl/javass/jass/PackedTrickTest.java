@@ -482,4 +482,84 @@ public class PackedTrickTest {
         int pkTrick = trick(0, SPADE, PLAYER_1, c(HEART, SIX),  c(DIAMOND, NINE), c(DIAMOND, EIGHT));
         assertEquals(PlayerId.PLAYER_1, PackedTrick.winningPlayer(pkTrick));
     }
+
+    @Test
+    void winningPlayerIsThePlayerOfTheBestCard() {
+        SplittableRandom rng = newRandom();
+        for (int i = 0; i < RANDOM_ITERATIONS; ++i) {
+            Color trump = Color.ALL.get(rng.nextInt(Color.COUNT));
+            long cards = nextCardSet(rng, 1 + rng.nextInt(4));
+            int pkTrick = PackedTrick.firstEmpty(trump, PLAYER_1);
+            int best = PackedCardSet.get(cards, 0);
+            int bestIndex = 0;
+            for (int j = 0; j < PackedCardSet.size(cards); ++j) {
+                int pkCard = PackedCardSet.get(cards, j);
+                pkTrick = PackedTrick.withAddedCard(pkTrick, pkCard);
+                if (PackedCard.isBetter(trump, pkCard, best)) {
+                    best = pkCard;
+                    bestIndex = j;
+                }
+            }
+            assertEquals(PlayerId.ALL.get(bestIndex), PackedTrick.winningPlayer(pkTrick));
+        }
+    }
+
+    @Test
+    void distinctCardsKeepsOneCardOfEachClass() {
+        int pkTrick = PackedTrick.firstEmpty(DIAMOND, PLAYER_1);
+        long hand = cardSet(c(HEART, SIX), c(HEART, Rank.SEVEN), c(HEART, NINE), c(HEART, TEN), c(HEART, KING));
+        long unplayed = hand | cardSet(c(HEART, EIGHT), c(HEART, QUEEN));
+        // 6 and 7 touch, 9 is separated by the 8, 10 and king by the queen
+        assertEquals(cardSet(c(HEART, SIX), c(HEART, NINE), c(HEART, TEN), c(HEART, KING)),
+                PackedTrick.distinctCards(pkTrick, hand, unplayed));
+
+        // once the 8 is collected, 6, 7 and 9 touch
+        unplayed = PackedCardSet.remove(unplayed, c(HEART, EIGHT));
+        assertEquals(cardSet(c(HEART, SIX), c(HEART, TEN), c(HEART, KING)),
+                PackedTrick.distinctCards(pkTrick, hand, unplayed));
+
+        // but not while it is in the trick
+        pkTrick = PackedTrick.withAddedCard(pkTrick, c(HEART, EIGHT));
+        assertEquals(cardSet(c(HEART, SIX), c(HEART, NINE), c(HEART, TEN), c(HEART, KING)),
+                PackedTrick.distinctCards(pkTrick, hand, unplayed));
+    }
+
+    @Test
+    void distinctCardsUsesTheOrderOfTrumps() {
+        int pkTrick = PackedTrick.firstEmpty(HEART, PLAYER_1);
+        // the 8 and 10 of trump touch, not the 9, above the ace
+        long hand = cardSet(c(HEART, EIGHT), c(HEART, NINE), c(HEART, TEN));
+        long unplayed = hand | cardSet(c(HEART, ACE));
+        assertEquals(cardSet(c(HEART, EIGHT), c(HEART, NINE), c(HEART, TEN)),
+                PackedTrick.distinctCards(pkTrick, hand, unplayed));
+        hand = cardSet(c(HEART, SIX), c(HEART, Rank.SEVEN), c(HEART, EIGHT));
+        assertEquals(cardSet(c(HEART, SIX)), PackedTrick.distinctCards(pkTrick, hand, hand));
+    }
+
+    @Test
+    void distinctCardsKeepsOneCardOfEachColorAndPoints() {
+        SplittableRandom rng = newRandom();
+        for (int i = 0; i < RANDOM_ITERATIONS; ++i) {
+            long unplayed = nextCardSet(rng, 4 + rng.nextInt(30));
+            long cards = unplayed & nextCardSet(rng, 20);
+            int pkTrick = PackedTrick.firstEmpty(nextColor(rng), PLAYER_1);
+            long distinct = PackedTrick.distinctCards(pkTrick, cards, unplayed);
+            assertEquals(distinct, distinct & cards);
+            // a card is only dropped for a weaker one of the same color and points
+            for (int j = 0; j < PackedCardSet.size(cards); ++j) {
+                int pkCard = PackedCardSet.get(cards, j);
+                if (PackedCardSet.contains(distinct, pkCard))
+                    continue;
+                Color trump = PackedTrick.trump(pkTrick);
+                boolean kept = false;
+                for (int k = 0; k < PackedCardSet.size(distinct); ++k) {
+                    int other = PackedCardSet.get(distinct, k);
+                    kept |= PackedCard.color(other) == PackedCard.color(pkCard)
+                            && PackedCard.points(trump, other) == PackedCard.points(trump, pkCard)
+                            && PackedCard.isBetter(trump, pkCard, other);
+                }
+                assertTrue(kept);
+            }
+        }
+    }
 }
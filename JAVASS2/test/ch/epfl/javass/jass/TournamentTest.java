@@ -0,0 +1,57 @@
+package ch.epfl.javass.jass;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.function.BiFunction;
+
+import org.junit.jupiter.api.Test;
+
+public class TournamentTest {
+    private static final BiFunction<PlayerId, Long, Player> WEAK =
+            (id, seed) -> new MctsPlayer(id, seed, Jass.HAND_SIZE);
+    private static final BiFunction<PlayerId, Long, Player> STRONG =
+            (id, seed) -> new MctsPlayer(id, seed, 100);
+
+    @Test
+    void everyDealIsPlayedTwiceAndEveryGameHasAWinner() {
+        Tournament.Result result = new Tournament(WEAK, STRONG, 2).play(3, 2019);
+
+        assertEquals(6, result.games());
+        assertEquals(6, result.wins() + result.losses());
+        assertTrue(result.gamesPerSecond() > 0);
+        assertTrue(result.points() + result.opponentPoints() >= 6 * Jass.WINNING_POINTS);
+    }
+
+    @Test
+    void resultsDoNotDependOnTheNumberOfThreads() {
+        Tournament.Result sequential = new Tournament(WEAK, STRONG, 1).play(2, 7);
+        Tournament.Result parallel = new Tournament(WEAK, STRONG, 3).play(2, 7);
+
+        assertEquals(sequential.wins(), parallel.wins());
+        assertEquals(sequential.points(), parallel.points());
+        assertEquals(sequential.opponentPoints(), parallel.opponentPoints());
+    }
+
+    @Test
+    void swappedSidesGetSymmetricResults() {
+        Tournament.Result result = new Tournament(WEAK, STRONG, 1).play(2, 7);
+        Tournament.Result swapped = new Tournament(STRONG, WEAK, 1).play(2, 7);
+
+        assertEquals(result.wins(), swapped.losses());
+        assertEquals(result.points(), swapped.opponentPoints());
+        assertEquals(result.opponentPoints(), swapped.points());
+    }
+
+    @Test
+    void constructorFailsWithoutThreads() {
+        assertThrows(IllegalArgumentException.class, () -> new Tournament(WEAK, STRONG, 0));
+    }
+
+    @Test
+    void playFailsWithoutDeals() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new Tournament(WEAK, STRONG, 1).play(0, 0));
+    }
+}
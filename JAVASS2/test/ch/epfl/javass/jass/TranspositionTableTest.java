@@ -0,0 +1,72 @@
+package ch.epfl.javass.jass;
+
+import static ch.epfl.test.TestRandomizer.RANDOM_ITERATIONS;
+import static ch.epfl.test.TestRandomizer.newRandom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+public class TranspositionTableTest {
+    @Test
+    void constructorFailsWithTooFewBytes() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new TranspositionTable(TranspositionTable.MIN_BYTES - 1);
+        });
+    }
+
+    @Test
+    void capacityIsTheLargestPowerOfTwoWhichFits() {
+        assertEquals(4, new TranspositionTable(TranspositionTable.MIN_BYTES).capacity());
+        assertEquals(1 << 10, new TranspositionTable(1 << 14).capacity());
+        assertEquals(1 << 10, new TranspositionTable((1 << 15) - 1).capacity());
+    }
+
+    @Test
+    void getReturnsTheValuesPut() {
+        SplittableRandom rng = newRandom();
+        TranspositionTable table = new TranspositionTable(1 << 20);
+        long[] keys = new long[RANDOM_ITERATIONS];
+        for (int i = 0; i < keys.length; ++i) {
+            keys[i] = rng.nextLong();
+            table.put(keys[i], i, 10);
+        }
+        for (int i = 0; i < keys.length; ++i)
+            assertEquals(i, table.get(keys[i]));
+        assertEquals(TranspositionTable.NO_VALUE, table.get(rng.nextLong()));
+
+        table.put(keys[0], 42, 10);
+        assertEquals(42, table.get(keys[0]));
+    }
+
+    @Test
+    void clearEmptiesTheTable() {
+        TranspositionTable table = new TranspositionTable(1 << 10);
+        for (long k = 0; k < 10; ++k)
+            table.put(k, (int) k, 0);
+        table.clear();
+        for (long k = 0; k < 10; ++k)
+            assertEquals(TranspositionTable.NO_VALUE, table.get(k));
+        table.put(3, 7, 0);
+        assertEquals(7, table.get(3));
+    }
+
+    @Test
+    void aFullWindowKeepsTheEntriesOfHighestPriority() {
+        /* 4 entries : every key is looked for in the whole table */
+        TranspositionTable table = new TranspositionTable(TranspositionTable.MIN_BYTES);
+        for (int k = 0; k < 4; ++k)
+            table.put(k, k, 10 + k);
+        /* a lower priority than all the entries is dropped */
+        table.put(4, 4, 5);
+        assertEquals(TranspositionTable.NO_VALUE, table.get(4));
+        /* a higher one replaces the entry of lowest priority */
+        table.put(5, 5, 20);
+        assertEquals(5, table.get(5));
+        assertEquals(TranspositionTable.NO_VALUE, table.get(0));
+        for (int k = 1; k < 4; ++k)
+            assertEquals(k, table.get(k));
+    }
+}
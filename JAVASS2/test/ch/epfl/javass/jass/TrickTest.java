@@ -12,6 +12,7 @@ import static ch.epfl.test.TestRandomizer.RANDOM_ITERATIONS;
 import static ch.epfl.test.TestRandomizer.newRandom;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -236,4 +237,23 @@ public class TrickTest {
             t2 = t2.nextEmpty();
         }
     }
+
+    @Test
+    void emptyTricksAreShared() {
+        for (Color trump : Color.ALL) {
+            for (PlayerId firstPlayer : PlayerId.ALL) {
+                Trick t = Trick.firstEmpty(trump, firstPlayer);
+                assertSame(t, Trick.firstEmpty(trump, firstPlayer));
+                assertSame(t, Trick.ofPacked(t.packed()));
+                for (int i = 1; i < Jass.TRICKS_PER_TURN; ++i) {
+                    for (Color c : Color.ALL)
+                        t = t.withAddedCard(c(c, Rank.ALL.get(i)));
+                    Trick next = t.nextEmpty();
+                    assertSame(next, Trick.ofPacked(next.packed()));
+                    assertEquals(i, next.index());
+                    t = next;
+                }
+            }
+        }
+    }
 }
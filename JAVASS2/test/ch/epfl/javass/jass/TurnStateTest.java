@@ -4,6 +4,7 @@ import static ch.epfl.test.TestRandomizer.RANDOM_ITERATIONS;
 import static ch.epfl.test.TestRandomizer.newRandom;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -225,4 +226,17 @@ public class TurnStateTest {
             s.withNewCardPlayedAndTrickCollected(Card.of(Color.HEART, Rank.ACE));
         });
     }
+
+    @Test
+    void scoreAndTrickAreCreatedOnce() {
+        Score score = Score.INITIAL.withAdditionalTrick(TeamId.TEAM_1, 20);
+        TurnState s = TurnState.initial(Color.HEART, score, PlayerId.PLAYER_2);
+        assertSame(s.trick(), s.trick());
+        assertSame(s.score(), s.score());
+        TurnState next = s.withNewCardPlayed(Card.of(Color.SPADE, Rank.NINE));
+        assertSame(s.score(), next.score());
+        assertSame(next.trick(), next.trick());
+        assertEquals(score, next.score());
+        assertSame(Score.INITIAL, Score.ofPacked(PackedScore.INITIAL));
+    }
 }
@@ -0,0 +1,69 @@
+package ch.epfl.javass.jass;
+
+import static ch.epfl.test.TestRandomizer.RANDOM_ITERATIONS;
+import static ch.epfl.test.TestRandomizer.newRandom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import ch.epfl.javass.jass.Card.Color;
+
+public class ZobristTest {
+    @Test
+    void keyCanBeUpdatedCardByCard() {
+        SplittableRandom rng = newRandom();
+        for (int i = 0; i < RANDOM_ITERATIONS / 10; ++i) {
+            long score = PackedScore.pack(0, 0, rng.nextInt(1000), 0, 0, rng.nextInt(1000));
+            long unplayed = PackedCardSet.ALL_CARDS;
+            int trick = PackedTrick.firstEmpty(Color.ALL.get(rng.nextInt(Color.COUNT)),
+                    PlayerId.ALL.get(rng.nextInt(PlayerId.COUNT)));
+            long key = Zobrist.key(score, unplayed, trick);
+            while (trick != PackedTrick.INVALID) {
+                int card = PackedCardSet.randomMember(unplayed, rng);
+                unplayed = PackedCardSet.remove(unplayed, card);
+                int nextTrick = PackedTrick.withAddedCard(trick, card);
+                long nextScore = score;
+                if (PackedTrick.isFull(nextTrick)) {
+                    nextScore = PackedScore.withAdditionalTrick(score,
+                            PackedTrick.winningPlayer(nextTrick).team(), PackedTrick.points(nextTrick));
+                    nextTrick = PackedTrick.nextEmpty(nextTrick);
+                }
+                key ^= Zobrist.card(card) ^ Zobrist.trick(trick) ^ Zobrist.trick(nextTrick)
+                        ^ Zobrist.score(score) ^ Zobrist.score(nextScore);
+                trick = nextTrick;
+                score = nextScore;
+                assertEquals(Zobrist.key(score, unplayed, trick), key);
+            }
+        }
+    }
+
+    @Test
+    void theStatesOfATurnHaveDifferentKeys() {
+        SplittableRandom rng = newRandom();
+        Set<Long> keys = new HashSet<>();
+        for (int i = 0; i < RANDOM_ITERATIONS; ++i) {
+            long score = PackedScore.INITIAL;
+            long unplayed = PackedCardSet.ALL_CARDS;
+            int trick = PackedTrick.firstEmpty(Color.HEART, PlayerId.PLAYER_1);
+            for (int c = 0; c < 8; ++c) {
+                int card = PackedCardSet.randomMember(unplayed, rng);
+                unplayed = PackedCardSet.remove(unplayed, card);
+                trick = PackedTrick.withAddedCard(trick, card);
+                if (PackedTrick.isFull(trick)) {
+                    score = PackedScore.withAdditionalTrick(score,
+                            PackedTrick.winningPlayer(trick).team(), PackedTrick.points(trick));
+                    trick = PackedTrick.nextEmpty(trick);
+                }
+            }
+            /* two random turns almost never reach the same state */
+            assertTrue(keys.add(Zobrist.key(score, unplayed, trick)));
+        }
+        assertNotEquals(Zobrist.team(TeamId.TEAM_1), Zobrist.team(TeamId.TEAM_2));
+    }
+}